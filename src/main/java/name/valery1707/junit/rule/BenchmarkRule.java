@@ -0,0 +1,170 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.condition.Benchmark;
+import name.valery1707.junit.rule.condition.BenchmarkNoiseCondition;
+import name.valery1707.junit.rule.condition.Settings;
+import name.valery1707.junit.rule.condition.TestId;
+import name.valery1707.junit.rule.history.LatencyHistogram;
+import org.junit.rules.MethodRule;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Rule which runs {@link Benchmark benchmark} tests as micro-benchmarks.
+ * <p>
+ * Body of the test (including {@link org.junit.Before} and {@link org.junit.After} methods) is run
+ * {@link Benchmark#warmup()} times without measuring and then {@link Benchmark#iterations()} times
+ * with recording of latencies into {@link LatencyHistogram}.
+ * Latency at {@link Benchmark#percentile()} is compared with baseline of the test and test fails
+ * if regression exceeds {@link Benchmark#tolerance()}.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #BASELINE} - directory with baselines, one file {@code className#methodName.properties} per test;
+ * without it latencies are only measured</li>
+ * <li>{@value #UPDATE} - {@code true} to overwrite existing baselines by measured values</li>
+ * </ul>
+ * Missing baseline is recorded from the first run.
+ * <p>
+ * Rule wraps {@link ConditionalIgnoreRule} which by default also checks {@link BenchmarkNoiseCondition}:
+ * benchmarks are skipped in noisy environment.
+ * <p>
+ * Usage: create in test {@code public} field of class {@link BenchmarkRule} with annotation {@link org.junit.Rule}
+ * instead of {@link ConditionalIgnoreRule} and add annotation {@link Benchmark} on test methods.
+ */
+public class BenchmarkRule implements MethodRule {
+	public static final String BASELINE = "junit.benchmark.baseline";
+	public static final String UPDATE = "junit.benchmark.update";
+
+	private final ConditionalIgnoreRule conditions;
+
+	/**
+	 * Rule with {@link BenchmarkNoiseCondition} and conditions declared by {@link ConditionalIgnoreRule.ConditionalIgnore}.
+	 */
+	public BenchmarkRule() {
+		this(new ConditionalIgnoreRule(BenchmarkNoiseCondition.class));
+	}
+
+	/**
+	 * Rule with custom {@link ConditionalIgnoreRule}.
+	 *
+	 * @param conditions Rule which decide skipping of tests
+	 */
+	public BenchmarkRule(ConditionalIgnoreRule conditions) {
+		this.conditions = conditions;
+	}
+
+	/**
+	 * Rule which decides skipping of tests, used by {@link ConditionalIgnoreRunner} for decision up front.
+	 *
+	 * @return Wrapped rule
+	 */
+	ConditionalIgnoreRule getConditions() {
+		return conditions;
+	}
+
+	@Override
+	public Statement apply(Statement base, FrameworkMethod method, Object target) {
+		Benchmark benchmark = method.getAnnotation(Benchmark.class);
+		Statement decided = conditions.apply(base, method, target);
+		if (benchmark == null || decided != base) {
+			return decided;
+		}
+		if (benchmark.warmup() < 0 || benchmark.iterations() < 1 || benchmark.tolerance() < 0
+			|| !(benchmark.percentile() > 0 && benchmark.percentile() <= 100)) {
+			throw new IllegalArgumentException(String.format(
+				"Invalid @%s of %s: warmup must not be negative, iterations must be positive, "
+					+ "tolerance must not be negative and percentile must be in range (0, 100]",
+				Benchmark.class.getSimpleName(), method.getName()
+			));
+		}
+		String id = TestId.of(target.getClass().getName(), method.getName());
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				for (int i = 0; i < benchmark.warmup(); i++) {
+					base.evaluate();
+				}
+				LatencyHistogram histogram = new LatencyHistogram();
+				for (int i = 0; i < benchmark.iterations(); i++) {
+					long start = System.nanoTime();
+					base.evaluate();
+					histogram.record(System.nanoTime() - start);
+				}
+				Optional<Path> directory = Settings.findPath(BASELINE);
+				if (directory.isPresent()) {
+					compare(directory.get().resolve(id + ".properties"), benchmark, histogram);
+				}
+			}
+		};
+	}
+
+	private static void compare(Path file, Benchmark benchmark, LatencyHistogram histogram) {
+		String key = key(benchmark.percentile());
+		long latency = histogram.percentile(benchmark.percentile());
+		Long baseline = Settings.findBoolean(UPDATE) ? null : read(file, key);
+		if (baseline == null) {
+			write(file, benchmark.percentile(), histogram);
+			return;
+		}
+		if (latency > baseline * (1 + benchmark.tolerance())) {
+			throw new AssertionError(String.format(
+				Locale.ROOT, "Benchmark regression: %s latency %d ns exceeds baseline %d ns by more than %.0f%% (%s)",
+				key, latency, baseline, benchmark.tolerance() * 100, histogram
+			));
+		}
+	}
+
+	private static String key(double percentile) {
+		return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+	}
+
+	@Nullable
+	private static Long read(Path file, String key) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to read benchmark baseline from " + file, e);
+		}
+		String value = properties.getProperty(key);
+		try {
+			return value != null ? Long.valueOf(value.trim()) : null;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid value '%s' of '%s' in %s", value, key, file), e);
+		}
+	}
+
+	private static void write(Path file, double percentile, LatencyHistogram histogram) {
+		Properties properties = new Properties();
+		properties.setProperty("count", Long.toString(histogram.getCount()));
+		for (double stored : new double[]{50, 90, 99, percentile}) {
+			properties.setProperty(key(stored), Long.toString(histogram.percentile(stored)));
+		}
+		properties.setProperty("max", Long.toString(histogram.getMax()));
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				properties.store(writer, "Baseline latencies in nanoseconds");
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to write benchmark baseline into " + file, e);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.ExpressionCondition;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Registry of conditions declared by {@link ConditionalIgnore} on methods of test class.
+ * <p>
+ * Implementation named {@code <binary name of test class>}{@value #SUFFIX} is generated at compile time
+ * by {@link name.valery1707.junit.rule.processor.ConditionalIgnoreProcessor} and used by {@link ConditionalIgnoreRule}
+ * instead of reading annotations and instantiating conditions with reflection.
+ * Without generated registry rule falls back to reflection.
+ */
+public interface ConditionRegistry {
+	String SUFFIX = "_ConditionRegistry";
+
+	/**
+	 * Conditions declared on method in declared order.
+	 *
+	 * @param method Name of method
+	 * @return Factories of conditions, empty for methods without conditions
+	 */
+	List<Factory> conditions(String method);
+
+	/**
+	 * Factory of one condition.
+	 */
+	final class Factory {
+		private final Object key;
+		private final Function<Object, ? extends IgnoreCondition> factory;
+
+		private Factory(Object key, Function<Object, ? extends IgnoreCondition> factory) {
+			this.key = key;
+			this.factory = factory;
+		}
+
+		/**
+		 * Factory of condition declared by {@link ConditionalIgnore#condition()}.
+		 *
+		 * @param type    Class of condition
+		 * @param factory Instantiation of condition from instance of test
+		 * @return Factory
+		 */
+		public static Factory condition(Class<? extends IgnoreCondition> type, Function<Object, ? extends IgnoreCondition> factory) {
+			return new Factory(type, factory);
+		}
+
+		/**
+		 * Factory of condition declared by {@link ConditionalIgnore#expression()}.
+		 *
+		 * @param expression Expression
+		 * @return Factory
+		 */
+		public static Factory expression(String expression) {
+			return new Factory(expression, target -> new ExpressionCondition(expression));
+		}
+
+		/**
+		 * Key of condition for {@link name.valery1707.junit.rule.condition.ConditionCost}.
+		 *
+		 * @return Class of condition or text of expression
+		 */
+		public Object getKey() {
+			return key;
+		}
+
+		/**
+		 * Create condition.
+		 *
+		 * @param target Instance of test
+		 * @return Condition
+		 */
+		public IgnoreCondition create(Object target) {
+			return factory.apply(target);
+		}
+	}
+}
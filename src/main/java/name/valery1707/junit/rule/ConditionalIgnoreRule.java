@@ -1,7 +1,12 @@
 package name.valery1707.junit.rule;
 
+import name.valery1707.junit.rule.condition.ConditionCost;
+import name.valery1707.junit.rule.condition.Expression;
+import name.valery1707.junit.rule.condition.ExpressionCondition;
+import name.valery1707.junit.rule.condition.OutcomeCache;
 import org.junit.Assume;
 import org.junit.rules.MethodRule;
+import org.junit.runner.Description;
 import org.junit.runners.model.Annotatable;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
@@ -14,8 +19,20 @@ import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -33,18 +50,45 @@ import java.util.stream.Stream;
  * <li>Create class implementing {@link IgnoreCondition}</li>
  * <li>Add annotation {@link ConditionalIgnore} with needed condition implementation in {@link ConditionalIgnore#condition()}</li>
  * </ol>
+ * <p>
+ * Simple conditions can be declared inline with {@link ConditionalIgnore#expression()} without creating a class.
+ * <p>
+ * Repeated {@link ConditionalIgnore} annotations are independent: test is skipped by any of them,
+ * so they are evaluated in order of {@link ConditionCost measured cost and selectivity} instead of declared order.
+ * Skip message is always reported by the first skipping annotation in declared order, so it does not depend on statistics.
+ * Conditions passed into constructor and declared in rules file keep their order.
+ * <p>
+ * If {@link ConditionRegistry} was generated for test class by {@link name.valery1707.junit.rule.processor.ConditionalIgnoreProcessor}
+ * then conditions are created without reflection.
+ * Registry which does not match annotations of test class (for example after recompiling without processor) is ignored.
+ * <p>
+ * Conditions which must be checked for every test can be passed into rule constructor instead of annotating each method.
+ * Conditions for tests can be also declared in external file, see {@link IgnoreRules}.
+ * <p>
+ * All decisions are recorded by {@link DecisionRecorder}.
+ * <p>
+ * Thread-safety: one instance of rule can be applied concurrently from any count of threads
+ * (for example with {@link org.junit.experimental.ParallelComputer} or {@link ConditionalIgnoreRunner}).
+ * New instances of conditions are created for every application, so conditions themselves need not be thread-safe,
+ * while all shared state used by rule (registries, rules file, expressions, statistics, outcome cache and recorder)
+ * is safe for concurrent use and is initialized at most once per key.
+ * Every condition is evaluated once per test by {@link IgnoreCondition#evaluate()}, so skip message is consistent
+ * with decision even if environment is changed concurrently.
  *
  * @see <a href="https://gist.github.com/rherrmann/7447571">Starting point</a>
  */
 public class ConditionalIgnoreRule implements MethodRule {
-	protected static final String INVALID_CLASS_DECLARATION
+	public static final String INVALID_CLASS_DECLARATION
 		= "Conditional class '%s' is a member class but was not declared inside the test case using it.\n"
 		+ "Either make this class a static class, standalone class (by declaring it in it's own file) "
 		+ "or move it inside the test case using it";
 
-	protected static final String INVALID_CLASS_CTOR
+	public static final String INVALID_CLASS_CTOR
 		= "Fail to instantiate class %s";
 
+	public static final String INVALID_ANNOTATION
+		= "Annotation ConditionalIgnore must declare exactly one of 'condition' or 'expression'";
+
 	private static <A extends Annotation> Stream<A> annotation(Annotatable source, Class<A> type) {
 		return Stream
 			.of(source.getAnnotation(type))
@@ -58,22 +102,194 @@ public class ConditionalIgnoreRule implements MethodRule {
 		);
 	}
 
+	private static final ClassValue<Optional<ConditionRegistry>> REGISTRIES = new ClassValue<Optional<ConditionRegistry>>() {
+		@Override
+		protected Optional<ConditionRegistry> computeValue(Class<?> type) {
+			try {
+				Class<?> registry = Class.forName(type.getName() + ConditionRegistry.SUFFIX, true, type.getClassLoader());
+				return Optional.of((ConditionRegistry) registry.getDeclaredConstructor().newInstance())
+					.filter(generated -> isActual(type, generated));
+			} catch (ClassNotFoundException e) {
+				return Optional.empty();
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				throw new IllegalStateException(String.format(INVALID_CLASS_CTOR, type.getName() + ConditionRegistry.SUFFIX), e);
+			}
+		}
+	};
+
+	/**
+	 * Registry is stale if test class was recompiled without processor after changing of annotations.
+	 */
+	private static boolean isActual(Class<?> type, ConditionRegistry registry) {
+		for (Method method : type.getDeclaredMethods()) {
+			List<Object> declared = annotations(new FrameworkMethod(method))
+				.map(ConditionalIgnoreRule::key)
+				.collect(Collectors.toList());
+			List<Object> generated = registry.conditions(method.getName()).stream()
+				.map(ConditionRegistry.Factory::getKey)
+				.collect(Collectors.toList());
+			if (!declared.equals(generated)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final List<Class<? extends IgnoreCondition>> conditions;
+	/**
+	 * Decisions already made by {@link ConditionalIgnoreRunner} with this rule by identity of test instance:
+	 * statement of skipping or Empty for running.
+	 */
+	private final Map<Object, Optional<Statement>> decided = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	/**
+	 * Rule which check only conditions declared by {@link ConditionalIgnore} on test methods.
+	 */
+	public ConditionalIgnoreRule() {
+		this(Collections.emptyList());
+	}
+
+	/**
+	 * Rule which check conditions declared by {@link ConditionalIgnore} on test methods
+	 * and also {@code conditions} for every test, including tests without annotations.
+	 *
+	 * @param conditions Conditions for every test
+	 */
+	@SafeVarargs
+	public ConditionalIgnoreRule(Class<? extends IgnoreCondition>... conditions) {
+		List<Class<? extends IgnoreCondition>> list = new ArrayList<>(conditions.length);
+		for (Class<? extends IgnoreCondition> condition : conditions) {
+			list.add(condition);
+		}
+		this.conditions = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Rule which check conditions declared by {@link ConditionalIgnore} on test methods
+	 * and also {@code conditions} for every test, including tests without annotations.
+	 *
+	 * @param conditions Conditions for every test
+	 */
+	public ConditionalIgnoreRule(Collection<Class<? extends IgnoreCondition>> conditions) {
+		this.conditions = Collections.unmodifiableList(new ArrayList<>(conditions));
+	}
+
 	@Override
 	public Statement apply(Statement base, FrameworkMethod method, Object target) {
-		return annotations(method)
-			.map(annotation -> createCondition(target, annotation))
-			.filter(IgnoreCondition::needSkip)
-			.findFirst()
-			.map(IgnoreStatement::new)
+		Optional<Statement> known = decided.remove(target);
+		if (known != null) {
+			return known.orElse(base);
+		}
+		return decide(method, target)
 			.map(__ -> (Statement) __)
 			.orElse(base);
 	}
 
+	/**
+	 * Remember decision made for test instance, so next application of rule to it does not evaluate conditions again.
+	 *
+	 * @param target Test instance
+	 * @param skip   Statement of skipping or {@code null} if test must be run
+	 */
+	void decided(Object target, @Nullable Statement skip) {
+		decided.put(target, Optional.ofNullable(skip));
+	}
+
+	/**
+	 * Decide skipping of test without running it, for example for other test engines.
+	 *
+	 * @param method Test method
+	 * @param target Test instance
+	 * @return Message of skipping in format {@code Ignored by ConditionName: reason} or Empty if test must be run
+	 */
+	public Optional<String> skipMessage(FrameworkMethod method, Object target) {
+		return decide(method, target).map(IgnoreStatement::message);
+	}
+
+	private Optional<IgnoreStatement> decide(FrameworkMethod method, Object target) {
+		Description description = Description.createTestDescription(target.getClass(), method.getName(), method.getAnnotations());
+		Optional<IgnoreStatement> common = Stream
+			.concat(
+				conditions.stream().map(type -> createCondition(target, type)),
+				IgnoreRules.current()
+					.map(rules -> rules.conditions(description, type -> createCondition(target, type)))
+					.orElseGet(Stream::empty)
+			)
+			.map(condition -> evaluate(condition, description))
+			.filter(IgnoreStatement::isSkip)
+			.findFirst();
+		return common.isPresent() ? common : annotated(method, target, description);
+	}
+
+	private static IgnoreStatement evaluate(IgnoreCondition condition, Description description) {
+		describe(condition, description);
+		Decision decision = OutcomeCache.evaluate(condition);
+		DecisionRecorder.shared().record(description, condition, decision);
+		return new IgnoreStatement(condition, decision);
+	}
+
+	private Optional<IgnoreStatement> annotated(FrameworkMethod method, Object target, Description description) {
+		Optional<ConditionRegistry> registry = REGISTRIES.get(method.getMethod().getDeclaringClass());
+		if (registry.isPresent()) {
+			return firstDeclared(
+				registry.get().conditions(method.getName()), ConditionRegistry.Factory::getKey,
+				factory -> factory.create(target), description
+			);
+		}
+		return firstDeclared(
+			annotations(method).collect(Collectors.toList()), ConditionalIgnoreRule::key,
+			annotation -> createCondition(target, annotation), description
+		);
+	}
+
+	/**
+	 * Evaluate conditions in order of measured cost, but report the first skipping condition in declared order,
+	 * so skip message of the test does not depend on statistics:
+	 * after the first skipping condition only not yet evaluated conditions declared before it are evaluated.
+	 */
+	private static <T> Optional<IgnoreStatement> firstDeclared(
+		List<T> declared, Function<T, Object> key, Function<T, IgnoreCondition> factory, Description description
+	) {
+		List<Integer> positions = IntStream.range(0, declared.size()).boxed().collect(Collectors.toList());
+		boolean[] evaluated = new boolean[declared.size()];
+		for (int position : ConditionCost.order(positions, i -> key.apply(declared.get(i)), true)) {
+			evaluated[position] = true;
+			IgnoreStatement statement = evaluate(factory.apply(declared.get(position)), description);
+			if (statement.isSkip()) {
+				for (int earlier = 0; earlier < position; earlier++) {
+					if (!evaluated[earlier]) {
+						IgnoreStatement previous = evaluate(factory.apply(declared.get(earlier)), description);
+						if (previous.isSkip()) {
+							return Optional.of(previous);
+						}
+					}
+				}
+				return Optional.of(statement);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private static Object key(ConditionalIgnore annotation) {
+		return annotation.condition() != IgnoreCondition.class ? annotation.condition() : annotation.expression();
+	}
+
 	@Nonnull
 	private IgnoreCondition createCondition(Object target, ConditionalIgnore annotation) {
-		Class<? extends IgnoreCondition> type = annotation.condition();
+		boolean hasCondition = annotation.condition() != IgnoreCondition.class;
+		boolean hasExpression = !annotation.expression().isEmpty();
+		if (hasCondition == hasExpression) {
+			throw new IllegalArgumentException(INVALID_ANNOTATION);
+		}
+		return hasCondition
+			? createCondition(target, annotation.condition())
+			: new ExpressionCondition(annotation.expression());
+	}
+
+	@Nonnull
+	private IgnoreCondition createCondition(Object target, Class<? extends IgnoreCondition> type) {
 		boolean isStandalone = !type.isMemberClass() || Modifier.isStatic(type.getModifiers());
-		boolean isDeclaredInTarget = type.getDeclaringClass() != null && target.getClass().isAssignableFrom(type.getDeclaringClass());
+		boolean isDeclaredInTarget = type.getDeclaringClass() != null && type.getDeclaringClass().isAssignableFrom(target.getClass());
 		if (!isStandalone && !isDeclaredInTarget) {
 			throw new IllegalArgumentException(String.format(INVALID_CLASS_DECLARATION, type.getName()));
 		}
@@ -81,7 +297,7 @@ public class ConditionalIgnoreRule implements MethodRule {
 			if (isStandalone) {
 				return type.newInstance();
 			} else {
-				return type.getDeclaredConstructor(target.getClass()).newInstance(target);
+				return type.getDeclaredConstructor(type.getDeclaringClass()).newInstance(target);
 			}
 		} catch (RuntimeException rethrow) {
 			throw rethrow;
@@ -90,20 +306,37 @@ public class ConditionalIgnoreRule implements MethodRule {
 		}
 	}
 
+	private static void describe(IgnoreCondition condition, Description description) {
+		if (condition instanceof DescriptionAware) {
+			((DescriptionAware) condition).setDescription(description);
+		}
+	}
+
 	private static class IgnoreStatement extends Statement {
 		private final IgnoreCondition condition;
+		private final Decision decision;
 
-		IgnoreStatement(IgnoreCondition condition) {
+		IgnoreStatement(IgnoreCondition condition, Decision decision) {
 			this.condition = condition;
+			this.decision = decision;
 		}
 
-		@Override
-		public void evaluate() {
+		boolean isSkip() {
+			return decision.isSkip();
+		}
+
+		String message() {
 			String message = "Ignored by " + condition.getClass().getSimpleName();
-			String reason = condition.reason();
+			String reason = decision.getReason();
 			if (reason != null) {
 				message += ": " + reason;
 			}
+			return message;
+		}
+
+		@Override
+		public void evaluate() {
+			String message = message();
 			//This will skip test if boolean value is false
 			Assume.assumeTrue(message, message.isEmpty()/*false*/);
 		}
@@ -118,12 +351,20 @@ public class ConditionalIgnoreRule implements MethodRule {
 		 *
 		 * @return Class with {@link IgnoreCondition} implementation
 		 */
-		Class<? extends IgnoreCondition> condition();
+		Class<? extends IgnoreCondition> condition() default IgnoreCondition.class;
+
+		/**
+		 * Inline condition: test is skipped if expression is {@code true}.
+		 * Must not be declared together with {@link #condition()}.
+		 *
+		 * @return Expression, see {@link Expression} for syntax
+		 */
+		String expression() default "";
 	}
 
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target({ElementType.METHOD})
-	@interface ConditionalIgnoreList {
+	public @interface ConditionalIgnoreList {
 		ConditionalIgnore[] value();
 	}
 
@@ -132,9 +373,14 @@ public class ConditionalIgnoreRule implements MethodRule {
 	 * <ul>
 	 * <li>{@link IgnoreCondition#needRun()} - allow to run test</li>
 	 * <li>{@link IgnoreCondition#needSkip()} - force to skip test</li>
+	 * <li>{@link IgnoreCondition#evaluate()} - make decision together with reason</li>
 	 * </ul>
 	 * <p>
 	 * If desired, you can also implement the {@link IgnoreCondition#reason()} method for describe reason for skipping.
+	 * <p>
+	 * Rule calls only {@link IgnoreCondition#evaluate()} and only once per test.
+	 * Conditions which read expensive or changing state should implement it,
+	 * so decision and reason are based on the same observation.
 	 */
 	public interface IgnoreCondition {
 		/**
@@ -164,5 +410,116 @@ public class ConditionalIgnoreRule implements MethodRule {
 		default String reason() {
 			return null;
 		}
+
+		/**
+		 * Make decision about skipping of test.
+		 * <p>
+		 * By default delegates into {@link #needSkip()} and requests {@link #reason()} lazily only for skipping decision.
+		 *
+		 * @return Decision
+		 */
+		default Decision evaluate() {
+			return needSkip() ? Decision.skipLazily(this::reason) : Decision.run();
+		}
+	}
+
+	/**
+	 * Decision of {@link IgnoreCondition} with lazily computed reason.
+	 * <p>
+	 * Decision itself never changes, while reason created by {@link #skipLazily(Supplier)} is computed at most once,
+	 * on the first call of {@link #getReason()}, and memoized. Instances are thread-safe.
+	 */
+	public static final class Decision {
+		private static final Decision RUN = new Decision(false, null, null);
+
+		private final boolean skip;
+		private Supplier<String> supplier;
+		private String reason;
+
+		private Decision(boolean skip, @Nullable String reason, @Nullable Supplier<String> supplier) {
+			this.skip = skip;
+			this.reason = reason;
+			this.supplier = supplier;
+		}
+
+		/**
+		 * Decision to run test.
+		 *
+		 * @return Decision without reason
+		 */
+		public static Decision run() {
+			return RUN;
+		}
+
+		/**
+		 * Decision to skip test.
+		 *
+		 * @param reason Reason of skipping
+		 * @return Decision
+		 */
+		public static Decision skip(@Nullable String reason) {
+			return new Decision(true, reason, null);
+		}
+
+		/**
+		 * Decision to skip test with reason computed on demand.
+		 *
+		 * @param reason Lazy reason of skipping
+		 * @return Decision
+		 */
+		public static Decision skipLazily(Supplier<String> reason) {
+			return new Decision(true, null, reason);
+		}
+
+		/**
+		 * Decision with reason in the case of skipping.
+		 *
+		 * @param skip   Is test need to skip?
+		 * @param reason Lazy reason of skipping
+		 * @return Decision
+		 */
+		public static Decision of(boolean skip, Supplier<String> reason) {
+			return skip ? skipLazily(reason) : run();
+		}
+
+		public boolean isSkip() {
+			return skip;
+		}
+
+		/**
+		 * Description of skipping test.
+		 *
+		 * @return Description of skipping test
+		 */
+		@Nullable
+		public synchronized String getReason() {
+			if (supplier != null) {
+				reason = supplier.get();
+				supplier = null;
+			}
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			String text = skip ? "skip" : "run";
+			String description = getReason();
+			return description != null ? text + ": " + description : text;
+		}
+	}
+
+	/**
+	 * Optional extension for {@link IgnoreCondition} which decision depends on the test itself.
+	 * <p>
+	 * Rule calls {@link DescriptionAware#setDescription(Description)} right after condition instantiation
+	 * and before any of {@link IgnoreCondition} methods.
+	 */
+	public interface DescriptionAware {
+		/**
+		 * Receive description of the test for which condition is evaluated.
+		 *
+		 * @param description Test description
+		 */
+		void setDescription(Description description);
 	}
 }
@@ -0,0 +1,233 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.condition.Settings;
+import org.junit.Rule;
+import org.junit.internal.runners.model.ReflectiveCallable;
+import org.junit.rules.MethodRule;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runner which resolves {@link ConditionalIgnoreRule.ConditionalIgnore} decisions of all tests of the class up front,
+ * reports skipped tests immediately and then runs remaining tests concurrently on {@link ForkJoinPool work-stealing pool}.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #PARALLELISM} - parallelism level of pool, count of available processors by default,
+ * {@code 1} runs tests sequentially</li>
+ * </ul>
+ * <p>
+ * Decisions are made by {@link ConditionalIgnoreRule} declared by fields or methods of the test annotated with {@link Rule},
+ * directly or wrapped by {@link FixtureRule}, {@link ScaledTimeoutRule} or {@link BenchmarkRule},
+ * or by default {@link ConditionalIgnoreRule} if test does not declare any {@link MethodRule}.
+ * Conditions are evaluated exactly once per test: instance of test and its rules used for decision are reused
+ * for running of test and {@link ConditionalIgnoreRule rules} return already made decision instead of evaluating again.
+ * Tests with other {@link MethodRule rules} only (which can wrap {@link ConditionalIgnoreRule} in unknown way)
+ * are not decided up front and are skipped by their rules while running.
+ * {@link ConditionalIgnoreRule} is not a {@link org.junit.rules.TestRule}, so it can not be nested into
+ * {@link org.junit.rules.RuleChain}.
+ * <p>
+ * Usages of {@link FixtureRule fixtures} by filtered out tests are released at the end of the class.
+ * <p>
+ * Events are fired into {@link RunNotifier} from different threads:
+ * {@link RunNotifier} synchronizes listeners which are not marked as
+ * {@link org.junit.runner.notification.RunListener.ThreadSafe thread-safe}.
+ * <p>
+ * Usage: {@code @RunWith(ConditionalIgnoreRunner.class)}.
+ */
+public class ConditionalIgnoreRunner extends BlockJUnit4ClassRunner {
+	public static final String PARALLELISM = "junit.runner.parallelism";
+
+	private static final Statement RUN = new Statement() {
+		@Override
+		public void evaluate() {
+		}
+	};
+
+	/**
+	 * Instances of runnable tests created for decision.
+	 */
+	private final Map<FrameworkMethod, Object> targets = new ConcurrentHashMap<>();
+	/**
+	 * Rules used for decision, by identity of test instance: rules declared by methods are created only once.
+	 */
+	private final Map<Object, List<MethodRule>> decided = Collections.synchronizedMap(new IdentityHashMap<>());
+	private final ThreadLocal<Object> prepared = new ThreadLocal<>();
+
+	public ConditionalIgnoreRunner(Class<?> type) throws InitializationError {
+		super(type);
+	}
+
+	@Override
+	protected Statement methodBlock(FrameworkMethod method) {
+		Object target = targets.remove(method);
+		if (target == null) {
+			return super.methodBlock(method);
+		}
+		prepared.set(target);
+		try {
+			return super.methodBlock(method);
+		} finally {
+			prepared.remove();
+		}
+	}
+
+	@Override
+	protected Object createTest() throws Exception {
+		Object target = prepared.get();
+		if (target != null) {
+			prepared.remove();
+			return target;
+		}
+		return super.createTest();
+	}
+
+	@Override
+	protected List<MethodRule> rules(Object target) {
+		List<MethodRule> rules = decided.remove(target);
+		return rules != null ? rules : super.rules(target);
+	}
+
+	@Override
+	protected Statement childrenInvoker(RunNotifier notifier) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Exception {
+				int parallelism = (int) Settings.findLong(PARALLELISM, Runtime.getRuntime().availableProcessors());
+				if (parallelism < 1) {
+					throw new IllegalArgumentException(String.format("Value of '%s' must be positive: %d", PARALLELISM, parallelism));
+				}
+				try {
+					List<FrameworkMethod> runnable = new ArrayList<>();
+					for (FrameworkMethod method : filteredChildren()) {
+						Statement skip = isIgnored(method) ? null : decide(method);
+						if (skip != null) {
+							runLeaf(skip, describeChild(method), notifier);
+						} else {
+							runnable.add(method);
+						}
+					}
+					run(runnable, parallelism, notifier);
+				} finally {
+					FixtureRule.finished(getTestClass().getJavaClass());
+				}
+			}
+		};
+	}
+
+	private void run(List<FrameworkMethod> runnable, int parallelism, RunNotifier notifier) {
+		if (parallelism == 1 || runnable.size() < 2) {
+			runnable.forEach(method -> runChild(method, notifier));
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, runnable.size()));
+		try {
+			List<ForkJoinTask<?>> tasks = runnable.stream()
+				.map(method -> pool.submit(() -> runChild(method, notifier)))
+				.collect(Collectors.toList());
+			tasks.forEach(ForkJoinTask::join);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Children after filtering and sorting in order of {@link #getDescription()}.
+	 */
+	private List<FrameworkMethod> filteredChildren() {
+		Map<Description, FrameworkMethod> methods = getChildren().stream()
+			.collect(Collectors.toMap(this::describeChild, Function.identity(), (first, second) -> first));
+		List<FrameworkMethod> children = new ArrayList<>();
+		for (Description description : getDescription().getChildren()) {
+			FrameworkMethod method = methods.get(description);
+			if (method != null) {
+				children.add(method);
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * Decide skipping of test.
+	 *
+	 * @param method Test method
+	 * @return Statement reporting skipping or {@code null} if test must be run,
+	 * decided tests are run with instance stored in {@link #targets}
+	 */
+	@Nullable
+	private Statement decide(FrameworkMethod method) {
+		Object target;
+		try {
+			target = new ReflectiveCallable() {
+				@Override
+				protected Object runReflectiveCall() throws Throwable {
+					return createTest();
+				}
+			}.run();
+		} catch (Throwable e) {
+			//Failure will be reported on run
+			return null;
+		}
+		List<MethodRule> rules = super.rules(target);
+		if (rules.isEmpty()) {
+			Statement statement = new ConditionalIgnoreRule().apply(RUN, method, target);
+			if (statement != RUN) {
+				return statement;
+			}
+			targets.put(method, target);
+			return null;
+		}
+		//Rules remember decisions, so skipped test is reported through all its rules (for example to release fixtures)
+		Statement skipping = null;
+		for (MethodRule rule : rules) {
+			ConditionalIgnoreRule decider = unwrap(rule);
+			if (decider == null) {
+				continue;
+			}
+			if (skipping == null) {
+				Statement statement = decider.apply(RUN, method, target);
+				skipping = statement != RUN ? statement : null;
+				decider.decided(target, skipping);
+			} else {
+				//Test is already skipped by previous rule
+				decider.decided(target, null);
+			}
+		}
+		decided.put(target, rules);
+		targets.put(method, target);
+		return skipping != null ? methodBlock(method) : null;
+	}
+
+	@Nullable
+	private static ConditionalIgnoreRule unwrap(MethodRule rule) {
+		if (rule instanceof ConditionalIgnoreRule) {
+			return (ConditionalIgnoreRule) rule;
+		}
+		if (rule instanceof FixtureRule) {
+			return ((FixtureRule) rule).getConditions();
+		}
+		if (rule instanceof ScaledTimeoutRule) {
+			return ((ScaledTimeoutRule) rule).getConditions();
+		}
+		if (rule instanceof BenchmarkRule) {
+			return ((BenchmarkRule) rule).getConditions();
+		}
+		return null;
+	}
+}
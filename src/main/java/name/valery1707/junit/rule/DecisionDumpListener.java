@@ -0,0 +1,25 @@
+package name.valery1707.junit.rule;
+
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Dump decisions of {@link DecisionRecorder} into {@value DecisionRecorder#FILE} on every test failure.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.DecisionDumpListener</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class DecisionDumpListener extends RunListener {
+	@Override
+	public void testFailure(Failure failure) {
+		DecisionRecorder.shared().dumpIfConfigured();
+	}
+}
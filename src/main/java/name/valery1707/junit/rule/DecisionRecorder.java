@@ -0,0 +1,205 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.Settings;
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flight recorder of decisions made by {@link ConditionalIgnoreRule}: test, condition, decision, time and thread.
+ * <p>
+ * Recorder is always on and keeps only the last decisions in fixed-size lock-free ring buffer.
+ * All storage is allocated up front, so recording allocates nothing: entry keeps references to already existing
+ * description of test, class of condition, decision and thread, they are formatted only on dump.
+ * Entry which is overwritten while it is read is omitted from dump.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #CAPACITY} - count of kept decisions, rounded up to power of two, {@code 4096} by default</li>
+ * <li>{@value #FILE} - file for dumps on JVM shutdown and on test failures reported to {@link DecisionDumpListener}</li>
+ * </ul>
+ * Decisions can be also inspected or dumped on demand through JMX by MBean {@value #OBJECT_NAME}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class DecisionRecorder implements DecisionRecorderMXBean {
+	public static final String CAPACITY = "junit.decisions.capacity";
+	public static final String FILE = "junit.decisions.file";
+	public static final String OBJECT_NAME = "name.valery1707.junit:type=DecisionRecorder";
+
+	private static final int TEST = 0;
+	private static final int CONDITION = 1;
+	private static final int DECISION = 2;
+	private static final int THREAD = 3;
+	private static final int REFERENCES = 4;
+
+	private static volatile DecisionRecorder shared;
+
+	private final int mask;
+	private final AtomicLong sequence = new AtomicLong();
+	/**
+	 * Sequence number of entry in slot, {@code -1} while slot is written.
+	 */
+	private final AtomicLongArray stamps;
+	private final AtomicLongArray times;
+	private final AtomicReferenceArray<Object> references;
+
+	DecisionRecorder(int capacity) {
+		if (capacity < 1 || capacity > 1 << 24) {
+			throw new IllegalArgumentException(String.format("Value of '%s' must be in range [1, %d]: %d", CAPACITY, 1 << 24, capacity));
+		}
+		int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.mask = size - 1;
+		this.stamps = new AtomicLongArray(size);
+		this.times = new AtomicLongArray(size);
+		this.references = new AtomicReferenceArray<>(size * REFERENCES);
+		for (int i = 0; i < size; i++) {
+			stamps.set(i, -1);
+		}
+	}
+
+	/**
+	 * Recorder shared by the whole JVM.
+	 *
+	 * @return Shared recorder
+	 */
+	public static DecisionRecorder shared() {
+		DecisionRecorder recorder = shared;
+		if (recorder == null) {
+			synchronized (DecisionRecorder.class) {
+				recorder = shared;
+				if (recorder == null) {
+					recorder = new DecisionRecorder((int) Settings.findLong(CAPACITY, 4096));
+					recorder.register();
+					shared = recorder;
+				}
+			}
+		}
+		return recorder;
+	}
+
+	private void register() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+		} catch (InstanceAlreadyExistsException ignored) {
+			//Library is loaded by several class loaders: first one is available
+		} catch (JMException e) {
+			throw new IllegalStateException("Fail to register MBean " + OBJECT_NAME, e);
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				dumpIfConfigured();
+			} catch (RuntimeException ignored) {
+				//JVM is shutting down
+			}
+		}, "DecisionRecorder shutdown"));
+	}
+
+	/**
+	 * Record decision.
+	 *
+	 * @param test      Description of test
+	 * @param condition Evaluated condition
+	 * @param decision  Decision of condition
+	 */
+	public void record(Description test, IgnoreCondition condition, Decision decision) {
+		long number = sequence.getAndIncrement();
+		int slot = (int) number & mask;
+		int base = slot * REFERENCES;
+		stamps.set(slot, -1);
+		references.set(base + TEST, test);
+		references.set(base + CONDITION, condition.getClass());
+		references.set(base + DECISION, decision);
+		references.set(base + THREAD, Thread.currentThread());
+		times.set(slot, System.currentTimeMillis());
+		stamps.set(slot, number);
+	}
+
+	@Override
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	@Override
+	public long getRecorded() {
+		return sequence.get();
+	}
+
+	@Override
+	public List<String> getDecisions() {
+		long last = sequence.get();
+		List<String> decisions = new ArrayList<>();
+		for (long number = Math.max(0, last - getCapacity()); number < last; number++) {
+			int slot = (int) number & mask;
+			int base = slot * REFERENCES;
+			if (stamps.get(slot) != number) {
+				continue;
+			}
+			Description test = (Description) references.get(base + TEST);
+			Class<?> condition = (Class<?>) references.get(base + CONDITION);
+			Decision decision = (Decision) references.get(base + DECISION);
+			Thread thread = (Thread) references.get(base + THREAD);
+			long time = times.get(slot);
+			if (stamps.get(slot) == number) {
+				decisions.add(String.format(
+					"%s [%s] %s %s by %s",
+					Instant.ofEpochMilli(time), thread.getName(), TestId.of(test), decision, condition.getName()
+				));
+			}
+		}
+		return decisions;
+	}
+
+	@Override
+	public String dump(String path) {
+		return dump(Paths.get(path)).toString();
+	}
+
+	/**
+	 * Write kept decisions into file.
+	 *
+	 * @param path Path to file
+	 * @return Absolute path to written file
+	 * @throws UncheckedIOException on write errors
+	 */
+	public Path dump(Path path) {
+		Path file = path.toAbsolutePath();
+		try {
+			if (file.getParent() != null) {
+				Files.createDirectories(file.getParent());
+			}
+			Files.write(file, getDecisions(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to dump decisions into " + file, e);
+		}
+		return file;
+	}
+
+	/**
+	 * Write kept decisions into configured {@value #FILE}.
+	 *
+	 * @return Written file or Empty if file is not configured
+	 * @throws UncheckedIOException on write errors
+	 */
+	public Optional<Path> dumpIfConfigured() {
+		return Settings.findPath(FILE).map(this::dump);
+	}
+}
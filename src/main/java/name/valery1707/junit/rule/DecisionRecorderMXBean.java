@@ -0,0 +1,37 @@
+package name.valery1707.junit.rule;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link DecisionRecorder}, registered as {@value DecisionRecorder#OBJECT_NAME}.
+ */
+public interface DecisionRecorderMXBean {
+	/**
+	 * Count of entries kept by recorder.
+	 *
+	 * @return Capacity of ring buffer
+	 */
+	int getCapacity();
+
+	/**
+	 * Count of all recorded decisions, including already overwritten.
+	 *
+	 * @return Count of decisions
+	 */
+	long getRecorded();
+
+	/**
+	 * Kept decisions from oldest to newest.
+	 *
+	 * @return Formatted decisions
+	 */
+	List<String> getDecisions();
+
+	/**
+	 * Write kept decisions into file.
+	 *
+	 * @param path Path to file
+	 * @return Absolute path to written file
+	 */
+	String dump(String path);
+}
@@ -0,0 +1,378 @@
+package name.valery1707.junit.rule;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.rules.MethodRule;
+import org.junit.rules.TestRule;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+
+import javax.annotation.Nullable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rule for expensive shared fixtures (embedded databases, message brokers, etc.) which are started lazily.
+ * <p>
+ * Fixture is started right before the first test which uses it is actually executed
+ * and stopped after the last test of scanned test classes which uses it is finished.
+ * Tests skipped by wrapped {@link ConditionalIgnoreRule} never start fixtures.
+ * Start is performed exactly once even if tests are executed in parallel.
+ * <p>
+ * For applying fixtures you must follow the steps:
+ * <ol>
+ * <li>Create class implementing {@link Fixture} with default constructor</li>
+ * <li>Create in test {@code public} field of class {@link FixtureRule} with annotation {@link org.junit.Rule}
+ * instead of {@link ConditionalIgnoreRule}</li>
+ * <li>Add annotation {@link UsesFixture} on test methods or test class</li>
+ * <li>Access started fixture by {@link #fixture(Class)}</li>
+ * </ol>
+ * <p>
+ * Usage of fixture is counted by all not {@link Ignore ignored} test methods of the class when first of them is executed.
+ * Usages by tests which are not executed at all (for example filtered out) are released at the end of the class
+ * by {@link ConditionalIgnoreRunner} or by {@link #classScope() class rule},
+ * without them such fixture is stopped at JVM shutdown.
+ * Failure of stop after skipped test is reported as failure of this test.
+ * New instance of fixture is created for every start.
+ */
+public class FixtureRule implements MethodRule {
+	private static final Map<Class<? extends Fixture>, Holder> FIXTURES = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Usages> RUNNING = new ConcurrentHashMap<>();
+	private static final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
+	private final ConditionalIgnoreRule conditions;
+
+	/**
+	 * Rule with conditions declared by {@link ConditionalIgnoreRule.ConditionalIgnore} on test methods.
+	 */
+	public FixtureRule() {
+		this(new ConditionalIgnoreRule());
+	}
+
+	/**
+	 * Rule with custom {@link ConditionalIgnoreRule}.
+	 *
+	 * @param conditions Rule which decide skipping of tests
+	 */
+	public FixtureRule(ConditionalIgnoreRule conditions) {
+		this.conditions = conditions;
+	}
+
+	/**
+	 * Class rule which releases usages of fixtures by not executed (for example filtered out) tests of the class,
+	 * not required with {@link ConditionalIgnoreRunner}.
+	 * <p>
+	 * Usage: {@code @ClassRule public static TestRule fixtures = FixtureRule.classScope();}
+	 *
+	 * @return Class rule
+	 */
+	public static TestRule classScope() {
+		return (base, description) -> new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				List<Throwable> errors = new ArrayList<>();
+				try {
+					base.evaluate();
+				} catch (Throwable e) {
+					errors.add(e);
+				}
+				Class<?> testClass = description.getTestClass();
+				if (testClass != null) {
+					try {
+						finished(testClass);
+					} catch (Throwable e) {
+						errors.add(e);
+					}
+				}
+				MultipleFailureException.assertEmpty(errors);
+			}
+		};
+	}
+
+	/**
+	 * Release usages of fixtures by tests of class which were not executed.
+	 *
+	 * @param testClass Test class
+	 * @throws Exception on failure of fixture stop
+	 */
+	static void finished(Class<?> testClass) throws Exception {
+		Usages usages = RUNNING.remove(testClass);
+		if (usages != null) {
+			usages.releaseAll();
+		}
+	}
+
+	/**
+	 * Rule which decides skipping of tests, used by {@link ConditionalIgnoreRunner} for decision up front.
+	 *
+	 * @return Wrapped rule
+	 */
+	ConditionalIgnoreRule getConditions() {
+		return conditions;
+	}
+
+	@Override
+	public Statement apply(Statement base, FrameworkMethod method, Object target) {
+		Statement decided = conditions.apply(base, method, target);
+		List<Holder> fixtures = fixtures(target.getClass(), method).map(FixtureRule::holder).collect(Collectors.toList());
+		if (fixtures.isEmpty()) {
+			return decided;
+		}
+		Class<?> testClass = target.getClass();
+		Usages usages = RUNNING.computeIfAbsent(testClass, FixtureRule::register);
+		boolean skipped = decided != base;
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				List<Throwable> errors = new ArrayList<>();
+				try {
+					if (!skipped) {
+						for (Holder fixture : fixtures) {
+							fixture.acquire();
+						}
+					}
+					decided.evaluate();
+				} catch (Throwable e) {
+					errors.add(e);
+				} finally {
+					for (Holder fixture : fixtures) {
+						try {
+							if (usages.release(fixture)) {
+								fixture.release(1);
+							}
+						} catch (Throwable e) {
+							errors.add(e);
+						}
+					}
+					if (!usages.finish() && RUNNING.remove(testClass, usages)) {
+						try {
+							usages.releaseAll();
+						} catch (Throwable e) {
+							errors.add(e);
+						}
+					}
+				}
+				if (errors.size() > 1) {
+					//Test is failed by stop of fixture instead of skipped
+					errors.removeIf(e -> e instanceof AssumptionViolatedException);
+				}
+				MultipleFailureException.assertEmpty(errors);
+			}
+		};
+	}
+
+	private static Stream<Class<? extends Fixture>> fixtures(Class<?> testClass, FrameworkMethod method) {
+		Set<Class<? extends Fixture>> fixtures = new LinkedHashSet<>();
+		Stream.of(testClass.getAnnotation(UsesFixture.class), method.getAnnotation(UsesFixture.class))
+			.filter(Objects::nonNull)
+			.forEach(annotation -> fixtures.addAll(Arrays.asList(annotation.value())));
+		return fixtures.stream();
+	}
+
+	/**
+	 * Count usages of fixtures by all test methods of class.
+	 *
+	 * @param testClass Test class
+	 * @return Usages of fixtures by test methods
+	 */
+	private static Usages register(Class<?> testClass) {
+		Usages usages = new Usages();
+		for (FrameworkMethod method : new TestClass(testClass).getAnnotatedMethods(Test.class)) {
+			if (method.getAnnotation(Ignore.class) != null) {
+				continue;
+			}
+			List<Holder> fixtures = fixtures(testClass, method).map(FixtureRule::holder).collect(Collectors.toList());
+			fixtures.forEach(usages::register);
+			if (!fixtures.isEmpty()) {
+				usages.tests++;
+			}
+		}
+		return usages;
+	}
+
+	/**
+	 * Usages of fixtures by not finished tests of one class.
+	 */
+	private static final class Usages {
+		private final Map<Holder, Integer> pending = new LinkedHashMap<>();
+		private int tests;
+
+		synchronized void register(Holder holder) {
+			pending.merge(holder, 1, Integer::sum);
+			holder.register();
+		}
+
+		/**
+		 * @return Is any test with fixtures not finished yet
+		 */
+		synchronized boolean finish() {
+			return --tests > 0;
+		}
+
+		/**
+		 * @return Is usage of fixture is not released yet
+		 */
+		synchronized boolean release(Holder holder) {
+			Integer count = pending.get(holder);
+			if (count == null) {
+				return false;
+			}
+			if (count > 1) {
+				pending.put(holder, count - 1);
+			} else {
+				pending.remove(holder);
+			}
+			return true;
+		}
+
+		void releaseAll() throws Exception {
+			Map<Holder, Integer> remaining;
+			synchronized (this) {
+				remaining = new LinkedHashMap<>(pending);
+				pending.clear();
+			}
+			List<Throwable> errors = new ArrayList<>();
+			for (Map.Entry<Holder, Integer> entry : remaining.entrySet()) {
+				try {
+					entry.getKey().release(entry.getValue());
+				} catch (Exception e) {
+					errors.add(e);
+				}
+			}
+			MultipleFailureException.assertEmpty(errors);
+		}
+	}
+
+	private static Holder holder(Class<? extends Fixture> type) {
+		Holder holder = FIXTURES.get(type);
+		return holder != null ? holder : FIXTURES.computeIfAbsent(type, Holder::new);
+	}
+
+	/**
+	 * Started fixture for current test.
+	 *
+	 * @param type Class of fixture
+	 * @param <F>  Type of fixture
+	 * @return Started fixture
+	 * @throws IllegalStateException if fixture is not started: test does not declare it with {@link UsesFixture}
+	 */
+	public static <F extends Fixture> F fixture(Class<F> type) {
+		Fixture fixture = holder(type).get();
+		if (fixture == null) {
+			throw new IllegalStateException(String.format(
+				"Fixture %s is not started, declare it in @%s of the test", type.getName(), UsesFixture.class.getSimpleName()
+			));
+		}
+		return type.cast(fixture);
+	}
+
+	private static void stopAll() {
+		for (Holder holder : FIXTURES.values()) {
+			try {
+				holder.stop();
+			} catch (Exception ignored) {
+				//JVM is shutting down
+			}
+		}
+	}
+
+	private static final class Holder {
+		private final Class<? extends Fixture> type;
+		private Fixture instance;
+		private int pending;
+
+		Holder(Class<? extends Fixture> type) {
+			this.type = type;
+		}
+
+		synchronized void register() {
+			pending++;
+		}
+
+		synchronized void acquire() throws Exception {
+			if (instance == null) {
+				if (SHUTDOWN_HOOK.compareAndSet(false, true)) {
+					Runtime.getRuntime().addShutdownHook(new Thread(FixtureRule::stopAll, "FixtureRule shutdown"));
+				}
+				Fixture fixture;
+				try {
+					fixture = type.getDeclaredConstructor().newInstance();
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalArgumentException(String.format(ConditionalIgnoreRule.INVALID_CLASS_CTOR, type.getName()), e);
+				}
+				fixture.start();
+				instance = fixture;
+			}
+		}
+
+		synchronized void release(int count) throws Exception {
+			pending = Math.max(pending - count, 0);
+			if (pending == 0) {
+				stop();
+			}
+		}
+
+		synchronized void stop() throws Exception {
+			Fixture fixture = instance;
+			instance = null;
+			if (fixture != null) {
+				fixture.stop();
+			}
+		}
+
+		@Nullable
+		synchronized Fixture get() {
+			return instance;
+		}
+	}
+
+	/**
+	 * Declare fixtures used by test method or by all methods of test class.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.METHOD, ElementType.TYPE})
+	public @interface UsesFixture {
+		/**
+		 * Classes of used fixtures.
+		 *
+		 * @return Classes with {@link Fixture} implementation
+		 */
+		Class<? extends Fixture>[] value();
+	}
+
+	/**
+	 * Shared fixture with default constructor.
+	 */
+	public interface Fixture {
+		/**
+		 * Start fixture, called once before the first test which uses it.
+		 *
+		 * @throws Exception on start failure, tests which use fixture are failed
+		 */
+		void start() throws Exception;
+
+		/**
+		 * Stop fixture, called once after the last test which uses it.
+		 *
+		 * @throws Exception on stop failure, reported as failure of the last test or of the class
+		 */
+		void stop() throws Exception;
+	}
+}
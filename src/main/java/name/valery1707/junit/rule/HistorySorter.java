@@ -0,0 +1,112 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.condition.TestId;
+import name.valery1707.junit.rule.history.DurationHistories;
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.history.DurationRecorder;
+import name.valery1707.junit.rule.history.DurationStore;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Sorter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order tests for faster feedback: at first tests which failed recently (by rate of failures among last runs),
+ * then the cheapest tests (by 90th percentile of duration).
+ * <p>
+ * History is recorded by {@link DurationRecorder} and loaded once per JVM from {@value DurationStore#FILE}.
+ * Keys of tests are computed once per description, so sorting does not make any I/O and costs {@code O(n log n)}.
+ * Suites and classes are ordered by the maximal failure rate and the total duration of their tests.
+ * <p>
+ * Usage: {@code Request.aClass(SomeTest.class).sortWith(new HistorySorter())}.
+ */
+public class HistorySorter extends Sorter {
+	/**
+	 * Sorter with history from configured {@link DurationStore}.
+	 */
+	public HistorySorter() {
+		this(defaultHistory());
+	}
+
+	/**
+	 * Sorter with custom history, failure rates are used only from {@link DurationStore}.
+	 *
+	 * @param history History of tests
+	 */
+	public HistorySorter(DurationHistory history) {
+		super(new HistoryComparator(history));
+	}
+
+	private static DurationHistory defaultHistory() {
+		Path path = DurationStore.configured();
+		return Files.exists(path) ? DurationHistories.load(path) : DurationHistory.EMPTY;
+	}
+
+	private static final class HistoryComparator implements Comparator<Description> {
+		private final DurationHistory history;
+		private final Map<Description, Key> keys = new ConcurrentHashMap<>();
+
+		HistoryComparator(DurationHistory history) {
+			this.history = history;
+		}
+
+		@Override
+		public int compare(Description o1, Description o2) {
+			Key k1 = key(o1);
+			Key k2 = key(o2);
+			int result = Double.compare(k2.failureRate, k1.failureRate);
+			if (result == 0) {
+				result = Long.compare(k1.duration, k2.duration);
+			}
+			if (result == 0) {
+				result = o1.getDisplayName().compareTo(o2.getDisplayName());
+			}
+			return result;
+		}
+
+		private Key key(Description description) {
+			Key key = keys.get(description);
+			if (key == null) {
+				key = description.isTest() ? testKey(description) : suiteKey(description);
+				keys.put(description, key);
+			}
+			return key;
+		}
+
+		private Key testKey(Description description) {
+			long id = TestId.hash(description);
+			double failureRate = 0;
+			if (history instanceof DurationStore) {
+				DurationStore store = (DurationStore) history;
+				int runs = store.runs(id);
+				failureRate = runs == 0 ? 0 : (double) store.failures(id) / runs;
+			}
+			return new Key(failureRate, Math.max(0, history.duration(id)));
+		}
+
+		private Key suiteKey(Description description) {
+			double failureRate = 0;
+			long duration = 0;
+			for (Description child : description.getChildren()) {
+				Key key = key(child);
+				failureRate = Math.max(failureRate, key.failureRate);
+				duration += key.duration;
+			}
+			return new Key(failureRate, duration);
+		}
+	}
+
+	private static final class Key {
+		private final double failureRate;
+		private final long duration;
+
+		Key(double failureRate, long duration) {
+			this.failureRate = failureRate;
+			this.duration = duration;
+		}
+	}
+}
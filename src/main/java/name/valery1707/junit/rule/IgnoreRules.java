@@ -0,0 +1,227 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition.Source;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition.StandardSource;
+import name.valery1707.junit.rule.condition.Expression;
+import name.valery1707.junit.rule.condition.ExpressionCondition;
+import name.valery1707.junit.rule.condition.GlobTrie;
+import name.valery1707.junit.rule.condition.Settings;
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+/**
+ * External rules file which maps tests to conditions without annotations.
+ * <p>
+ * File {@value #FILE} (see {@link Settings} for lookup rules) contains one rule per line
+ * in format {@code pattern = target}:
+ * <ul>
+ * <li>{@code pattern} - {@link GlobTrie glob} of test identity {@code className#methodName}
+ * or only class name for all tests of class</li>
+ * <li>{@code target} - one of
+ * <ul>
+ * <li>{@code com.example.SomeCondition} - class implementing {@link IgnoreCondition}</li>
+ * <li>{@code runIf-env:NAME=regexp} - test runs only if environment value matches pattern,
+ * see {@link BaseEnvironmentCondition}</li>
+ * <li>{@code runIf-prop:NAME=regexp} - test runs only if system property matches pattern,
+ * see {@link BaseEnvironmentCondition}</li>
+ * <li>{@code runIf-env:NAME}, {@code runIf-prop:NAME} - test runs only if value exists</li>
+ * <li>{@code skipIf-expr:expression} - test is skipped if {@link Expression} is {@code true}</li>
+ * </ul>
+ * </li>
+ * </ul>
+ * Every keyword names its polarity, so targets without it ({@code env:}, {@code prop:}, {@code expr:}) are rejected.
+ * Empty lines and lines starting with {@code #} or {@code //} are ignored.
+ * <p>
+ * All patterns are compiled once into trie matched as lazily built automaton (see {@link GlobTrie}),
+ * so after warming up matching of the test costs {@code O(length of the name)} for any patterns
+ * and does not depend on count of rules. File is reloaded only after change of its modification time.
+ * <p>
+ * Rules are applied by {@link ConditionalIgnoreRule} to every test before annotated conditions.
+ * <p>
+ * Loading and matching are thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class IgnoreRules {
+	public static final String FILE = "junit.ignore.rules";
+
+	public static final String RUN_IF_ENV = "runIf-env:";
+	public static final String RUN_IF_PROP = "runIf-prop:";
+	public static final String SKIP_IF_EXPR = "skipIf-expr:";
+
+	private static final String[][] AMBIGUOUS = {{"env:", RUN_IF_ENV}, {"prop:", RUN_IF_PROP}, {"expr:", SKIP_IF_EXPR}};
+
+	private static final Map<Path, IgnoreRules> CACHE = new ConcurrentHashMap<>();
+
+	private final FileTime modified;
+	private final GlobTrie<Target> rules;
+
+	private IgnoreRules(FileTime modified, GlobTrie<Target> rules) {
+		this.modified = modified;
+		this.rules = rules;
+	}
+
+	/**
+	 * Rules configured by current environment.
+	 *
+	 * @return Loaded rules or Empty if they are not configured
+	 * @throws UncheckedIOException     on read errors
+	 * @throws IllegalArgumentException on invalid rules
+	 */
+	public static Optional<IgnoreRules> current() {
+		return Settings.findPath(FILE).map(IgnoreRules::load);
+	}
+
+	/**
+	 * Load rules or reuse already loaded if file is not modified.
+	 *
+	 * @param path Path to file
+	 * @return Loaded rules
+	 * @throws UncheckedIOException     on read errors
+	 * @throws IllegalArgumentException on invalid rules
+	 */
+	public static IgnoreRules load(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+		try {
+			FileTime modified = Files.getLastModifiedTime(key);
+			IgnoreRules cached = CACHE.get(key);
+			if (cached != null && cached.modified.equals(modified)) {
+				return cached;
+			}
+			//Atomic per file: concurrent callers wait for single reading and never replace newer rules by older ones
+			return CACHE.compute(key, (file, current) -> {
+				if (current != null && current.modified.equals(modified)) {
+					return current;
+				}
+				try {
+					return compile(file, modified, Files.readAllLines(file, StandardCharsets.UTF_8));
+				} catch (IOException e) {
+					throw new UncheckedIOException("Fail to read ignore rules from " + path, e);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to read ignore rules from " + path, e);
+		}
+	}
+
+	private static IgnoreRules compile(Path path, FileTime modified, List<String> lines) {
+		GlobTrie<Target> rules = new GlobTrie<>();
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) {
+				continue;
+			}
+			String location = path + ":" + (i + 1);
+			int separator = line.indexOf('=');
+			if (separator <= 0) {
+				throw new IllegalArgumentException(String.format("Invalid rule '%s' at %s: expected 'pattern = target'", line, location));
+			}
+			String pattern = line.substring(0, separator).trim();
+			Target target = target(line.substring(separator + 1).trim(), location);
+			rules.add(pattern.indexOf('#') < 0 ? pattern + "#*" : pattern, target);
+		}
+		return new IgnoreRules(modified, rules);
+	}
+
+	private static Target target(String text, String location) {
+		if (text.startsWith(RUN_IF_ENV)) {
+			return source(StandardSource.Environment, text.substring(RUN_IF_ENV.length()), location);
+		}
+		if (text.startsWith(RUN_IF_PROP)) {
+			return source(StandardSource.Properties, text.substring(RUN_IF_PROP.length()), location);
+		}
+		if (text.startsWith(SKIP_IF_EXPR)) {
+			Expression expression;
+			try {
+				expression = Expression.compile(text.substring(SKIP_IF_EXPR.length()).trim());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format("%s at %s", e.getMessage(), location), e);
+			}
+			return factory -> new ExpressionCondition(expression);
+		}
+		for (String[] ambiguous : AMBIGUOUS) {
+			if (text.startsWith(ambiguous[0])) {
+				throw new IllegalArgumentException(String.format(
+					"Target '%s' at %s does not declare polarity: use '%s'",
+					text, location, ambiguous[1] + text.substring(ambiguous[0].length())
+				));
+			}
+		}
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		Class<?> type;
+		try {
+			type = Class.forName(text, false, loader != null ? loader : IgnoreRules.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException(String.format("Unknown condition class '%s' at %s", text, location), e);
+		}
+		if (!IgnoreCondition.class.isAssignableFrom(type)) {
+			throw new IllegalArgumentException(String.format(
+				"Class '%s' at %s does not implement %s", text, location, IgnoreCondition.class.getName()
+			));
+		}
+		@SuppressWarnings("unchecked")
+		Class<? extends IgnoreCondition> conditionType = (Class<? extends IgnoreCondition>) type;
+		return factory -> factory.apply(conditionType);
+	}
+
+	private static Target source(Source source, String text, String location) {
+		int separator = text.indexOf('=');
+		String name = (separator < 0 ? text : text.substring(0, separator)).trim();
+		Pattern pattern;
+		try {
+			pattern = Pattern.compile(separator < 0 ? ".*" : text.substring(separator + 1).trim());
+		} catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException(String.format("Invalid pattern in '%s' at %s", text, location), e);
+		}
+		return factory -> new EnvironmentRuleCondition(source, name, pattern);
+	}
+
+	/**
+	 * Conditions of rules matched the test in order of rules in file.
+	 *
+	 * @param description Test description
+	 * @param factory     Instantiation of condition classes
+	 * @return Lazy stream of conditions
+	 */
+	Stream<IgnoreCondition> conditions(Description description, Function<Class<? extends IgnoreCondition>, IgnoreCondition> factory) {
+		return rules
+			.match(TestId.of(description))
+			.stream()
+			.map(target -> target.create(factory));
+	}
+
+	/**
+	 * Count of rules.
+	 *
+	 * @return Count of rules
+	 */
+	public int size() {
+		return rules.size();
+	}
+
+	private static final class EnvironmentRuleCondition extends BaseEnvironmentCondition {
+		EnvironmentRuleCondition(Source source, String name, Pattern pattern) {
+			super(source, name, pattern);
+		}
+	}
+
+	private interface Target {
+		IgnoreCondition create(Function<Class<? extends IgnoreCondition>, IgnoreCondition> factory);
+	}
+}
@@ -0,0 +1,72 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.condition.MachineSpeed;
+import name.valery1707.junit.rule.condition.ScaledTimeout;
+import name.valery1707.junit.rule.condition.ScaledTimeoutCondition;
+import org.junit.rules.MethodRule;
+import org.junit.rules.Timeout;
+import org.junit.runner.Description;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule which fails tests running longer than {@link ScaledTimeout timeout declared for reference machine}
+ * multiplied by {@link MachineSpeed#factor() speed factor} of current machine.
+ * <p>
+ * Rule wraps {@link ConditionalIgnoreRule} which by default also checks {@link ScaledTimeoutCondition}:
+ * tests which scaled timeout exceeds {@value ScaledTimeoutCondition#MAX} are skipped instead of running.
+ * Skipped tests neither run calibration nor start timer.
+ * <p>
+ * Usage: create in test {@code public} field of class {@link ScaledTimeoutRule} with annotation {@link org.junit.Rule}
+ * instead of {@link ConditionalIgnoreRule} and add annotation {@link ScaledTimeout} on test methods.
+ */
+public class ScaledTimeoutRule implements MethodRule {
+	private final ConditionalIgnoreRule conditions;
+
+	/**
+	 * Rule with {@link ScaledTimeoutCondition} and conditions declared by {@link ConditionalIgnoreRule.ConditionalIgnore}.
+	 */
+	public ScaledTimeoutRule() {
+		this(new ConditionalIgnoreRule(ScaledTimeoutCondition.class));
+	}
+
+	/**
+	 * Rule with custom {@link ConditionalIgnoreRule}.
+	 *
+	 * @param conditions Rule which decide skipping of tests
+	 */
+	public ScaledTimeoutRule(ConditionalIgnoreRule conditions) {
+		this.conditions = conditions;
+	}
+
+	/**
+	 * Rule which decides skipping of tests, used by {@link ConditionalIgnoreRunner} for decision up front.
+	 *
+	 * @return Wrapped rule
+	 */
+	ConditionalIgnoreRule getConditions() {
+		return conditions;
+	}
+
+	@Override
+	public Statement apply(Statement base, FrameworkMethod method, Object target) {
+		ScaledTimeout timeout = method.getAnnotation(ScaledTimeout.class);
+		Statement decided = conditions.apply(base, method, target);
+		if (timeout == null || decided != base) {
+			return decided;
+		}
+		Description description = Description.createTestDescription(target.getClass(), method.getName(), method.getAnnotations());
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Timeout.builder()
+					.withTimeout(MachineSpeed.scale(timeout.value()), TimeUnit.MILLISECONDS)
+					.build()
+					.apply(base, description)
+					.evaluate();
+			}
+		};
+	}
+}
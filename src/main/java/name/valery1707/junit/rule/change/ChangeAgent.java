@@ -0,0 +1,56 @@
+package name.valery1707.junit.rule.change;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+
+/**
+ * Java agent which registers loaded classes in {@link ClassTracker}.
+ * <p>
+ * Usage: {@code -javaagent:path/to/junit4-rule.jar}, for example with Surefire:
+ * <pre>{@code
+ * <argLine>-javaagent:${name.valery1707.junit:junit4-rule:jar}</argLine>
+ * }</pre>
+ * Agent does not transform classes.
+ */
+public final class ChangeAgent implements ClassFileTransformer {
+	private ChangeAgent() {
+	}
+
+	/**
+	 * Entry point of agent loaded at JVM startup.
+	 *
+	 * @param args            Agent arguments, ignored
+	 * @param instrumentation Instrumentation
+	 */
+	public static void premain(String args, Instrumentation instrumentation) {
+		ClassTracker.activate();
+		for (Class<?> type : instrumentation.getAllLoadedClasses()) {
+			if (type.getClassLoader() != null && !type.isArray()) {
+				ClassTracker.loaded(type.getName());
+			}
+		}
+		instrumentation.addTransformer(new ChangeAgent());
+	}
+
+	/**
+	 * Entry point of agent loaded into running JVM.
+	 *
+	 * @param args            Agent arguments, ignored
+	 * @param instrumentation Instrumentation
+	 */
+	public static void agentmain(String args, Instrumentation instrumentation) {
+		premain(args, instrumentation);
+	}
+
+	@Override
+	public byte[] transform(
+		ClassLoader loader, String className, Class<?> classBeingRedefined,
+		ProtectionDomain protectionDomain, byte[] classfileBuffer
+	) {
+		if (loader != null && className != null && classBeingRedefined == null) {
+			ClassTracker.loaded(className.replace('/', '.'));
+		}
+		return null;
+	}
+}
@@ -0,0 +1,323 @@
+package name.valery1707.junit.rule.change;
+
+import name.valery1707.junit.rule.condition.Settings;
+import name.valery1707.junit.rule.history.LongLongMap;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Compact index of test dependencies: checksums of classes and, for every test, set of classes loaded
+ * in JVM up to the finish of its last run.
+ * <p>
+ * Set is a superset of classes really used by the test: it includes classes loaded by previous tests,
+ * by class level fixtures and while creation of test instance, so change of any class shared by several tests
+ * selects all of them. Classes loaded only after the finish of the test are not attributed to it.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @see ChangeRecorder
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ChangeIndex {
+	/**
+	 * Path to index file.
+	 */
+	public static final String FILE = "junit.change.index";
+	public static final String DEFAULT_FILE = "target/junit-changes.bin";
+
+	private static final int MAGIC = 0x4A344349;
+	private static final int VERSION = 1;
+	private static final int MISSING = 0;
+
+	private final List<String> classes;
+	private final int[] checksums;
+	private final LongLongMap tests;
+	private final BitSet[] dependencies;
+	private final boolean[] green;
+
+	private ChangeIndex(List<String> classes, int[] checksums, LongLongMap tests, BitSet[] dependencies, boolean[] green) {
+		this.classes = classes;
+		this.checksums = checksums;
+		this.tests = tests;
+		this.dependencies = dependencies;
+		this.green = green;
+	}
+
+	/**
+	 * Result of test in current run.
+	 */
+	public static final class Run {
+		private final BitSet classes;
+		private final boolean passed;
+
+		/**
+		 * @param classes Indexes of classes used by test in list of classes loaded in current run
+		 * @param passed  Is test passed
+		 */
+		public Run(BitSet classes, boolean passed) {
+			this.classes = classes;
+			this.passed = passed;
+		}
+	}
+
+	/**
+	 * Path to index configured by current environment.
+	 *
+	 * @return Path to index
+	 */
+	public static Path configured() {
+		return Settings.findPath(FILE).orElse(Paths.get(DEFAULT_FILE));
+	}
+
+	/**
+	 * Checksum of the current class file.
+	 *
+	 * @param loader Class loader for resource lookup
+	 * @param name   Binary name of class
+	 * @return CRC32 of class file or {@code 0} if class file does not exist
+	 */
+	static int checksum(ClassLoader loader, String name) {
+		try (InputStream stream = loader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+			if (stream == null) {
+				return MISSING;
+			}
+			CRC32 crc = new CRC32();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) >= 0) {
+				crc.update(buffer, 0, read);
+			}
+			return (int) crc.getValue();
+		} catch (IOException e) {
+			return MISSING;
+		}
+	}
+
+	/**
+	 * Checksums of current class files computed in parallel.
+	 *
+	 * @param loader  Class loader for resource lookup
+	 * @param classes Binary names of classes
+	 * @return Checksums in order of {@code classes}
+	 */
+	static int[] checksums(ClassLoader loader, List<String> classes) {
+		int[] checksums = new int[classes.size()];
+		IntStream.range(0, checksums.length).parallel().forEach(i -> checksums[i] = checksum(loader, classes.get(i)));
+		return checksums;
+	}
+
+	/**
+	 * Classes which are changed since the index was written.
+	 *
+	 * @param loader Class loader for resource lookup
+	 * @return Indexes of changed classes
+	 */
+	public BitSet changed(ClassLoader loader) {
+		int[] current = checksums(loader, classes);
+		BitSet changed = new BitSet(current.length);
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] != checksums[i]) {
+				changed.set(i);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Check that test passed at its last run and none of its dependencies changed since.
+	 *
+	 * @param id      Hash of test identity
+	 * @param changed Result of {@link #changed(ClassLoader)}
+	 * @return Is test result known to be unchanged
+	 */
+	public boolean isUnchanged(long id, BitSet changed) {
+		int pos = (int) tests.get(id, -1);
+		return pos >= 0 && green[pos] && !dependencies[pos].isEmpty() && !dependencies[pos].intersects(changed);
+	}
+
+	/**
+	 * Count of dependencies of the test.
+	 *
+	 * @param id Hash of test identity
+	 * @return Count of dependencies or {@code -1} for unknown test
+	 */
+	public int dependencies(long id) {
+		int pos = (int) tests.get(id, -1);
+		return pos >= 0 ? dependencies[pos].cardinality() : -1;
+	}
+
+	/**
+	 * Count of tests in index.
+	 *
+	 * @return Count of tests
+	 */
+	public int getTests() {
+		return tests.size();
+	}
+
+	/**
+	 * Merge results of current run into index.
+	 * <p>
+	 * Fingerprints from {@code previous} are kept for tests which were not run,
+	 * but only if their dependencies are not changed since.
+	 *
+	 * @param previous Index from previous runs
+	 * @param names    Classes loaded in current run in order of loading
+	 * @param runs     Finished tests by hash of identity
+	 * @param loader   Class loader for resource lookup
+	 * @return Merged index
+	 */
+	public static ChangeIndex merge(@Nullable ChangeIndex previous, List<String> names, Map<Long, Run> runs, ClassLoader loader) {
+		List<String> classes = new ArrayList<>(names);
+		Map<String, Integer> positions = new HashMap<>();
+		for (int i = 0; i < classes.size(); i++) {
+			positions.put(classes.get(i), i);
+		}
+		if (previous != null) {
+			for (String name : previous.classes) {
+				if (!positions.containsKey(name)) {
+					positions.put(name, classes.size());
+					classes.add(name);
+				}
+			}
+		}
+		int[] checksums = checksums(loader, classes);
+
+		LongLongMap tests = new LongLongMap(runs.size());
+		List<BitSet> dependencies = new ArrayList<>();
+		List<Boolean> green = new ArrayList<>();
+		runs.forEach((id, run) -> {
+			tests.put(id, dependencies.size());
+			dependencies.add(run.classes.get(0, names.size()));
+			green.add(run.passed);
+		});
+		if (previous != null) {
+			int[] remap = new int[previous.classes.size()];
+			for (int i = 0; i < remap.length; i++) {
+				remap[i] = positions.get(previous.classes.get(i));
+			}
+			for (long id : previous.tests.keys()) {
+				int pos = (int) previous.tests.get(id, -1);
+				if (runs.containsKey(id) || !previous.green[pos]) {
+					continue;
+				}
+				BitSet source = previous.dependencies[pos];
+				BitSet target = new BitSet();
+				boolean unchanged = true;
+				for (int i = source.nextSetBit(0); i >= 0 && unchanged; i = source.nextSetBit(i + 1)) {
+					target.set(remap[i]);
+					unchanged = previous.checksums[i] == checksums[remap[i]];
+				}
+				if (unchanged) {
+					tests.put(id, dependencies.size());
+					dependencies.add(target);
+					green.add(true);
+				}
+			}
+		}
+
+		boolean[] passed = new boolean[green.size()];
+		for (int i = 0; i < passed.length; i++) {
+			passed[i] = green.get(i);
+		}
+		return new ChangeIndex(Collections.unmodifiableList(classes), checksums, tests, dependencies.toArray(new BitSet[0]), passed);
+	}
+
+	/**
+	 * Read index.
+	 *
+	 * @param path Path to index
+	 * @return Loaded index or {@code null} if file does not exist
+	 * @throws UncheckedIOException     on read errors
+	 * @throws IllegalArgumentException on unknown file format
+	 */
+	@Nullable
+	public static ChangeIndex read(Path path) {
+		if (!Files.exists(path)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IllegalArgumentException("Unknown format of change index " + path);
+			}
+			int classCount = in.readInt();
+			List<String> classes = new ArrayList<>(classCount);
+			int[] checksums = new int[classCount];
+			for (int i = 0; i < classCount; i++) {
+				classes.add(in.readUTF());
+				checksums[i] = in.readInt();
+			}
+			int testCount = in.readInt();
+			LongLongMap tests = new LongLongMap(testCount);
+			BitSet[] dependencies = new BitSet[testCount];
+			boolean[] green = new boolean[testCount];
+			for (int i = 0; i < testCount; i++) {
+				tests.put(in.readLong(), i);
+				green[i] = in.readBoolean();
+				long[] words = new long[in.readInt()];
+				for (int w = 0; w < words.length; w++) {
+					words[w] = in.readLong();
+				}
+				dependencies[i] = BitSet.valueOf(words);
+			}
+			return new ChangeIndex(Collections.unmodifiableList(classes), checksums, tests, dependencies, green);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to read change index " + path, e);
+		}
+	}
+
+	/**
+	 * Write index atomically.
+	 *
+	 * @param path Path to index
+	 * @throws IOException on write errors
+	 */
+	public void write(Path path) throws IOException {
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(classes.size());
+			for (int i = 0; i < classes.size(); i++) {
+				out.writeUTF(classes.get(i));
+				out.writeInt(checksums[i]);
+			}
+			long[] ids = tests.keys();
+			out.writeInt(ids.length);
+			for (long id : ids) {
+				int pos = (int) tests.get(id, -1);
+				out.writeLong(id);
+				out.writeBoolean(green[pos]);
+				long[] words = dependencies[pos].toLongArray();
+				out.writeInt(words.length);
+				for (long word : words) {
+					out.writeLong(word);
+				}
+			}
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
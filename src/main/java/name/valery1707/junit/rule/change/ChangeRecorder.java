@@ -0,0 +1,97 @@
+package name.valery1707.junit.rule.change;
+
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Record dependencies of finished tests into {@link ChangeIndex}.
+ * <p>
+ * Works only with {@link ChangeAgent}, without it nothing is recorded.
+ * Dependencies of test are all classes loaded in JVM up to its finish: safe superset of classes really used by the test,
+ * which also covers classes loaded before its start by previous tests, class level fixtures and creation of test instance.
+ * Skipped tests keep fingerprints from previous runs.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.change.ChangeRecorder</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class ChangeRecorder extends RunListener {
+	private final Path path;
+	private final Set<Description> started = ConcurrentHashMap.newKeySet();
+	private final Set<Description> failed = ConcurrentHashMap.newKeySet();
+	private final Set<Description> skipped = ConcurrentHashMap.newKeySet();
+	private final Map<Long, ChangeIndex.Run> runs = new ConcurrentHashMap<>();
+
+	public ChangeRecorder() {
+		this(ChangeIndex.configured());
+	}
+
+	public ChangeRecorder(Path path) {
+		this.path = path;
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		if (ClassTracker.isActive()) {
+			started.add(description);
+		}
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		failed.add(failure.getDescription());
+	}
+
+	@Override
+	public void testAssumptionFailure(Failure failure) {
+		skipped.add(failure.getDescription());
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		boolean isStarted = started.remove(description);
+		boolean isFailed = failed.remove(description);
+		if (skipped.remove(description) || !isStarted) {
+			return;
+		}
+		BitSet classes = new BitSet();
+		classes.set(0, ClassTracker.count());
+		synchronized (runs) {
+			runs.put(TestId.hash(description), new ChangeIndex.Run(classes, !isFailed));
+		}
+	}
+
+	@Override
+	public void testRunFinished(Result result) throws IOException {
+		synchronized (runs) {
+			if (runs.isEmpty()) {
+				return;
+			}
+			ChangeIndex
+				.merge(ChangeIndex.read(path), ClassTracker.names(), runs, loader())
+				.write(path);
+		}
+	}
+
+	static ClassLoader loader() {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		return loader != null ? loader : ChangeRecorder.class.getClassLoader();
+	}
+}
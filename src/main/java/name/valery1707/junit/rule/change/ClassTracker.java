@@ -0,0 +1,101 @@
+package name.valery1707.junit.rule.change;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of application classes loaded in current JVM in order of loading.
+ * <p>
+ * Classes are registered by {@link ChangeAgent}, without agent registry stays inactive and empty.
+ * Classes of JDK and classes loaded by bootstrap class loader are ignored.
+ * <p>
+ * Thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ClassTracker {
+	private static final String[] IGNORED_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+	private static final Map<String, Integer> INDEX = new ConcurrentHashMap<>();
+	private static final List<String> NAMES = new ArrayList<>();
+	private static volatile boolean active;
+
+	private ClassTracker() {
+	}
+
+	/**
+	 * Activate registry.
+	 */
+	static void activate() {
+		active = true;
+	}
+
+	/**
+	 * Check that classes are tracked.
+	 *
+	 * @return Is tracking active
+	 */
+	public static boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Register loaded class.
+	 *
+	 * @param name Binary name of class
+	 */
+	static void loaded(String name) {
+		if (!active || name == null || isIgnored(name) || INDEX.containsKey(name)) {
+			return;
+		}
+		synchronized (NAMES) {
+			if (!INDEX.containsKey(name)) {
+				INDEX.put(name, NAMES.size());
+				NAMES.add(name);
+			}
+		}
+	}
+
+	private static boolean isIgnored(String name) {
+		for (String prefix : IGNORED_PREFIXES) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Count of loaded classes.
+	 *
+	 * @return Count of loaded classes
+	 */
+	public static int count() {
+		synchronized (NAMES) {
+			return NAMES.size();
+		}
+	}
+
+	/**
+	 * Position of class in order of loading.
+	 *
+	 * @param name Binary name of class
+	 * @return Position or {@code -1} if class is not tracked
+	 */
+	public static int index(String name) {
+		return INDEX.getOrDefault(name, -1);
+	}
+
+	/**
+	 * Names of loaded classes in order of loading.
+	 *
+	 * @return Snapshot of names
+	 */
+	public static List<String> names() {
+		synchronized (NAMES) {
+			return Collections.unmodifiableList(new ArrayList<>(NAMES));
+		}
+	}
+}
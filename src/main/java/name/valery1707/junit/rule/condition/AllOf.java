@@ -0,0 +1,47 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Skip test only if all of conditions require to skip.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class SlowOnCi extends AllOf {
+ *     public SlowOnCi() {
+ *         super(CiCondition.class, SlowMachineCondition.class);
+ *     }
+ * }
+ * }</pre>
+ */
+public class AllOf extends CompositeCondition {
+	public AllOf(IgnoreCondition... conditions) {
+		super(conditions);
+	}
+
+	@SafeVarargs
+	public AllOf(Class<? extends IgnoreCondition>... conditions) {
+		super(conditions);
+	}
+
+	@Override
+	public Decision evaluate() {
+		Map<IgnoreCondition, Decision> decisions = new IdentityHashMap<>();
+		for (IgnoreCondition condition : ordered(false)) {
+			Decision decision = ConditionCost.evaluate(condition);
+			if (!decision.isSkip()) {
+				return Decision.run();
+			}
+			decisions.put(condition, decision);
+		}
+		return Decision.skipLazily(() -> getConditions().stream()
+			.map(condition -> describe(condition, decisions.get(condition)))
+			.collect(Collectors.joining(" and ", "All of: ", ""))
+		);
+	}
+}
@@ -0,0 +1,38 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+/**
+ * Skip test if any of conditions requires to skip.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class WindowsOrNoDatabase extends AnyOf {
+ *     public WindowsOrNoDatabase() {
+ *         super(WindowsCondition.class, NoDatabaseCondition.class);
+ *     }
+ * }
+ * }</pre>
+ */
+public class AnyOf extends CompositeCondition {
+	public AnyOf(IgnoreCondition... conditions) {
+		super(conditions);
+	}
+
+	@SafeVarargs
+	public AnyOf(Class<? extends IgnoreCondition>... conditions) {
+		super(conditions);
+	}
+
+	@Override
+	public Decision evaluate() {
+		for (IgnoreCondition condition : ordered(true)) {
+			Decision decision = ConditionCost.evaluate(condition);
+			if (decision.isSkip()) {
+				return Decision.skipLazily(() -> describe(condition, decision));
+			}
+		}
+		return Decision.run();
+	}
+}
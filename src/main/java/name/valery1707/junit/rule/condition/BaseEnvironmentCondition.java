@@ -1,5 +1,6 @@
 package name.valery1707.junit.rule.condition;
 
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
 import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
 import org.intellij.lang.annotations.MagicConstant;
 
@@ -10,9 +11,24 @@ import java.util.regex.Pattern;
 
 /**
  * Test of environment values by regexp or simple equals.
+ * <p>
+ * Value is read from {@link Source} once per {@link #evaluate()}, so reason always describes the value used for decision.
+ * Subclasses which override {@link #needRun()}, {@link #needSkip()} or {@link #reason()} are evaluated through them,
+ * as before introducing of {@link #evaluate()}.
+ * Instances are immutable and thread-safe if {@link Source} is.
  */
 @SuppressWarnings("WeakerAccess")
 public class BaseEnvironmentCondition implements IgnoreCondition {
+	/**
+	 * Classes overriding any of {@code needRun()}, {@code needSkip()} or {@code reason()}.
+	 */
+	private static final ClassValue<Boolean> CUSTOMIZED = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return overrides(type, "needRun") || overrides(type, "needSkip") || overrides(type, "reason");
+		}
+	};
+
 	private final Source source;
 	private final String name;
 	private final Pattern pattern;
@@ -28,6 +44,17 @@ public class BaseEnvironmentCondition implements IgnoreCondition {
 		 * @return Value if exists or Empty
 		 */
 		Optional<String> find(String name);
+
+		/**
+		 * Extract value with {@code name} without wrapping into {@link Optional}.
+		 *
+		 * @param name Name of the property
+		 * @return Value if exists or {@code null}
+		 */
+		@Nullable
+		default String get(String name) {
+			return find(name).orElse(null);
+		}
 	}
 
 	/**
@@ -39,14 +66,20 @@ public class BaseEnvironmentCondition implements IgnoreCondition {
 		//Formatting
 		;
 
-		private final Function<String, Optional<String>> extractor;
+		private final Function<String, String> extractor;
 
 		StandardSource(Function<String, String> extractor) {
-			this.extractor = extractor.andThen(Optional::ofNullable);
+			this.extractor = extractor;
 		}
 
 		@Override
 		public Optional<String> find(String name) {
+			return Optional.ofNullable(get(name));
+		}
+
+		@Nullable
+		@Override
+		public String get(String name) {
 			return extractor.apply(name);
 		}
 	}
@@ -91,24 +124,42 @@ public class BaseEnvironmentCondition implements IgnoreCondition {
 		this(source, name, expected, 0);
 	}
 
+	private static boolean overrides(Class<?> type, String method) {
+		try {
+			Class<?> declaring = type.getMethod(method).getDeclaringClass();
+			return declaring != BaseEnvironmentCondition.class && BaseEnvironmentCondition.class.isAssignableFrom(declaring);
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public Decision evaluate() {
+		if (CUSTOMIZED.get(getClass())) {
+			return IgnoreCondition.super.evaluate();
+		}
+		String value = source.get(name);
+		return Decision.of(!matches(value), () -> reason(value));
+	}
+
 	@Override
 	public boolean needRun() {
-		return source
-			.find(name)
-			.filter(pattern.asPredicate())
-			.isPresent();
+		return matches(source.get(name));
+	}
+
+	private boolean matches(@Nullable String value) {
+		return value != null && pattern.matcher(value).find();
 	}
 
 	@Nullable
 	@Override
 	public String reason() {
-		return source
-			.find(name)
-			.map(value ->
-				String.format("Key '%s' has value '%s' which don't match with pattern '%s'", name, value, pattern.pattern())
-			)
-			.orElseGet(() ->
-				String.format("Key '%s' don't have value", name)
-			);
+		return reason(source.get(name));
+	}
+
+	private String reason(@Nullable String value) {
+		return value != null
+			? String.format("Key '%s' has value '%s' which don't match with pattern '%s'", name, value, pattern.pattern())
+			: String.format("Key '%s' don't have value", name);
 	}
 }
@@ -0,0 +1,45 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Test is micro-benchmark: its body is run as warmup and measured iterations
+ * and latency at {@link #percentile()} is compared with stored baseline.
+ *
+ * @see name.valery1707.junit.rule.BenchmarkRule
+ * @see BenchmarkNoiseCondition
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Benchmark {
+	/**
+	 * Count of not measured iterations.
+	 *
+	 * @return Count of warmup iterations
+	 */
+	int warmup() default 5;
+
+	/**
+	 * Count of measured iterations.
+	 *
+	 * @return Positive count of measured iterations
+	 */
+	int iterations() default 20;
+
+	/**
+	 * Compared percentile of latency.
+	 *
+	 * @return Percentile in range {@code (0, 100]}
+	 */
+	double percentile() default 50;
+
+	/**
+	 * Allowed regression relative to baseline.
+	 *
+	 * @return Ratio, {@code 0.2} allows latency up to 120% of baseline
+	 */
+	double tolerance() default 0.2;
+}
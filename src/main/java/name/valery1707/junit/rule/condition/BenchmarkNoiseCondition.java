@@ -0,0 +1,131 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Skip {@link Benchmark benchmarks} in noisy environment where measurements are not meaningful:
+ * <ul>
+ * <li>debugger agent is attached ({@code -agentlib:jdwp}, {@code -Xrunjdwp}, {@code -Xdebug})</li>
+ * <li>coverage agent is attached (JaCoCo, Cobertura, Clover, EMMA, JCov)</li>
+ * <li>JIT compiler is absent or stops before C2 ({@code -Xint}, {@code -XX:TieredStopAtLevel} below {@code 4},
+ * client VM)</li>
+ * <li>system load average per processor exceeds {@value #LOAD} ({@code 1.0} by default)</li>
+ * </ul>
+ * Arguments of JVM are inspected once per JVM, load is read on every evaluation.
+ * See {@link Settings} for lookup rules of configuration.
+ */
+public class BenchmarkNoiseCondition implements IgnoreCondition, DescriptionAware {
+	public static final String LOAD = "junit.benchmark.load";
+
+	private static final List<String> COVERAGE_AGENTS = Collections.unmodifiableList(Arrays.asList(
+		"jacoco", "cobertura", "clover", "emma", "jcov"
+	));
+
+	private static volatile List<String> jvmNoise;
+
+	private Description description;
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public Decision evaluate() {
+		if (description.getAnnotation(Benchmark.class) == null) {
+			return Decision.run();
+		}
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		List<String> noise = new ArrayList<>(jvmNoise());
+		noise.addAll(load(os.getSystemLoadAverage(), os.getAvailableProcessors(), Settings.findDouble(LOAD, 1.0)));
+		return Decision.of(!noise.isEmpty(), () -> "Noisy environment: " + String.join(", ", noise));
+	}
+
+	private static List<String> jvmNoise() {
+		List<String> noise = jvmNoise;
+		if (noise == null) {
+			CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+			noise = jvm(
+				ManagementFactory.getRuntimeMXBean().getInputArguments(),
+				compiler != null ? compiler.getName() : null,
+				System.getProperty("java.vm.name", "")
+			);
+			jvmNoise = noise;
+		}
+		return noise;
+	}
+
+	/**
+	 * Detect noise from JVM configuration.
+	 *
+	 * @param arguments Input arguments of JVM
+	 * @param compiler  Name of JIT compiler or {@code null} if it is absent
+	 * @param vmName    Name of JVM
+	 * @return Descriptions of noise
+	 */
+	static List<String> jvm(List<String> arguments, @Nullable String compiler, String vmName) {
+		List<String> noise = new ArrayList<>();
+		for (String argument : arguments) {
+			String lower = argument.toLowerCase(Locale.ROOT);
+			if (lower.startsWith("-agentlib:jdwp") || lower.startsWith("-xrunjdwp") || lower.equals("-xdebug")) {
+				noise.add("debugger attached");
+			} else if (lower.startsWith("-javaagent:")) {
+				COVERAGE_AGENTS.stream()
+					.filter(agent -> lower.substring(0, agentPathEnd(lower)).contains(agent))
+					.findFirst()
+					.ifPresent(agent -> noise.add("coverage agent " + agent));
+			} else if (lower.equals("-xint")) {
+				noise.add("interpreted mode");
+			} else if (lower.startsWith("-xx:tieredstopatlevel=")) {
+				String level = argument.substring("-XX:TieredStopAtLevel=".length());
+				if (!level.equals("4")) {
+					noise.add("JIT stops at level " + level);
+				}
+			}
+		}
+		if (compiler == null && !noise.contains("interpreted mode")) {
+			noise.add("no JIT compiler");
+		}
+		if (vmName.contains("Client VM")) {
+			noise.add("client VM without C2");
+		}
+		return Collections.unmodifiableList(noise.stream().distinct().collect(Collectors.toList()));
+	}
+
+	/**
+	 * End of agent path: options after {@code =} are not a part of agent name.
+	 */
+	private static int agentPathEnd(String argument) {
+		int options = argument.indexOf('=');
+		return options < 0 ? argument.length() : options;
+	}
+
+	/**
+	 * Detect noise from system load.
+	 *
+	 * @param load       Load average or negative value if it is not available
+	 * @param processors Count of processors
+	 * @param maxLoad    Maximum load per processor
+	 * @return Descriptions of noise
+	 */
+	static List<String> load(double load, int processors, double maxLoad) {
+		double perProcessor = load / processors;
+		return load >= 0 && perProcessor > maxLoad
+			? Collections.singletonList(String.format(Locale.ROOT, "load %.2f per processor over %.2f", perProcessor, maxLoad))
+			: Collections.emptyList();
+	}
+}
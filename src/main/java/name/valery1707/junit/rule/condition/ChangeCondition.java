@@ -0,0 +1,89 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.change.ChangeAgent;
+import name.valery1707.junit.rule.change.ChangeIndex;
+import name.valery1707.junit.rule.change.ChangeRecorder;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skip tests which passed at last run and none of their dependencies changed since.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #ENABLED} - enable selection of changed tests, tests are never skipped without it</li>
+ * <li>{@value ChangeIndex#FILE} - path to index recorded by {@link ChangeRecorder} with {@link ChangeAgent},
+ * {@value ChangeIndex#DEFAULT_FILE} by default</li>
+ * </ul>
+ * <p>
+ * Index is loaded and checksums of current classes are computed in parallel once per JVM.
+ * Tests without fingerprint are never skipped.
+ */
+public class ChangeCondition implements IgnoreCondition, DescriptionAware {
+	public static final String ENABLED = "junit.changed.only";
+
+	private static final Map<Path, Snapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+	private final Snapshot snapshot;
+	private Description description;
+
+	public ChangeCondition() {
+		this(Settings.findBoolean(ENABLED), ChangeIndex.configured());
+	}
+
+	protected ChangeCondition(boolean enabled, Path index) {
+		this.snapshot = enabled ? SNAPSHOTS.computeIfAbsent(index.toAbsolutePath().normalize(), Snapshot::new) : null;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public Decision evaluate() {
+		if (snapshot == null) {
+			return Decision.run();
+		}
+		long id = TestId.hash(description);
+		return Decision.of(snapshot.isUnchanged(id), () -> reason(snapshot.index.dependencies(id)));
+	}
+
+	@Override
+	public boolean needSkip() {
+		return evaluate().isSkip();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return reason(snapshot != null && snapshot.index != null ? snapshot.index.dependencies(TestId.hash(description)) : 0);
+	}
+
+	private static String reason(int dependencies) {
+		return String.format("Test passed at last run and none of its %d dependencies changed", dependencies);
+	}
+
+	private static final class Snapshot {
+		private final ChangeIndex index;
+		private final BitSet changed;
+
+		Snapshot(Path path) {
+			index = ChangeIndex.read(path);
+			ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			changed = index != null ? index.changed(loader != null ? loader : ChangeCondition.class.getClassLoader()) : null;
+		}
+
+		boolean isUnchanged(long id) {
+			return index != null && index.isUnchanged(id, changed);
+		}
+	}
+}
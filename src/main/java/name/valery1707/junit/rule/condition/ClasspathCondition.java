@@ -0,0 +1,52 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Skip test if any of classes or resources is absent in classpath.
+ * <p>
+ * Presence is answered by {@link ClasspathIndex#shared() shared index} of classpath,
+ * so classes are neither loaded nor initialized and absence does not cost any exception.
+ * Names containing {@code /} are resources, other names are binary names of classes.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class PostgresDriverPresent extends ClasspathCondition {
+ *     public PostgresDriverPresent() {
+ *         super("org.postgresql.Driver", "META-INF/services/java.sql.Driver");
+ *     }
+ * }
+ * }</pre>
+ */
+public class ClasspathCondition implements IgnoreCondition {
+	private final List<String> names;
+	private List<String> absent = Collections.emptyList();
+
+	protected ClasspathCondition(String... names) {
+		if (names.length == 0) {
+			throw new IllegalArgumentException("Classpath condition requires at least one class or resource");
+		}
+		this.names = Arrays.asList(names);
+	}
+
+	@Override
+	public boolean needSkip() {
+		ClasspathIndex index = ClasspathIndex.shared();
+		absent = names.stream()
+			.filter(name -> name.indexOf('/') >= 0 ? !index.containsResource(name) : !index.containsClass(name))
+			.collect(Collectors.toList());
+		return !absent.isEmpty();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return absent.isEmpty() ? null : "Absent in classpath: " + String.join(", ", absent);
+	}
+}
@@ -0,0 +1,169 @@
+package name.valery1707.junit.rule.condition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Index of resources available in classpath, which answers presence of classes without loading or initializing them.
+ * <p>
+ * Shared index is built lazily once per JVM from entries of {@code java.class.path}:
+ * directories are scanned and jars are read only by central directory.
+ * Jars from attribute {@code Class-Path} of manifest are indexed too, so manifest-only jars of Surefire are supported.
+ * <p>
+ * Resources absent in index (for example classes of JDK or of custom class loaders)
+ * are looked up by {@link ClassLoader#getResource(String)}, which also does not load classes,
+ * and results of lookup are cached.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ClasspathIndex {
+	private static volatile ClasspathIndex shared;
+
+	private final Set<String> entries;
+	private final ClassLoader loader;
+	private final Map<String, Boolean> fallback = new ConcurrentHashMap<>();
+
+	private ClasspathIndex(Set<String> entries, ClassLoader loader) {
+		this.entries = entries;
+		this.loader = loader;
+	}
+
+	/**
+	 * Index of {@code java.class.path} shared by the whole JVM.
+	 *
+	 * @return Shared index
+	 * @throws UncheckedIOException on read errors of classpath entries
+	 */
+	public static ClasspathIndex shared() {
+		ClasspathIndex index = shared;
+		if (index == null) {
+			synchronized (ClasspathIndex.class) {
+				index = shared;
+				if (index == null) {
+					List<Path> roots = new ArrayList<>();
+					for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+						if (!entry.isEmpty()) {
+							roots.add(Paths.get(entry));
+						}
+					}
+					ClassLoader loader = Thread.currentThread().getContextClassLoader();
+					index = build(roots, loader != null ? loader : ClasspathIndex.class.getClassLoader());
+					shared = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Build index of classpath entries.
+	 *
+	 * @param roots  Directories and jars, absent paths are skipped
+	 * @param loader Class loader for lookup of resources absent in index
+	 * @return Index
+	 * @throws UncheckedIOException on read errors of classpath entries
+	 */
+	public static ClasspathIndex build(Collection<Path> roots, ClassLoader loader) {
+		Set<String> entries = new HashSet<>();
+		Set<Path> visited = new HashSet<>();
+		for (Path root : roots) {
+			index(root, entries, visited);
+		}
+		return new ClasspathIndex(entries, loader);
+	}
+
+	private static void index(Path root, Set<String> entries, Set<Path> visited) {
+		Path path = root.toAbsolutePath().normalize();
+		if (!visited.add(path)) {
+			return;
+		}
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.walk(path)) {
+				files
+					.filter(Files::isRegularFile)
+					.forEach(file -> entries.add(path.relativize(file).toString().replace(File.separatorChar, '/')));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Fail to scan classpath directory " + path, e);
+			}
+		} else if (Files.isRegularFile(path)) {
+			List<Path> references = new ArrayList<>();
+			try (JarFile jar = new JarFile(path.toFile(), false)) {
+				Enumeration<JarEntry> jarEntries = jar.entries();
+				while (jarEntries.hasMoreElements()) {
+					JarEntry entry = jarEntries.nextElement();
+					if (!entry.isDirectory()) {
+						entries.add(entry.getName());
+					}
+				}
+				Manifest manifest = jar.getManifest();
+				String classPath = manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) : null;
+				if (classPath != null) {
+					URL base = path.toUri().toURL();
+					for (String reference : classPath.trim().split("\\s+")) {
+						if (!reference.isEmpty()) {
+							references.add(Paths.get(new URL(base, reference).toURI()));
+						}
+					}
+				}
+			} catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+				throw new IllegalArgumentException("Invalid attribute Class-Path in manifest of " + path, e);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Fail to read classpath jar " + path, e);
+			}
+			references.forEach(reference -> index(reference, entries, visited));
+		}
+	}
+
+	/**
+	 * Check presence of resource.
+	 *
+	 * @param name Name of resource like {@code com/example/config.properties}
+	 * @return Is resource present in classpath?
+	 */
+	public boolean containsResource(String name) {
+		String resource = name.startsWith("/") ? name.substring(1) : name;
+		return entries.contains(resource) || fallback.computeIfAbsent(resource, key -> loader != null && loader.getResource(key) != null);
+	}
+
+	/**
+	 * Check presence of class without loading it.
+	 *
+	 * @param className Binary name of class like {@code com.example.Outer$Inner}
+	 * @return Is class present in classpath?
+	 */
+	public boolean containsClass(String className) {
+		return containsResource(className.replace('.', '/') + ".class");
+	}
+
+	/**
+	 * Count of indexed resources.
+	 *
+	 * @return Count of resources found in classpath entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	static void reset() {
+		shared = null;
+	}
+}
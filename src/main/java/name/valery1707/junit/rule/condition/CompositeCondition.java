@@ -0,0 +1,104 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base implementation of condition combined from other conditions.
+ * <p>
+ * Sub-conditions must be independent: they are evaluated with short-circuit in order of
+ * {@link ConditionCost#rank(boolean) measured cost and selectivity}, not in declared order.
+ * <p>
+ * Sub-conditions declared by class must be standalone or {@code static} with default constructor.
+ * Test description is passed into sub-conditions implementing {@link DescriptionAware}.
+ * <p>
+ * Each sub-condition is evaluated at most once per {@link #evaluate()} and reason is built from the same decisions.
+ * Decisions are not stored in composite, so it has no state except of its sub-conditions.
+ */
+public abstract class CompositeCondition implements IgnoreCondition, DescriptionAware {
+	private final List<IgnoreCondition> conditions;
+
+	protected CompositeCondition(IgnoreCondition... conditions) {
+		this.conditions = nonEmpty(new ArrayList<>(Arrays.asList(conditions)));
+	}
+
+	@SafeVarargs
+	protected CompositeCondition(Class<? extends IgnoreCondition>... conditions) {
+		List<IgnoreCondition> instances = new ArrayList<>(conditions.length);
+		for (Class<? extends IgnoreCondition> type : conditions) {
+			instances.add(instantiate(type));
+		}
+		this.conditions = nonEmpty(instances);
+	}
+
+	private static List<IgnoreCondition> nonEmpty(List<IgnoreCondition> conditions) {
+		if (conditions.isEmpty()) {
+			throw new IllegalArgumentException("Composite condition requires at least one condition");
+		}
+		return Collections.unmodifiableList(conditions);
+	}
+
+	private static IgnoreCondition instantiate(Class<? extends IgnoreCondition> type) {
+		try {
+			return type.getDeclaredConstructor().newInstance();
+		} catch (RuntimeException rethrow) {
+			throw rethrow;
+		} catch (Exception cause) {
+			throw new IllegalArgumentException(String.format("Fail to instantiate class %s", type.getName()), cause);
+		}
+	}
+
+	protected List<IgnoreCondition> getConditions() {
+		return conditions;
+	}
+
+	/**
+	 * Sub-conditions in order of evaluation.
+	 *
+	 * @param decisive {@code true} if skipping of sub-condition finishes evaluation, {@code false} if running does
+	 * @return Ordered sub-conditions
+	 */
+	protected List<IgnoreCondition> ordered(boolean decisive) {
+		return ConditionCost.order(conditions, ConditionCost::key, decisive);
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		for (IgnoreCondition condition : conditions) {
+			if (condition instanceof DescriptionAware) {
+				((DescriptionAware) condition).setDescription(description);
+			}
+		}
+	}
+
+	protected static String describe(IgnoreCondition condition, Decision decision) {
+		String name = condition.getClass().getSimpleName();
+		String reason = decision.getReason();
+		return reason != null ? name + ": " + reason : name;
+	}
+
+	@Override
+	public abstract Decision evaluate();
+
+	@Override
+	public boolean needSkip() {
+		return evaluate().isSkip();
+	}
+
+	/**
+	 * Reason of new evaluation, prefer {@link #evaluate()} for consistent decision and reason.
+	 */
+	@Nullable
+	@Override
+	public String reason() {
+		return evaluate().getReason();
+	}
+}
@@ -0,0 +1,183 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Measured cost and selectivity of condition evaluations, shared per JVM.
+ * <p>
+ * Statistics are keyed by condition class ({@link ExpressionCondition} - by text of expression)
+ * and updated with lock-free counters, so they can be collected from parallel tests without contention.
+ * Statistics of classes are attached by {@link ClassValue}, so they do not prevent unloading of classes.
+ * <p>
+ * When several independent conditions are combined with short-circuit, the cheapest way to decision is
+ * to evaluate them in ascending order of {@code cost / probability of deciding outcome}.
+ * Probability is estimated with Laplace smoothing, conditions without statistics are evaluated first
+ * so that they get measured.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ConditionCost {
+	private static final ClassValue<AtomicReference<ConditionCost>> CLASS_STATS = new ClassValue<AtomicReference<ConditionCost>>() {
+		@Override
+		protected AtomicReference<ConditionCost> computeValue(Class<?> type) {
+			return new AtomicReference<>();
+		}
+	};
+	private static final Map<Object, ConditionCost> STATS = new ConcurrentHashMap<>();
+	/**
+	 * Generation of statistics: statistics of previous generations are forgotten by {@link #reset()}.
+	 */
+	private static volatile int generation;
+
+	private final int born;
+	private final LongAdder evaluations = new LongAdder();
+	private final LongAdder skips = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+
+	private ConditionCost(int born) {
+		this.born = born;
+	}
+
+	/**
+	 * Statistics for the key.
+	 *
+	 * @param key Key, see {@link #key(IgnoreCondition)}
+	 * @return Statistics
+	 */
+	public static ConditionCost of(Object key) {
+		if (key instanceof Class) {
+			return of(CLASS_STATS.get((Class<?>) key));
+		}
+		ConditionCost cost = STATS.get(key);
+		return cost != null ? cost : STATS.computeIfAbsent(key, __ -> new ConditionCost(generation));
+	}
+
+	private static ConditionCost of(AtomicReference<ConditionCost> holder) {
+		int current = generation;
+		ConditionCost cost = holder.get();
+		while (cost == null || cost.born != current) {
+			ConditionCost created = new ConditionCost(current);
+			if (holder.compareAndSet(cost, created)) {
+				return created;
+			}
+			cost = holder.get();
+		}
+		return cost;
+	}
+
+	/**
+	 * Key of statistics for condition.
+	 *
+	 * @param condition Condition
+	 * @return Text of expression for {@link ExpressionCondition} and class of condition otherwise
+	 */
+	public static Object key(IgnoreCondition condition) {
+		return condition instanceof ExpressionCondition
+			? ((ExpressionCondition) condition).getExpression().getText()
+			: condition.getClass();
+	}
+
+	/**
+	 * Evaluate {@link IgnoreCondition#evaluate()} with measuring into statistics of the condition.
+	 *
+	 * @param condition Condition
+	 * @return Decision
+	 */
+	public static Decision evaluate(IgnoreCondition condition) {
+		return of(key(condition)).measure(condition);
+	}
+
+	/**
+	 * Evaluate {@link IgnoreCondition#evaluate()} with measuring into statistics of the condition.
+	 *
+	 * @param condition Condition
+	 * @return Is test need to skip?
+	 */
+	public static boolean needSkip(IgnoreCondition condition) {
+		return evaluate(condition).isSkip();
+	}
+
+	private Decision measure(IgnoreCondition condition) {
+		long start = System.nanoTime();
+		Decision decision;
+		try {
+			decision = condition.evaluate();
+		} finally {
+			nanos.add(System.nanoTime() - start);
+			evaluations.increment();
+		}
+		if (decision.isSkip()) {
+			skips.increment();
+		}
+		return decision;
+	}
+
+	/**
+	 * Expected cost in nanoseconds of evaluation which finishes short-circuit.
+	 *
+	 * @param decisive {@code true} if skipping finishes evaluation (any of), {@code false} if running does (all of)
+	 * @return Rank, lower must be evaluated earlier
+	 */
+	public double rank(boolean decisive) {
+		long count = evaluations.sum();
+		if (count == 0) {
+			return 0;
+		}
+		long skipped = skips.sum();
+		double probability = ((decisive ? skipped : count - skipped) + 1.0) / (count + 2.0);
+		return (double) nanos.sum() / count / probability;
+	}
+
+	/**
+	 * Order items by {@link #rank(boolean) rank} of their conditions, keeping declared order for equal ranks.
+	 *
+	 * @param items    Items
+	 * @param key      Key of statistics for item
+	 * @param decisive See {@link #rank(boolean)}
+	 * @param <T>      Type of items
+	 * @return New list with ordered items
+	 */
+	public static <T> List<T> order(Collection<T> items, Function<T, Object> key, boolean decisive) {
+		List<T> ordered = new ArrayList<>(items);
+		if (ordered.size() < 2) {
+			return ordered;
+		}
+		Map<T, Double> ranks = new IdentityHashMap<>();
+		for (T item : ordered) {
+			ranks.put(item, of(key.apply(item)).rank(decisive));
+		}
+		ordered.sort(Comparator.comparing(ranks::get));
+		return ordered;
+	}
+
+	public long getEvaluations() {
+		return evaluations.sum();
+	}
+
+	public long getSkips() {
+		return skips.sum();
+	}
+
+	public long getNanos() {
+		return nanos.sum();
+	}
+
+	/**
+	 * Forget all collected statistics.
+	 */
+	public static synchronized void reset() {
+		generation++;
+		STATS.clear();
+	}
+}
@@ -0,0 +1,24 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cost of the test in units of {@value CostPlanner#BUDGET} (for example milliseconds).
+ * <p>
+ * Tests without annotation are free and are never skipped by {@link CostBudgetCondition}.
+ *
+ * @see CostPlanner
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Cost {
+	/**
+	 * Cost of the test.
+	 *
+	 * @return Non negative cost of the test
+	 */
+	long value();
+}
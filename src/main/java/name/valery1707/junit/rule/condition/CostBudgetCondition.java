@@ -0,0 +1,40 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip tests which are not selected by {@link CostPlanner} within budget {@value CostPlanner#BUDGET}.
+ * <p>
+ * Does not skip anything if budget is not configured.
+ *
+ * @see Cost
+ * @see Value
+ */
+public class CostBudgetCondition implements IgnoreCondition, DescriptionAware {
+	private Description description;
+	private CostPlanner.Plan plan;
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public boolean needSkip() {
+		plan = CostPlanner.current(description).orElse(null);
+		return plan != null && !plan.isSelected(description);
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return plan == null ? null : String.format(
+			"Not selected with cost %d and value %d, selected %s",
+			CostPlanner.cost(description), CostPlanner.value(description), plan
+		);
+	}
+}
@@ -0,0 +1,31 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Plan selection of tests of the whole run for {@link CostBudgetCondition}, see {@link CostPlanner}.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.condition.CostPlanListener</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class CostPlanListener extends RunListener {
+	@Override
+	public void testRunStarted(Description description) {
+		CostPlanner.startRun(description);
+	}
+
+	@Override
+	public void testRunFinished(Result result) {
+		CostPlanner.finishRun();
+	}
+}
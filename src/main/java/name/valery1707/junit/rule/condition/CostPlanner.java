@@ -0,0 +1,282 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Selection of tests with the best total {@link Value value} within budget of total {@link Cost cost}.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #BUDGET} - budget of total cost, selection is disabled if absent</li>
+ * </ul>
+ * <p>
+ * Selection is a 0/1 knapsack problem. If all tests fit into budget they are all selected,
+ * otherwise it is solved exactly by dynamic programming if table of {@code budget + 1} cells fits into
+ * {@value #EXACT_CAPACITY} cells and {@code count of tests * (budget + 1)} does not exceed {@value #EXACT_LIMIT},
+ * otherwise greedy approximation by ratio of value to cost is used
+ * (with the best single test as fallback, so result is at least half of optimum).
+ * <p>
+ * Plan for the whole run is created by {@link CostPlanListener} from all tests of the run.
+ * Without listener each test class is planned separately within the whole budget.
+ * Tests unknown to the plan (for example if runner reports tests lazily and description of the run is empty)
+ * are never skipped.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class CostPlanner {
+	public static final String BUDGET = "junit.cost.budget";
+
+	static final long EXACT_LIMIT = 20_000_000;
+	static final long EXACT_CAPACITY = 1_000_000;
+
+	private static volatile Plan runPlan;
+	private static final Map<Class<?>, Plan> CLASS_PLANS = new ConcurrentHashMap<>();
+
+	private CostPlanner() {
+	}
+
+	/**
+	 * Selected tests with totals.
+	 */
+	public static final class Plan {
+		private final Set<String> planned;
+		private final Set<String> selected;
+		private final long budget;
+		private final long cost;
+		private final long value;
+		private final boolean exact;
+
+		Plan(Set<String> planned, Set<String> selected, long budget, long cost, long value, boolean exact) {
+			this.planned = planned;
+			this.selected = Collections.unmodifiableSet(selected);
+			this.budget = budget;
+			this.cost = cost;
+			this.value = value;
+			this.exact = exact;
+		}
+
+		/**
+		 * Check selection of test.
+		 *
+		 * @param description Test description
+		 * @return Is test selected, free or unknown to the plan?
+		 */
+		public boolean isSelected(Description description) {
+			if (cost(description) == 0) {
+				return true;
+			}
+			String id = TestId.of(description);
+			return selected.contains(id) || !planned.contains(id);
+		}
+
+		public Set<String> getSelected() {
+			return selected;
+		}
+
+		public long getBudget() {
+			return budget;
+		}
+
+		public long getCost() {
+			return cost;
+		}
+
+		public long getValue() {
+			return value;
+		}
+
+		/**
+		 * Is plan optimal?
+		 *
+		 * @return {@code true} if plan was found by exact algorithm, {@code false} for greedy approximation
+		 */
+		public boolean isExact() {
+			return exact;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+				Locale.ROOT, "%d tests with cost %d of budget %d and value %d (%s)",
+				selected.size(), cost, budget, value, exact ? "optimal" : "approximate"
+			);
+		}
+	}
+
+	/**
+	 * Configured budget.
+	 *
+	 * @return Budget if configured
+	 */
+	public static Optional<Long> budget() {
+		return Settings.find(BUDGET).map(__ -> Settings.findLong(BUDGET, 0));
+	}
+
+	static long cost(Description description) {
+		Cost cost = description.getAnnotation(Cost.class);
+		return cost != null ? cost.value() : 0;
+	}
+
+	static long value(Description description) {
+		Value value = description.getAnnotation(Value.class);
+		return value != null ? value.value() : 1;
+	}
+
+	/**
+	 * Plan selection of tests.
+	 *
+	 * @param tests  Tests
+	 * @param budget Budget of total cost
+	 * @return Plan
+	 */
+	public static Plan plan(Collection<Description> tests, long budget) {
+		return plan(tests, budget, EXACT_LIMIT);
+	}
+
+	static Plan plan(Collection<Description> tests, long budget, long exactLimit) {
+		if (budget < 0) {
+			throw new IllegalArgumentException(String.format("Value of '%s' must not be negative: %d", BUDGET, budget));
+		}
+		Set<String> planned = new HashSet<>();
+		List<Description> items = new ArrayList<>();
+		long remaining = budget;
+		boolean fit = true;
+		for (Description test : tests) {
+			long cost = cost(test);
+			long value = value(test);
+			if (cost < 0 || value < 0) {
+				throw new IllegalArgumentException(String.format("Cost and value of test %s must not be negative", TestId.of(test)));
+			}
+			planned.add(TestId.of(test));
+			if (cost > 0 && cost <= budget) {
+				items.add(test);
+				if (cost <= remaining) {
+					remaining -= cost;
+				} else {
+					fit = false;
+				}
+			}
+		}
+		//Checking of budget before multiplication also protects it from overflow
+		boolean exact = fit || budget < EXACT_CAPACITY && items.size() * (budget + 1) <= exactLimit;
+		List<Description> selected = fit ? items : exact ? exact(items, (int) budget) : greedy(items, budget);
+		Set<String> ids = new HashSet<>();
+		long cost = 0;
+		long value = 0;
+		for (Description test : selected) {
+			ids.add(TestId.of(test));
+			cost += cost(test);
+			value += value(test);
+		}
+		return new Plan(Collections.unmodifiableSet(planned), ids, budget, cost, value, exact);
+	}
+
+	/**
+	 * Dynamic programming over budget with one bit of choice per test and unit of budget.
+	 */
+	private static List<Description> exact(List<Description> items, int budget) {
+		long[] best = new long[budget + 1];
+		BitSet[] taken = new BitSet[items.size()];
+		for (int i = 0; i < items.size(); i++) {
+			int cost = (int) cost(items.get(i));
+			long value = value(items.get(i));
+			taken[i] = new BitSet(budget + 1);
+			for (int w = budget; w >= cost; w--) {
+				long candidate = best[w - cost] + value;
+				if (candidate > best[w]) {
+					best[w] = candidate;
+					taken[i].set(w);
+				}
+			}
+		}
+		List<Description> selected = new ArrayList<>();
+		int w = budget;
+		for (int i = items.size() - 1; i >= 0; i--) {
+			if (taken[i].get(w)) {
+				selected.add(items.get(i));
+				w -= (int) cost(items.get(i));
+			}
+		}
+		return selected;
+	}
+
+	private static List<Description> greedy(List<Description> items, long budget) {
+		List<Description> ordered = new ArrayList<>(items);
+		ordered.sort(Comparator.comparingDouble((Description test) -> (double) value(test) / cost(test)).reversed());
+		List<Description> selected = new ArrayList<>();
+		long left = budget;
+		long value = 0;
+		for (Description test : ordered) {
+			if (cost(test) <= left) {
+				selected.add(test);
+				left -= cost(test);
+				value += value(test);
+			}
+		}
+		Optional<Description> single = items.stream().max(Comparator.comparingLong(CostPlanner::value));
+		if (single.isPresent() && value(single.get()) > value) {
+			return Collections.singletonList(single.get());
+		}
+		return selected;
+	}
+
+	/**
+	 * Plan for the test: plan of the run if it is started with {@link CostPlanListener}
+	 * or plan of the test class otherwise.
+	 *
+	 * @param description Test description
+	 * @return Plan or empty if budget is not configured
+	 */
+	public static Optional<Plan> current(Description description) {
+		Plan plan = runPlan;
+		if (plan != null) {
+			return Optional.of(plan);
+		}
+		Class<?> testClass = description.getTestClass();
+		if (testClass == null) {
+			return Optional.empty();
+		}
+		return budget().map(budget -> CLASS_PLANS.computeIfAbsent(testClass, type -> plan(tests(type), budget)));
+	}
+
+	private static List<Description> tests(Class<?> type) {
+		List<Description> tests = new ArrayList<>();
+		for (FrameworkMethod method : new TestClass(type).getAnnotatedMethods(Test.class)) {
+			tests.add(Description.createTestDescription(type, method.getName(), method.getAnnotations()));
+		}
+		return tests;
+	}
+
+	static void startRun(Description root) {
+		CLASS_PLANS.clear();
+		runPlan = budget().map(budget -> plan(leaves(root, new ArrayList<>()), budget)).orElse(null);
+	}
+
+	static void finishRun() {
+		runPlan = null;
+		CLASS_PLANS.clear();
+	}
+
+	private static List<Description> leaves(Description description, List<Description> leaves) {
+		if (description.isTest()) {
+			leaves.add(description);
+		}
+		description.getChildren().forEach(child -> leaves(child, leaves));
+		return leaves;
+	}
+}
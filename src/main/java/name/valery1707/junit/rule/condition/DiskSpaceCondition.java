@@ -0,0 +1,64 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Skip test if usable space of file store of any path is less than required.
+ * <p>
+ * State of paths is cached for short time, see {@link FileStat}.
+ * Stores with unknown usable space are treated as not enough.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class TenGigabytesFree extends DiskSpaceCondition {
+ *     public TenGigabytesFree() {
+ *         super("10GB", "target", System.getProperty("java.io.tmpdir"));
+ *     }
+ * }
+ * }</pre>
+ */
+public class DiskSpaceCondition implements IgnoreCondition {
+	private final long minBytes;
+	private final List<String> paths;
+	private List<FileStat.Stat> insufficient = Collections.emptyList();
+
+	protected DiskSpaceCondition(String minSize, String... paths) {
+		this(FileStat.parseBytes(minSize), paths);
+	}
+
+	protected DiskSpaceCondition(long minBytes, String... paths) {
+		if (paths.length == 0) {
+			throw new IllegalArgumentException("Disk space condition requires at least one path");
+		}
+		if (minBytes < 0) {
+			throw new IllegalArgumentException("Required space must be non-negative: " + minBytes);
+		}
+		this.minBytes = minBytes;
+		this.paths = Arrays.asList(paths);
+	}
+
+	@Override
+	public boolean needSkip() {
+		insufficient = paths.stream()
+			.map(FileStat::stat)
+			.filter(stat -> stat.getUsableSpace() < minBytes)
+			.collect(Collectors.toList());
+		return !insufficient.isEmpty();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return insufficient.isEmpty()
+			? null
+			: insufficient.stream()
+			.map(stat -> stat.getPath() + " (usable " + FileStat.formatBytes(stat.getUsableSpace()) + ")")
+			.collect(Collectors.joining(", ", "Less than " + FileStat.formatBytes(minBytes) + " of usable space: ", ""));
+	}
+}
@@ -0,0 +1,24 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Expected duration of the test.
+ * <p>
+ * Has precedence over historical durations.
+ *
+ * @see TimeBudgetCondition
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface ExpectedDuration {
+	/**
+	 * Expected duration.
+	 *
+	 * @return Expected duration in milliseconds
+	 */
+	long value();
+}
@@ -0,0 +1,523 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition.Source;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition.StandardSource;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Boolean expression over environment values.
+ * <p>
+ * Syntax:
+ * <ul>
+ * <li>References: {@code env.NAME}, {@code env['NAME']} - environment variable,
+ * {@code prop.some.name}, {@code prop['some.name']} - system property, {@code cores} - count of available processors</li>
+ * <li>Literals: {@code 'text'}, {@code "text"}, {@code 42}, {@code 1.5}, {@code true}, {@code false}, {@code null}</li>
+ * <li>Comparison: {@code ==}, {@code !=} (numeric if both sides are numbers, textual otherwise),
+ * {@code <}, {@code <=}, {@code >}, {@code >=} (numeric, {@code false} for non numbers),
+ * {@code =~}, {@code !~} (find of regular expression from text literal)</li>
+ * <li>Logic: {@code &&}, {@code ||}, {@code !} and parentheses, {@code &&} and {@code ||} short-circuit</li>
+ * <li>Reference without comparison is {@code true} only if its value equals to {@code true} ignoring case</li>
+ * </ul>
+ * Example: {@code env.CI == 'true' && cores >= 8 && prop['db.url'] =~ 'pg'}.
+ * <p>
+ * Each distinct expression is parsed once per JVM into tree of nodes,
+ * evaluation of the tree does not allocate memory for standard sources.
+ * Instances are immutable and thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Expression {
+	private static final Map<String, Expression> CACHE = new ConcurrentHashMap<>();
+
+	private final String text;
+	private final Node root;
+
+	private Expression(String text, Node root) {
+		this.text = text;
+		this.root = root;
+	}
+
+	/**
+	 * Parse expression or reuse already parsed one.
+	 *
+	 * @param text Expression
+	 * @return Parsed expression
+	 * @throws IllegalArgumentException on syntax errors
+	 */
+	public static Expression compile(String text) {
+		Expression expression = CACHE.get(text);
+		if (expression == null) {
+			expression = new Expression(text, new Parser(text).parse());
+			Expression concurrent = CACHE.putIfAbsent(text, expression);
+			if (concurrent != null) {
+				expression = concurrent;
+			}
+		}
+		return expression;
+	}
+
+	/**
+	 * Evaluate expression with current environment.
+	 *
+	 * @return Result of expression
+	 */
+	public boolean evaluate() {
+		return root.test();
+	}
+
+	/**
+	 * Source text of expression.
+	 *
+	 * @return Source text
+	 */
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	/**
+	 * Parse decimal number without allocations.
+	 *
+	 * @param text Text
+	 * @return Number or {@link Double#NaN} if text is not a decimal number
+	 */
+	static double number(@Nullable String text) {
+		if (text == null || text.isEmpty()) {
+			return Double.NaN;
+		}
+		int length = text.length();
+		int i = 0;
+		boolean negative = false;
+		char first = text.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			i++;
+		}
+		double value = 0;
+		boolean digits = false;
+		for (; i < length && isDigit(text.charAt(i)); i++) {
+			value = value * 10 + (text.charAt(i) - '0');
+			digits = true;
+		}
+		if (i < length && text.charAt(i) == '.') {
+			double scale = 0.1;
+			for (i++; i < length && isDigit(text.charAt(i)); i++) {
+				value += (text.charAt(i) - '0') * scale;
+				scale /= 10;
+				digits = true;
+			}
+		}
+		if (!digits || i != length) {
+			return Double.NaN;
+		}
+		return negative ? -value : value;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private interface Node {
+		boolean test();
+	}
+
+	private interface Operand {
+		@Nullable
+		String text();
+
+		double number();
+	}
+
+	private static final class Literal implements Operand {
+		private final String text;
+		private final double number;
+
+		Literal(@Nullable String text) {
+			this.text = text;
+			this.number = Expression.number(text);
+		}
+
+		@Nullable
+		@Override
+		public String text() {
+			return text;
+		}
+
+		@Override
+		public double number() {
+			return number;
+		}
+	}
+
+	private static final class Reference implements Operand {
+		private final Source source;
+		private final String name;
+
+		Reference(Source source, String name) {
+			this.source = source;
+			this.name = name;
+		}
+
+		@Nullable
+		@Override
+		public String text() {
+			return source.get(name);
+		}
+
+		@Override
+		public double number() {
+			return Expression.number(text());
+		}
+	}
+
+	private static final class Cores implements Operand {
+		@Override
+		public String text() {
+			return Integer.toString(Runtime.getRuntime().availableProcessors());
+		}
+
+		@Override
+		public double number() {
+			return Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	private static final class Truthy implements Node {
+		private final Operand operand;
+
+		Truthy(Operand operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public boolean test() {
+			return "true".equalsIgnoreCase(operand.text());
+		}
+	}
+
+	private static final class Equals implements Node {
+		private final Operand left;
+		private final Operand right;
+		private final boolean negate;
+
+		Equals(Operand left, Operand right, boolean negate) {
+			this.left = left;
+			this.right = right;
+			this.negate = negate;
+		}
+
+		@Override
+		public boolean test() {
+			double l = left.number();
+			double r = right.number();
+			boolean equals = !Double.isNaN(l) && !Double.isNaN(r)
+				? l == r
+				: Objects.equals(left.text(), right.text());
+			return equals != negate;
+		}
+	}
+
+	private static final class Compare implements Node {
+		private final Operand left;
+		private final Operand right;
+		private final String operator;
+
+		Compare(Operand left, Operand right, String operator) {
+			this.left = left;
+			this.right = right;
+			this.operator = operator;
+		}
+
+		@Override
+		public boolean test() {
+			double l = left.number();
+			double r = right.number();
+			if (Double.isNaN(l) || Double.isNaN(r)) {
+				return false;
+			}
+			switch (operator) {
+				case "<":
+					return l < r;
+				case "<=":
+					return l <= r;
+				case ">":
+					return l > r;
+				case ">=":
+					return l >= r;
+				default:
+					throw new IllegalStateException("Unknown operator " + operator);
+			}
+		}
+	}
+
+	private static final class Match implements Node {
+		private final Operand operand;
+		private final ThreadLocal<Matcher> matcher;
+		private final boolean negate;
+
+		Match(Operand operand, Pattern pattern, boolean negate) {
+			this.operand = operand;
+			this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+			this.negate = negate;
+		}
+
+		@Override
+		public boolean test() {
+			String text = operand.text();
+			boolean found = text != null && matcher.get().reset(text).find();
+			return found != negate;
+		}
+	}
+
+	private static final class Not implements Node {
+		private final Node node;
+
+		Not(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		public boolean test() {
+			return !node.test();
+		}
+	}
+
+	private static final class And implements Node {
+		private final Node left;
+		private final Node right;
+
+		And(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public boolean test() {
+			return left.test() && right.test();
+		}
+	}
+
+	private static final class Or implements Node {
+		private final Node left;
+		private final Node right;
+
+		Or(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public boolean test() {
+			return left.test() || right.test();
+		}
+	}
+
+	/**
+	 * Recursive descent parser.
+	 */
+	private static final class Parser {
+		private static final String[] OPERATORS = {"==", "!=", "=~", "!~", "<=", ">=", "<", ">"};
+
+		private final String text;
+		private int pos;
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		Node parse() {
+			Node node = parseOr();
+			skipSpaces();
+			if (pos < text.length()) {
+				throw error("Unexpected '" + text.charAt(pos) + "'");
+			}
+			return node;
+		}
+
+		private Node parseOr() {
+			Node node = parseAnd();
+			while (consume("||")) {
+				node = new Or(node, parseAnd());
+			}
+			return node;
+		}
+
+		private Node parseAnd() {
+			Node node = parseUnary();
+			while (consume("&&")) {
+				node = new And(node, parseUnary());
+			}
+			return node;
+		}
+
+		private Node parseUnary() {
+			if (consume("!")) {
+				return new Not(parseUnary());
+			}
+			if (consume("(")) {
+				Node node = parseOr();
+				if (!consume(")")) {
+					throw error("Expected ')'");
+				}
+				return node;
+			}
+			return parseComparison();
+		}
+
+		private Node parseComparison() {
+			Operand left = parseOperand();
+			skipSpaces();
+			for (String operator : OPERATORS) {
+				if (text.startsWith(operator, pos)) {
+					pos += operator.length();
+					switch (operator) {
+						case "==":
+							return new Equals(left, parseOperand(), false);
+						case "!=":
+							return new Equals(left, parseOperand(), true);
+						case "=~":
+							return new Match(left, parsePattern(), false);
+						case "!~":
+							return new Match(left, parsePattern(), true);
+						default:
+							return new Compare(left, parseOperand(), operator);
+					}
+				}
+			}
+			return new Truthy(left);
+		}
+
+		private Pattern parsePattern() {
+			skipSpaces();
+			int start = pos;
+			String regexp = parseString();
+			try {
+				return Pattern.compile(regexp);
+			} catch (PatternSyntaxException e) {
+				pos = start;
+				throw error("Invalid pattern '" + regexp + "'");
+			}
+		}
+
+		private Operand parseOperand() {
+			skipSpaces();
+			if (pos >= text.length()) {
+				throw error("Unexpected end");
+			}
+			char c = text.charAt(pos);
+			if (c == '\'' || c == '"') {
+				return new Literal(parseString());
+			}
+			if (isDigit(c) || ((c == '-' || c == '+') && pos + 1 < text.length() && isDigit(text.charAt(pos + 1)))) {
+				int start = pos++;
+				while (pos < text.length() && (isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+					pos++;
+				}
+				return new Literal(text.substring(start, pos));
+			}
+			int start = pos;
+			String identifier = parseIdentifier();
+			switch (identifier) {
+				case "true":
+				case "false":
+					return new Literal(identifier);
+				case "null":
+					return new Literal(null);
+				case "cores":
+					return new Cores();
+				case "env":
+					return new Reference(StandardSource.Environment, parseName());
+				case "prop":
+					return new Reference(StandardSource.Properties, parseName());
+				default:
+					pos = start;
+					throw error("Unknown reference '" + identifier + "'");
+			}
+		}
+
+		private String parseIdentifier() {
+			int start = pos;
+			while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error("Unexpected '" + text.charAt(pos) + "'");
+			}
+			return text.substring(start, pos);
+		}
+
+		private String parseName() {
+			if (consume("[")) {
+				skipSpaces();
+				String name = parseString();
+				if (!consume("]")) {
+					throw error("Expected ']'");
+				}
+				return name;
+			}
+			if (pos >= text.length() || text.charAt(pos) != '.') {
+				throw error("Expected '.' or '['");
+			}
+			int start = ++pos;
+			while (pos < text.length() && isNameChar(text.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error("Expected name");
+			}
+			return text.substring(start, pos);
+		}
+
+		private static boolean isNameChar(char c) {
+			return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+		}
+
+		private String parseString() {
+			if (pos >= text.length() || (text.charAt(pos) != '\'' && text.charAt(pos) != '"')) {
+				throw error("Expected text literal");
+			}
+			char quote = text.charAt(pos++);
+			StringBuilder value = new StringBuilder();
+			while (pos < text.length()) {
+				char c = text.charAt(pos++);
+				if (c == quote) {
+					return value.toString();
+				}
+				if (c == '\\' && pos < text.length() && (text.charAt(pos) == quote || text.charAt(pos) == '\\')) {
+					c = text.charAt(pos++);
+				}
+				value.append(c);
+			}
+			throw error("Unterminated text literal");
+		}
+
+		private boolean consume(String token) {
+			skipSpaces();
+			if (text.startsWith(token, pos)) {
+				pos += token.length();
+				return true;
+			}
+			return false;
+		}
+
+		private void skipSpaces() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(String.format("Invalid expression '%s': %s at position %d", text, message, pos));
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip test if {@link Expression} is {@code true}.
+ *
+ * @see ConditionalIgnore#expression()
+ */
+public class ExpressionCondition implements IgnoreCondition {
+	private final Expression expression;
+
+	public ExpressionCondition(String expression) {
+		this(Expression.compile(expression));
+	}
+
+	public ExpressionCondition(Expression expression) {
+		this.expression = expression;
+	}
+
+	public Expression getExpression() {
+		return expression;
+	}
+
+	@Override
+	public boolean needSkip() {
+		return expression.evaluate();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return String.format("Expression '%s' is true", expression);
+	}
+}
@@ -0,0 +1,91 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run-scoped budget of failures.
+ * <p>
+ * Failures are counted by {@link FailFastListener}, tests are skipped by {@link FailFastCondition}
+ * when count of failures exceeds budget from {@value #BUDGET} (see {@link Settings} for lookup rules).
+ * Without configured budget tests are never skipped.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class FailFast {
+	public static final String BUDGET = "junit.failfast.budget";
+
+	/**
+	 * Count of failures kept for reporting.
+	 */
+	private static final int KEEP_FAILURES = 10;
+
+	private static final AtomicInteger FAILURES = new AtomicInteger();
+	private static final List<String> FIRST_FAILURES = new CopyOnWriteArrayList<>();
+
+	private FailFast() {
+	}
+
+	/**
+	 * Reset counters at the start of run.
+	 */
+	public static void reset() {
+		FAILURES.set(0);
+		FIRST_FAILURES.clear();
+	}
+
+	/**
+	 * Record failure of the test.
+	 *
+	 * @param description Failed test
+	 */
+	public static void failed(Description description) {
+		if (FAILURES.incrementAndGet() <= KEEP_FAILURES) {
+			FIRST_FAILURES.add(TestId.of(description));
+		}
+	}
+
+	/**
+	 * Count of failures in current run.
+	 *
+	 * @return Count of failures
+	 */
+	public static int getFailures() {
+		return FAILURES.get();
+	}
+
+	/**
+	 * Configured failure budget.
+	 *
+	 * @return Budget or {@link Integer#MAX_VALUE} if not configured
+	 */
+	public static int getBudget() {
+		return (int) Math.min(Integer.MAX_VALUE, Settings.findLong(BUDGET, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Check that count of failures exceeds budget.
+	 *
+	 * @return Is budget exhausted
+	 */
+	public static boolean isExhausted() {
+		return FAILURES.get() > getBudget();
+	}
+
+	/**
+	 * Description of exhausted budget with the first failures.
+	 *
+	 * @return Description
+	 */
+	public static String describe() {
+		int failures = FAILURES.get();
+		List<String> first = new ArrayList<>(FIRST_FAILURES);
+		return String.format(
+			"Failure budget %d is exhausted by %d failures: %s%s",
+			getBudget(), failures, String.join(", ", first), failures > first.size() ? ", ..." : ""
+		);
+	}
+}
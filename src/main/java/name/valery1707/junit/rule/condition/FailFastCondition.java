@@ -0,0 +1,27 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip tests after exhausting of failure budget.
+ * <p>
+ * Can be used as annotation condition or for all tests at once:
+ * {@code new ConditionalIgnoreRule(FailFastCondition.class)}.
+ *
+ * @see FailFast
+ * @see FailFastListener
+ */
+public class FailFastCondition implements IgnoreCondition {
+	@Override
+	public boolean needSkip() {
+		return FailFast.isExhausted();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return FailFast.describe();
+	}
+}
@@ -0,0 +1,31 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Count failures for {@link FailFast}.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.condition.FailFastListener</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class FailFastListener extends RunListener {
+	@Override
+	public void testRunStarted(Description description) {
+		FailFast.reset();
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		FailFast.failed(failure.getDescription());
+	}
+}
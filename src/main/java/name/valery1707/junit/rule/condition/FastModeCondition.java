@@ -0,0 +1,76 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.history.DurationHistories;
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.history.DurationRecorder;
+import name.valery1707.junit.rule.history.DurationStore;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Skip slow tests in fast mode.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #ENABLED} - enable fast mode, tests are never skipped without it</li>
+ * <li>{@value #THRESHOLD} - maximal 90th percentile of test duration in milliseconds, {@code 1000} by default</li>
+ * <li>{@value DurationStore#FILE} - path to store with durations recorded by {@link DurationRecorder},
+ * {@value DurationStore#DEFAULT_FILE} by default</li>
+ * </ul>
+ * <p>
+ * Store is loaded once per JVM, tests without history are never skipped.
+ */
+public class FastModeCondition implements IgnoreCondition, DescriptionAware {
+	public static final String ENABLED = "junit.fast";
+	public static final String THRESHOLD = "junit.fast.threshold";
+
+	private final boolean enabled;
+	private final long threshold;
+	private final DurationHistory history;
+	private Description description;
+
+	public FastModeCondition() {
+		this(Settings.findBoolean(ENABLED), Settings.findLong(THRESHOLD, 1000), DurationStore.configured());
+	}
+
+	protected FastModeCondition(boolean enabled, long threshold, Path store) {
+		this.enabled = enabled;
+		this.threshold = threshold;
+		this.history = enabled && Files.exists(store) ? DurationHistories.load(store) : DurationHistory.EMPTY;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public Decision evaluate() {
+		if (!enabled) {
+			return Decision.run();
+		}
+		long duration = history.duration(description);
+		return Decision.of(duration > threshold, () -> reason(duration));
+	}
+
+	@Override
+	public boolean needSkip() {
+		return evaluate().isSkip();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return reason(history.duration(description));
+	}
+
+	private String reason(long duration) {
+		return String.format("Fast mode: duration %d ms exceeds threshold %d ms", duration, threshold);
+	}
+}
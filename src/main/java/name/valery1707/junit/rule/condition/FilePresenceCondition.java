@@ -0,0 +1,64 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Skip test if any of files or directories is absent.
+ * <p>
+ * Paths ending with {@code /} must be directories, other paths can be either files or directories.
+ * State of paths is cached for short time, see {@link FileStat}.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class FixturesPresent extends FilePresenceCondition {
+ *     public FixturesPresent() {
+ *         super("src/test/data/large.csv", "src/test/data/images/");
+ *     }
+ * }
+ * }</pre>
+ */
+public class FilePresenceCondition implements IgnoreCondition {
+	private final List<String> paths;
+	private List<String> absent = Collections.emptyList();
+
+	protected FilePresenceCondition(String... paths) {
+		if (paths.length == 0) {
+			throw new IllegalArgumentException("File presence condition requires at least one path");
+		}
+		this.paths = Arrays.asList(paths);
+	}
+
+	@Override
+	public boolean needSkip() {
+		absent = paths.stream()
+			.map(FilePresenceCondition::describeAbsent)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toList());
+		return !absent.isEmpty();
+	}
+
+	@Nullable
+	private static String describeAbsent(String path) {
+		FileStat.Stat stat = FileStat.stat(path);
+		if (!stat.isExists()) {
+			return path + " (absent)";
+		}
+		if (path.endsWith("/") && !stat.isDirectory()) {
+			return path + " (file, directory expected)";
+		}
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return absent.isEmpty() ? null : "Absent in file system: " + String.join(", ", absent);
+	}
+}
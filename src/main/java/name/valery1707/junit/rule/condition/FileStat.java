@@ -0,0 +1,215 @@
+package name.valery1707.junit.rule.condition;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached state of file system paths.
+ * <p>
+ * Each path is stat'ed once (attributes and usable space of its {@link FileStore}) and result is cached
+ * during {@value #TTL} milliseconds (see {@link Settings} for lookup rules, {@code 1000} by default),
+ * so many tests checking the same path cost only one query to file system.
+ * Usable space of absent path is taken from the store of its nearest existing parent.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class FileStat {
+	/**
+	 * Time to live of cached state in milliseconds.
+	 */
+	public static final String TTL = "junit.files.ttl";
+
+	private static final Map<Path, Stat> CACHE = new ConcurrentHashMap<>();
+
+	private FileStat() {
+	}
+
+	/**
+	 * Observed state of one path.
+	 */
+	public static final class Stat {
+		private final Path path;
+		private final boolean exists;
+		private final boolean directory;
+		private final long usableSpace;
+		private final long totalSpace;
+		private final long observedAt;
+
+		Stat(Path path, boolean exists, boolean directory, long usableSpace, long totalSpace, long observedAt) {
+			this.path = path;
+			this.exists = exists;
+			this.directory = directory;
+			this.usableSpace = usableSpace;
+			this.totalSpace = totalSpace;
+			this.observedAt = observedAt;
+		}
+
+		public Path getPath() {
+			return path;
+		}
+
+		public boolean isExists() {
+			return exists;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * Usable space of store of path.
+		 *
+		 * @return Bytes available for this JVM or {@code -1} if unknown
+		 */
+		public long getUsableSpace() {
+			return usableSpace;
+		}
+
+		/**
+		 * Total space of store of path.
+		 *
+		 * @return Bytes or {@code -1} if unknown
+		 */
+		public long getTotalSpace() {
+			return totalSpace;
+		}
+
+		@Override
+		public String toString() {
+			return path + " (" + (exists ? (directory ? "directory" : "file") : "absent")
+				+ ", usable " + formatBytes(usableSpace) + " of " + formatBytes(totalSpace) + ")";
+		}
+	}
+
+	/**
+	 * Stat path or take cached state.
+	 *
+	 * @param path Path to file or directory
+	 * @return Observed state not older than {@value #TTL}
+	 */
+	public static Stat stat(String path) {
+		return stat(Paths.get(path));
+	}
+
+	/**
+	 * Stat path or take cached state.
+	 *
+	 * @param path Path to file or directory
+	 * @return Observed state not older than {@value #TTL}
+	 */
+	public static Stat stat(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+		long ttl = TimeUnit.MILLISECONDS.toNanos(Settings.findLong(TTL, 1000));
+		long now = System.nanoTime();
+		Stat cached = CACHE.get(key);
+		if (cached != null && now - cached.observedAt < ttl) {
+			return cached;
+		}
+		//Atomic per path: concurrent callers wait for single query of file system
+		return CACHE.compute(key, (file, current) ->
+			current != null && System.nanoTime() - current.observedAt < ttl ? current : read(file)
+		);
+	}
+
+	private static Stat read(Path path) {
+		BasicFileAttributes attributes = attributes(path);
+		FileStore store = store(path);
+		long usable = -1;
+		long total = -1;
+		if (store != null) {
+			try {
+				usable = store.getUsableSpace();
+				total = store.getTotalSpace();
+			} catch (IOException ignored) {
+				//Unknown space
+			}
+		}
+		return new Stat(path, attributes != null, attributes != null && attributes.isDirectory(), usable, total, System.nanoTime());
+	}
+
+	@Nullable
+	private static BasicFileAttributes attributes(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private static FileStore store(Path path) {
+		for (Path current = path; current != null; current = current.getParent()) {
+			try {
+				return Files.getFileStore(current);
+			} catch (IOException ignored) {
+				//Try parent
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Parse size with optional binary suffix: {@code 512}, {@code 64KB}, {@code 10MB}, {@code 2GB}, {@code 1TB}.
+	 *
+	 * @param size Text of size
+	 * @return Size in bytes
+	 * @throws IllegalArgumentException if size is invalid
+	 */
+	public static long parseBytes(String size) {
+		String text = size.trim().toUpperCase(Locale.ROOT);
+		int shift = 0;
+		String[] suffixes = {"TB", "GB", "MB", "KB"};
+		for (int i = 0; i < suffixes.length; i++) {
+			if (text.endsWith(suffixes[i])) {
+				shift = 10 * (suffixes.length - i);
+				text = text.substring(0, text.length() - 2).trim();
+				break;
+			}
+		}
+		if (shift == 0 && text.endsWith("B")) {
+			text = text.substring(0, text.length() - 1).trim();
+		}
+		try {
+			long value = Long.parseLong(text);
+			if (value < 0 || value > (Long.MAX_VALUE >> shift)) {
+				throw new IllegalArgumentException("Invalid size: " + size);
+			}
+			return value << shift;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid size: " + size, e);
+		}
+	}
+
+	/**
+	 * Format size with binary suffix.
+	 *
+	 * @param bytes Size in bytes
+	 * @return Text like {@code 512 B}, {@code 1.5 GB} or {@code unknown} for negative size
+	 */
+	public static String formatBytes(long bytes) {
+		if (bytes < 0) {
+			return "unknown";
+		}
+		if (bytes < 1024) {
+			return bytes + " B";
+		}
+		String[] suffixes = {"KB", "MB", "GB", "TB", "PB", "EB"};
+		int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+		return String.format(Locale.ROOT, "%.1f %s", bytes / (double) (1L << (10 * unit)), suffixes[unit - 1]);
+	}
+
+	/**
+	 * Forget all cached states.
+	 */
+	static void reset() {
+		CACHE.clear();
+	}
+}
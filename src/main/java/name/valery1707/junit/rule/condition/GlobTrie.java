@@ -0,0 +1,239 @@
+package name.valery1707.junit.rule.condition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Set of glob patterns compiled into trie.
+ * <p>
+ * Patterns can contain {@code *} which matches any sequence of chars (including empty)
+ * and {@code ?} which matches any single char.
+ * <p>
+ * Trie is matched as deterministic automaton which states (sets of trie nodes active after prefix of the text)
+ * are built lazily on first visit and cached together with their transitions and matched values.
+ * So after warming up matching costs {@code O(length of the text)} for any patterns (including infix and leading stars),
+ * does not depend on count of patterns and does not allocate for ASCII texts.
+ * Count of cached states is bounded by total length of distinct matched texts.
+ * <p>
+ * Not thread-safe while filling, after that it can be read concurrently.
+ *
+ * @param <T> Type of values associated with patterns
+ */
+@SuppressWarnings("WeakerAccess")
+public final class GlobTrie<T> {
+	private static final int ASCII = 128;
+
+	private final Node<T> root = new Node<>(0);
+	private int nodes = 1;
+	private int size;
+	/**
+	 * Cache of automaton states by set of identifiers of nodes, guarded by itself.
+	 */
+	private final Map<BitSet, State<T>> states = new HashMap<>();
+	private volatile State<T> start;
+
+	/**
+	 * Check that text contains wildcards.
+	 *
+	 * @param text Text for check
+	 * @return Is text is glob pattern
+	 */
+	public static boolean isGlob(String text) {
+		return text.indexOf('*') >= 0 || text.indexOf('?') >= 0;
+	}
+
+	/**
+	 * Add pattern.
+	 *
+	 * @param pattern Glob pattern
+	 * @param value   Value associated with pattern
+	 */
+	public void add(String pattern, T value) {
+		Node<T> node = root;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '*') {
+				//Consecutive stars are same as one
+				if (!node.isStar) {
+					if (node.star == null) {
+						node.star = new Node<>(nodes++);
+						node.star.isStar = true;
+					}
+					node = node.star;
+				}
+			} else if (c == '?') {
+				if (node.any == null) {
+					node.any = new Node<>(nodes++);
+				}
+				node = node.any;
+			} else {
+				node = node.children.computeIfAbsent(c, __ -> new Node<>(nodes++));
+			}
+		}
+		node.values.add(new Entry<>(size++, value));
+		//Automaton is built from scratch for new patterns
+		synchronized (states) {
+			states.clear();
+			start = null;
+		}
+	}
+
+	/**
+	 * Count of patterns.
+	 *
+	 * @return Count of patterns
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Values of all patterns which match text in order of patterns addition.
+	 *
+	 * @param text Text for match
+	 * @return Matched values, unmodifiable
+	 */
+	public List<T> match(String text) {
+		State<T> state = start();
+		for (int i = 0; i < text.length() && !state.nodes.isEmpty(); i++) {
+			state = next(state, text.charAt(i));
+		}
+		return state.values;
+	}
+
+	/**
+	 * Check that any pattern matches text.
+	 *
+	 * @param text Text for match
+	 * @return Is any pattern matches text
+	 */
+	public boolean matches(String text) {
+		return !match(text).isEmpty();
+	}
+
+	private State<T> start() {
+		State<T> state = start;
+		if (state == null) {
+			List<Node<T>> initial = new ArrayList<>();
+			closure(root, initial, new BitSet(nodes));
+			state = state(initial);
+			start = state;
+		}
+		return state;
+	}
+
+	private State<T> next(State<T> state, char c) {
+		State<T> next = c < ASCII ? state.ascii.get(c) : state.other.get(c);
+		if (next == null) {
+			next = state(transition(state, c));
+			if (c < ASCII) {
+				state.ascii.set(c, next);
+			} else {
+				state.other.put(c, next);
+			}
+		}
+		return next;
+	}
+
+	private List<Node<T>> transition(State<T> state, char c) {
+		List<Node<T>> next = new ArrayList<>();
+		BitSet visited = new BitSet(nodes);
+		for (Node<T> node : state.nodes) {
+			Node<T> child = node.children.get(c);
+			if (child != null) {
+				closure(child, next, visited);
+			}
+			if (node.any != null) {
+				closure(node.any, next, visited);
+			}
+			if (node.isStar) {
+				closure(node, next, visited);
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Canonical state for set of nodes: equal sets share transitions.
+	 */
+	private State<T> state(List<Node<T>> active) {
+		BitSet key = new BitSet(nodes);
+		for (Node<T> node : active) {
+			key.set(node.id);
+		}
+		synchronized (states) {
+			return states.computeIfAbsent(key, __ -> new State<>(active));
+		}
+	}
+
+	private static <T> void closure(Node<T> node, List<Node<T>> states, BitSet visited) {
+		if (!visited.get(node.id)) {
+			visited.set(node.id);
+			states.add(node);
+			if (node.star != null) {
+				closure(node.star, states, visited);
+			}
+		}
+	}
+
+	private static final class Node<T> {
+		private final int id;
+		private final Map<Character, Node<T>> children = new HashMap<>();
+		private final List<Entry<T>> values = new ArrayList<>(1);
+		private Node<T> star;
+		private Node<T> any;
+		private boolean isStar;
+
+		Node(int id) {
+			this.id = id;
+		}
+	}
+
+	/**
+	 * State of automaton: active nodes, values matched in this state and lazily filled transitions.
+	 */
+	private static final class State<T> {
+		private final List<Node<T>> nodes;
+		private final List<T> values;
+		private final AtomicReferenceArray<State<T>> ascii = new AtomicReferenceArray<>(ASCII);
+		private final Map<Character, State<T>> other = new ConcurrentHashMap<>();
+
+		State(List<Node<T>> nodes) {
+			this.nodes = nodes;
+			this.values = values(nodes);
+		}
+
+		private static <T> List<T> values(List<Node<T>> nodes) {
+			List<Entry<T>> matched = new ArrayList<>();
+			for (Node<T> node : nodes) {
+				matched.addAll(node.values);
+			}
+			if (matched.isEmpty()) {
+				return Collections.emptyList();
+			}
+			matched.sort(Comparator.comparingInt(entry -> entry.order));
+			List<T> values = new ArrayList<>(matched.size());
+			for (Entry<T> entry : matched) {
+				values.add(entry.value);
+			}
+			return Collections.unmodifiableList(values);
+		}
+	}
+
+	private static final class Entry<T> {
+		private final int order;
+		private final T value;
+
+		Entry(int order, T value) {
+			this.order = order;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package name.valery1707.junit.rule.condition;
+
+/**
+ * Speed factor of current machine relative to reference machine (fast developer laptop).
+ * <p>
+ * Factor is calibrated once per JVM by short CPU loop and by copying of large arrays (memory bandwidth),
+ * each measured as the best of several rounds to suppress noise. Calibration takes tens of milliseconds.
+ * The slower of both dimensions defines the factor, factor is never less than {@code 1}.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #FACTOR} - fixed factor instead of calibration, for example for pinning on CI</li>
+ * </ul>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class MachineSpeed {
+	public static final String FACTOR = "junit.speed.factor";
+
+	/**
+	 * Duration of CPU calibration on reference machine in nanoseconds.
+	 */
+	static final long CPU_REFERENCE = 6_000_000;
+	/**
+	 * Duration of memory calibration on reference machine in nanoseconds.
+	 */
+	static final long MEMORY_REFERENCE = 2_500_000;
+
+	private static final int ROUNDS = 5;
+	private static final int CPU_ITERATIONS = 2_000_000;
+	private static final int MEMORY_LONGS = 2 << 20;
+
+	private static volatile double factor;
+	@SuppressWarnings("unused")
+	private static volatile long sink;
+
+	private MachineSpeed() {
+	}
+
+	/**
+	 * Speed factor of current machine.
+	 *
+	 * @return Factor, {@code 2} means that machine is two times slower than reference one
+	 * @throws IllegalArgumentException if configured factor is invalid
+	 */
+	public static double factor() {
+		double value = factor;
+		if (value == 0) {
+			synchronized (MachineSpeed.class) {
+				value = factor;
+				if (value == 0) {
+					value = Settings.findDouble(FACTOR, 0);
+					if (Settings.find(FACTOR).isPresent() && !(value > 0)) {
+						throw new IllegalArgumentException(String.format("Value of '%s' must be positive: %s", FACTOR, value));
+					}
+					if (value == 0) {
+						value = calibrate();
+					}
+					factor = value;
+				}
+			}
+		}
+		return value;
+	}
+
+	static double calibrate() {
+		double cpu = (double) cpu() / CPU_REFERENCE;
+		double memory = (double) memory() / MEMORY_REFERENCE;
+		return Math.max(1, Math.max(cpu, memory));
+	}
+
+	private static long cpu() {
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			long x = 0x9E3779B97F4A7C15L;
+			for (int i = 0; i < CPU_ITERATIONS; i++) {
+				x ^= x << 13;
+				x ^= x >>> 7;
+				x ^= x << 17;
+				x *= 0xBF58476D1CE4E5B9L;
+			}
+			sink = x;
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	private static long memory() {
+		long[] source = new long[MEMORY_LONGS];
+		long[] target = new long[MEMORY_LONGS];
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			System.arraycopy(source, 0, target, 0, MEMORY_LONGS);
+			System.arraycopy(target, 0, source, 0, MEMORY_LONGS);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	/**
+	 * Scale duration declared for reference machine.
+	 *
+	 * @param millis Duration in milliseconds
+	 * @return Scaled duration in milliseconds
+	 */
+	public static long scale(long millis) {
+		return (long) Math.ceil(millis * factor());
+	}
+
+	static void reset() {
+		factor = 0;
+	}
+}
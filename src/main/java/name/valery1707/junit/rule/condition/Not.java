@@ -0,0 +1,32 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+/**
+ * Skip test if condition allows to run it and run test if condition requires to skip it.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class NotOnCi extends Not {
+ *     public NotOnCi() {
+ *         super(CiCondition.class);
+ *     }
+ * }
+ * }</pre>
+ */
+public class Not extends CompositeCondition {
+	public Not(IgnoreCondition condition) {
+		super(condition);
+	}
+
+	public Not(Class<? extends IgnoreCondition> condition) {
+		super(condition);
+	}
+
+	@Override
+	public Decision evaluate() {
+		IgnoreCondition condition = getConditions().get(0);
+		return Decision.of(!ConditionCost.needSkip(condition), () -> "Not " + condition.getClass().getSimpleName());
+	}
+}
@@ -0,0 +1,340 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of {@link SharedOutcome} conditions shared between test JVMs (for example forks of surefire).
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #FILE} - path to cache file, sharing is disabled if absent</li>
+ * <li>{@value #TTL} - time to live of outcome in seconds, {@code 600} by default</li>
+ * <li>{@value #FINGERPRINT} - additional text of environment fingerprint</li>
+ * </ul>
+ * <p>
+ * File is a memory mapped open addressing table of {@link #SLOTS} slots by {@link #SLOT_SIZE} bytes after header
+ * ({@link #MAGIC}, {@link #VERSION}):
+ * <ul>
+ * <li>{@code long} - key: hash of condition class mixed with fingerprint of environment, {@code 0} for empty slot</li>
+ * <li>{@code long} - time of evaluation in milliseconds</li>
+ * <li>{@code short} - {@code 1} for skip, {@code 0} for run</li>
+ * <li>{@code short} - length of reason in bytes, {@code -1} for absent reason</li>
+ * <li>{@code byte[]} - reason in UTF-8, truncated to {@link #REASON_SIZE} bytes</li>
+ * </ul>
+ * Fingerprint is calculated once per JVM from environment variables, OS, Java and user properties,
+ * so outcomes are shared only between JVMs with same environment.
+ * <p>
+ * First JVM which needs an outcome evaluates condition under file lock of the key and publishes outcome,
+ * other JVMs wait for the lock and read published outcome without evaluation.
+ * Inside JVM evaluation waits only for conditions with the same key (or region of lock),
+ * so slow condition does not block unrelated ones.
+ * Inside one JVM outcomes are memoized even without file, so condition is evaluated once per JVM
+ * for all test engines which use this cache ({@link name.valery1707.junit.rule.ConditionalIgnoreRule},
+ * {@link name.valery1707.junit.rule.jupiter.ConditionalIgnoreExtension}).
+ * Instances are thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class OutcomeCache {
+	public static final String FILE = "junit.outcome.cache";
+	public static final String TTL = "junit.outcome.ttl";
+	public static final String FINGERPRINT = "junit.outcome.fingerprint";
+
+	public static final int MAGIC = 0x4A344F43;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 8;
+	public static final int SLOTS = 1024;
+	public static final int SLOT_SIZE = 256;
+	public static final int REASON_SIZE = SLOT_SIZE - 20;
+
+	private static final long TABLE_SIZE = HEADER_SIZE + (long) SLOTS * SLOT_SIZE;
+	private static final String[] PROPERTIES = {"os.name", "os.arch", "os.version", "java.version", "java.vendor", "user.name", "user.dir"};
+	private static final Map<Path, OutcomeCache> CACHES = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, CompletableFuture<Decision>> MEMO = new ConcurrentHashMap<>();
+	private static volatile Long fingerprint;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer table;
+	private final Map<Class<?>, CompletableFuture<Decision>> local = new ConcurrentHashMap<>();
+	/**
+	 * File locks are held per JVM, so threads of one JVM are serialized by monitors before locking:
+	 * per region of key and for the whole table.
+	 */
+	private final Object[] regions = new Object[SLOTS];
+	private final Object tableMonitor = new Object();
+
+	private OutcomeCache(FileChannel channel, MappedByteBuffer table) {
+		this.channel = channel;
+		this.table = table;
+		for (int i = 0; i < regions.length; i++) {
+			regions[i] = new Object();
+		}
+	}
+
+	/**
+	 * Evaluate condition with sharing of outcome if condition is {@link SharedOutcome} and cache is configured.
+	 * Reason of shared skipping outcome is computed eagerly for publishing, otherwise it stays lazy.
+	 *
+	 * @param condition Condition
+	 * @return Decision
+	 */
+	public static Decision evaluate(IgnoreCondition condition) {
+		if (!condition.getClass().isAnnotationPresent(SharedOutcome.class)) {
+			return probe(condition);
+		}
+		if (condition instanceof DescriptionAware) {
+			throw new IllegalArgumentException(String.format(
+				"Condition %s depends on test and can not be marked with @%s",
+				condition.getClass().getName(), SharedOutcome.class.getSimpleName()
+			));
+		}
+		return Settings.findPath(FILE)
+			.map(path -> CACHES.computeIfAbsent(path.toAbsolutePath(), OutcomeCache::open))
+			.map(cache -> cache.shared(condition))
+			.orElseGet(() -> once(MEMO, condition, () -> probe(condition)));
+	}
+
+	/**
+	 * Evaluate condition once per map: concurrent callers wait for single evaluation without blocking other conditions.
+	 */
+	private static Decision once(
+		Map<Class<?>, CompletableFuture<Decision>> memo, IgnoreCondition condition, Supplier<Decision> evaluation
+	) {
+		CompletableFuture<Decision> future = memo.get(condition.getClass());
+		if (future == null) {
+			CompletableFuture<Decision> created = new CompletableFuture<>();
+			future = memo.putIfAbsent(condition.getClass(), created);
+			if (future == null) {
+				try {
+					created.complete(evaluation.get());
+				} catch (RuntimeException | Error e) {
+					//Failed evaluation is not memoized
+					memo.remove(condition.getClass(), created);
+					created.completeExceptionally(e);
+					throw e;
+				}
+				future = created;
+			}
+		}
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	private static Decision probe(IgnoreCondition condition) {
+		return ConditionCost.evaluate(condition);
+	}
+
+	private static OutcomeCache open(Path path) {
+		try {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			FileLock lock = channel.lock(0, TABLE_SIZE, false);
+			try {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				channel.read(header, 0);
+				header.flip();
+				if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+					ByteBuffer empty = ByteBuffer.allocate((int) TABLE_SIZE);
+					empty.putInt(MAGIC).putInt(VERSION);
+					empty.flip();
+					empty.limit(empty.capacity());
+					channel.truncate(0);
+					channel.write(empty, 0);
+				}
+			} finally {
+				lock.release();
+			}
+			return new OutcomeCache(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, TABLE_SIZE));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Decision shared(IgnoreCondition condition) {
+		return once(local, condition, () -> exchange(key(condition.getClass()), condition));
+	}
+
+	/**
+	 * Lock region beyond table for the key, read published outcome or evaluate and publish new one.
+	 */
+	private Decision exchange(long key, IgnoreCondition condition) {
+		long ttl = TimeUnit.SECONDS.toMillis(Settings.findLong(TTL, 600));
+		int region = (int) (key & (SLOTS - 1));
+		synchronized (regions[region]) {
+			try {
+				FileLock lock = channel.lock(TABLE_SIZE + region, 1, false);
+				try {
+					Decision outcome = read(key, System.currentTimeMillis() - ttl);
+					if (outcome == null) {
+						outcome = probe(condition);
+						write(key, outcome);
+					}
+					return outcome;
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Nullable
+	private Decision read(long key, long notBefore) throws IOException {
+		synchronized (tableMonitor) {
+			return readLocked(key, notBefore);
+		}
+	}
+
+	@Nullable
+	private Decision readLocked(long key, long notBefore) throws IOException {
+		FileLock lock = channel.lock(0, TABLE_SIZE, true);
+		try {
+			int slot = find(key);
+			if (slot < 0 || table.getLong(slot) != key || table.getLong(slot + 8) < notBefore) {
+				return null;
+			}
+			boolean skip = table.getShort(slot + 16) != 0;
+			int length = table.getShort(slot + 18);
+			if (length < 0) {
+				return skip ? Decision.skip(null) : Decision.run();
+			}
+			byte[] reason = new byte[length];
+			for (int i = 0; i < length; i++) {
+				reason[i] = table.get(slot + 20 + i);
+			}
+			return skip ? Decision.skip(new String(reason, StandardCharsets.UTF_8)) : Decision.run();
+		} finally {
+			lock.release();
+		}
+	}
+
+	private void write(long key, Decision outcome) throws IOException {
+		synchronized (tableMonitor) {
+			writeLocked(key, outcome);
+		}
+	}
+
+	private void writeLocked(long key, Decision outcome) throws IOException {
+		FileLock lock = channel.lock(0, TABLE_SIZE, false);
+		try {
+			int slot = find(key);
+			if (slot < 0) {
+				//Table is full: outcome is only memoized inside JVM
+				return;
+			}
+			byte[] reason = outcome.getReason() == null ? null : outcome.getReason().getBytes(StandardCharsets.UTF_8);
+			int length = reason == null ? -1 : truncate(reason);
+			table.putLong(slot + 8, System.currentTimeMillis());
+			table.putShort(slot + 16, (short) (outcome.isSkip() ? 1 : 0));
+			table.putShort(slot + 18, (short) length);
+			for (int i = 0; i < length; i++) {
+				table.put(slot + 20 + i, reason[i]);
+			}
+			table.putLong(slot, key);
+			table.force();
+		} finally {
+			lock.release();
+		}
+	}
+
+	/**
+	 * Length of UTF-8 bytes fitting into slot without splitting of multibyte character.
+	 */
+	private static int truncate(byte[] reason) {
+		if (reason.length <= REASON_SIZE) {
+			return reason.length;
+		}
+		int length = REASON_SIZE;
+		while (length > 0 && (reason[length] & 0xC0) == 0x80) {
+			length--;
+		}
+		return length;
+	}
+
+	/**
+	 * Offset of slot with the key or first empty slot in probe sequence, {@code -1} if table is full.
+	 */
+	private int find(long key) {
+		int start = (int) (key & (SLOTS - 1));
+		for (int i = 0; i < SLOTS; i++) {
+			int slot = HEADER_SIZE + ((start + i) & (SLOTS - 1)) * SLOT_SIZE;
+			long current = table.getLong(slot);
+			if (current == key || current == 0) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	static long key(Class<?> condition) {
+		long key = TestId.mix(TestId.hash(condition.getName()) ^ fingerprint());
+		return key != 0 ? key : 1;
+	}
+
+	/**
+	 * Fingerprint of current environment, calculated once per JVM.
+	 *
+	 * @return Hash of environment variables, main system properties and {@value #FINGERPRINT}
+	 */
+	static long fingerprint() {
+		Long value = fingerprint;
+		if (value == null) {
+			value = calculateFingerprint();
+			fingerprint = value;
+		}
+		return value;
+	}
+
+	private static long calculateFingerprint() {
+		StringBuilder text = new StringBuilder();
+		new TreeMap<>(System.getenv()).forEach((name, value) -> text.append(name).append('=').append(value).append('\n'));
+		Arrays.stream(PROPERTIES).forEach(name -> text.append(name).append('=').append(System.getProperty(name)).append('\n'));
+		Optional<String> additional = Settings.find(FINGERPRINT);
+		additional.ifPresent(text::append);
+		return TestId.hash(text);
+	}
+
+	/**
+	 * Forget memoized outcomes and close opened files.
+	 */
+	public static void reset() {
+		CACHES.values().forEach(cache -> {
+			try {
+				cache.channel.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		CACHES.clear();
+		MEMO.clear();
+		fingerprint = null;
+	}
+}
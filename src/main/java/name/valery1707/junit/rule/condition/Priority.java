@@ -0,0 +1,24 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Priority of the test: tests with bigger priority are skipped later.
+ * <p>
+ * Tests without annotation have priority {@code 0}.
+ *
+ * @see TimeBudgetCondition
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Priority {
+	/**
+	 * Priority of the test.
+	 *
+	 * @return Priority of the test
+	 */
+	int value();
+}
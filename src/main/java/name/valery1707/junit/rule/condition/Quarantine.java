@@ -0,0 +1,147 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * List of quarantined (flaky) tests.
+ * <p>
+ * File {@value #FILE} (see {@link Settings} for lookup rules) contains one entry per line:
+ * <ul>
+ * <li>{@code com.example.SomeTest#method} - exact test</li>
+ * <li>{@code com.example.SomeTest} - all tests of class</li>
+ * <li>{@code com.example.slow.*}, {@code com.example.*Test#test?} - glob patterns, see {@link GlobTrie}</li>
+ * </ul>
+ * Empty lines and lines starting with {@code #} or {@code //} are ignored.
+ * <p>
+ * Exact entries are kept in hashed set, globs are compiled into trie.
+ * File is loaded once and reloaded only after change of its modification time.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Quarantine {
+	public static final String FILE = "junit.quarantine";
+
+	private static final Map<Path, Quarantine> CACHE = new ConcurrentHashMap<>();
+
+	private final Path path;
+	private final FileTime modified;
+	private final Set<String> exact;
+	private final GlobTrie<String> globs;
+
+	private Quarantine(Path path, FileTime modified, Set<String> exact, GlobTrie<String> globs) {
+		this.path = path;
+		this.modified = modified;
+		this.exact = exact;
+		this.globs = globs;
+	}
+
+	/**
+	 * Quarantine configured by current environment.
+	 *
+	 * @return Loaded quarantine or Empty if it is not configured
+	 * @throws UncheckedIOException on read errors
+	 */
+	public static Optional<Quarantine> current() {
+		return Settings.findPath(FILE).map(Quarantine::load);
+	}
+
+	/**
+	 * Load quarantine or reuse already loaded if file is not modified.
+	 *
+	 * @param path Path to file
+	 * @return Loaded quarantine
+	 * @throws UncheckedIOException on read errors
+	 */
+	public static Quarantine load(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+		try {
+			FileTime modified = Files.getLastModifiedTime(key);
+			Quarantine cached = CACHE.get(key);
+			if (cached != null && cached.modified.equals(modified)) {
+				return cached;
+			}
+			return CACHE.compute(key, (file, current) -> {
+				if (current != null && current.modified.equals(modified)) {
+					return current;
+				}
+				try {
+					return read(file, modified);
+				} catch (IOException e) {
+					throw new UncheckedIOException("Fail to read quarantine from " + path, e);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to read quarantine from " + path, e);
+		}
+	}
+
+	private static Quarantine read(Path path, FileTime modified) throws IOException {
+		List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+		Set<String> exact = new HashSet<>(lines.size() * 2);
+		GlobTrie<String> globs = new GlobTrie<>();
+		for (String line : lines) {
+			String entry = line.trim();
+			if (entry.isEmpty() || entry.startsWith("#") || entry.startsWith("//")) {
+				continue;
+			}
+			if (GlobTrie.isGlob(entry)) {
+				globs.add(entry, entry);
+			} else if (entry.indexOf('#') < 0) {
+				globs.add(entry + "#*", entry);
+			} else {
+				exact.add(entry);
+			}
+		}
+		return new Quarantine(path, modified, exact, globs);
+	}
+
+	/**
+	 * Entry of quarantine which matches the test.
+	 *
+	 * @param description Test description
+	 * @return Matched entry or {@code null}
+	 */
+	@Nullable
+	public String find(Description description) {
+		String id = TestId.of(description);
+		if (exact.contains(id)) {
+			return id;
+		}
+		if (globs.size() == 0) {
+			return null;
+		}
+		List<String> matched = globs.match(id);
+		return matched.isEmpty() ? null : matched.get(0);
+	}
+
+	/**
+	 * Path to quarantine file.
+	 *
+	 * @return Path to file
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Count of entries.
+	 *
+	 * @return Count of entries
+	 */
+	public int size() {
+		return exact.size() + globs.size();
+	}
+}
@@ -0,0 +1,43 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip quarantined tests.
+ * <p>
+ * Most useful for all tests at once: {@code new ConditionalIgnoreRule(QuarantineCondition.class)}.
+ *
+ * @see Quarantine
+ */
+public class QuarantineCondition implements IgnoreCondition, DescriptionAware {
+	private final Quarantine quarantine;
+	private String entry;
+
+	public QuarantineCondition() {
+		this(Quarantine.current().orElse(null));
+	}
+
+	protected QuarantineCondition(@Nullable Quarantine quarantine) {
+		this.quarantine = quarantine;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.entry = quarantine != null ? quarantine.find(description) : null;
+	}
+
+	@Override
+	public boolean needSkip() {
+		return entry != null;
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return String.format("Test is quarantined by '%s' in %s", entry, quarantine != null ? quarantine.getPath() : null);
+	}
+}
@@ -0,0 +1,229 @@
+package name.valery1707.junit.rule.condition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reachability of TCP endpoints.
+ * <p>
+ * All endpoints are probed concurrently by non-blocking connects of {@link SocketChannel} under one {@link Selector}
+ * with common deadline, so probe of any count of endpoints takes at most timeout.
+ * Resolving of host names is blocking and is not limited by timeout.
+ * <p>
+ * Results are cached per endpoint for the whole JVM: each endpoint is probed only once
+ * even if it is requested from several threads simultaneously.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Reachability {
+	/**
+	 * Default timeout of probe in milliseconds.
+	 */
+	public static final String TIMEOUT = "junit.reachability.timeout";
+
+	private static final Map<String, CompletableFuture<Result>> CACHE = new ConcurrentHashMap<>();
+
+	private Reachability() {
+	}
+
+	/**
+	 * Result of probe of one endpoint.
+	 */
+	public static final class Result {
+		private final String endpoint;
+		private final boolean reachable;
+		private final String detail;
+
+		Result(String endpoint, boolean reachable, String detail) {
+			this.endpoint = endpoint;
+			this.reachable = reachable;
+			this.detail = detail;
+		}
+
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		public boolean isReachable() {
+			return reachable;
+		}
+
+		/**
+		 * Details of result.
+		 *
+		 * @return Text like {@code connected}, {@code timeout 1000 ms} or error message
+		 */
+		public String getDetail() {
+			return detail;
+		}
+
+		@Override
+		public String toString() {
+			return endpoint + " (" + detail + ")";
+		}
+	}
+
+	/**
+	 * Probe endpoints or take cached results.
+	 *
+	 * @param endpoints     Endpoints in format {@code host:port} or {@code [ipv6]:port}
+	 * @param timeoutMillis Timeout of probe for not cached endpoints
+	 * @return Results in order of endpoints
+	 */
+	public static List<Result> probe(Collection<String> endpoints, long timeoutMillis) {
+		Map<String, CompletableFuture<Result>> owned = new LinkedHashMap<>();
+		List<CompletableFuture<Result>> futures = new ArrayList<>(endpoints.size());
+		for (String endpoint : endpoints) {
+			CompletableFuture<Result> future = CACHE.get(endpoint);
+			if (future == null) {
+				CompletableFuture<Result> created = new CompletableFuture<>();
+				future = CACHE.putIfAbsent(endpoint, created);
+				if (future == null) {
+					future = created;
+					owned.put(endpoint, created);
+				}
+			}
+			futures.add(future);
+		}
+		if (!owned.isEmpty()) {
+			try {
+				connect(owned, timeoutMillis);
+			} finally {
+				//Unexpected failure must not leave waiting futures
+				owned.forEach((endpoint, future) -> future.complete(new Result(endpoint, false, "probe failed")));
+			}
+		}
+		List<Result> results = new ArrayList<>(futures.size());
+		futures.forEach(future -> results.add(future.join()));
+		return results;
+	}
+
+	private static void connect(Map<String, CompletableFuture<Result>> endpoints, long timeoutMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		try (Selector selector = Selector.open()) {
+			endpoints.forEach((endpoint, future) -> start(selector, endpoint, future));
+			while (!selector.keys().isEmpty()) {
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					break;
+				}
+				selector.select(remaining);
+				for (SelectionKey key : selector.selectedKeys()) {
+					finish(key);
+				}
+				selector.selectedKeys().clear();
+			}
+			for (SelectionKey key : selector.keys()) {
+				complete(key, false, "timeout " + timeoutMillis + " ms");
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void start(Selector selector, String endpoint, CompletableFuture<Result> future) {
+		SocketChannel channel = null;
+		try {
+			InetSocketAddress parsed = parse(endpoint);
+			InetSocketAddress address = new InetSocketAddress(parsed.getHostString(), parsed.getPort());
+			if (address.isUnresolved()) {
+				future.complete(new Result(endpoint, false, "unknown host"));
+				return;
+			}
+			channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			if (channel.connect(address)) {
+				future.complete(new Result(endpoint, true, "connected"));
+				channel.close();
+			} else {
+				channel.register(selector, SelectionKey.OP_CONNECT, new Pending(endpoint, future));
+			}
+		} catch (IOException e) {
+			future.complete(new Result(endpoint, false, String.valueOf(e.getMessage())));
+			close(channel);
+		}
+	}
+
+	private static void finish(SelectionKey key) {
+		try {
+			if (((SocketChannel) key.channel()).finishConnect()) {
+				complete(key, true, "connected");
+			}
+		} catch (IOException e) {
+			complete(key, false, String.valueOf(e.getMessage()));
+		}
+	}
+
+	private static void complete(SelectionKey key, boolean reachable, String detail) {
+		Pending pending = (Pending) key.attachment();
+		key.cancel();
+		close((SocketChannel) key.channel());
+		pending.future.complete(new Result(pending.endpoint, reachable, detail));
+	}
+
+	private static final class Pending {
+		private final String endpoint;
+		private final CompletableFuture<Result> future;
+
+		Pending(String endpoint, CompletableFuture<Result> future) {
+			this.endpoint = endpoint;
+			this.future = future;
+		}
+	}
+
+	private static void close(SocketChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+				//Nothing to do
+			}
+		}
+	}
+
+	/**
+	 * Parse endpoint without resolving of host.
+	 *
+	 * @param endpoint Endpoint in format {@code host:port} or {@code [ipv6]:port}
+	 * @return Unresolved address
+	 * @throws IllegalArgumentException if endpoint is invalid
+	 */
+	public static InetSocketAddress parse(String endpoint) {
+		int separator = endpoint.lastIndexOf(':');
+		if (separator <= 0 || separator == endpoint.length() - 1) {
+			throw new IllegalArgumentException(String.format("Invalid endpoint '%s': expected 'host:port'", endpoint));
+		}
+		String host = endpoint.substring(0, separator);
+		if (host.startsWith("[") && host.endsWith("]")) {
+			host = host.substring(1, host.length() - 1);
+		}
+		int port;
+		try {
+			port = Integer.parseInt(endpoint.substring(separator + 1));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid port in endpoint '%s'", endpoint), e);
+		}
+		if (port < 1 || port > 0xFFFF) {
+			throw new IllegalArgumentException(String.format("Invalid port in endpoint '%s'", endpoint));
+		}
+		return InetSocketAddress.createUnresolved(host, port);
+	}
+
+	/**
+	 * Forget cached results.
+	 */
+	public static void reset() {
+		CACHE.clear();
+	}
+}
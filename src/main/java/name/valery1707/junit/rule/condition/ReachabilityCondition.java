@@ -0,0 +1,60 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Skip test if any of endpoints is not reachable by TCP.
+ * <p>
+ * Endpoints are probed concurrently with common timeout and results are cached for the whole JVM,
+ * see {@link Reachability}. Timeout is {@value Reachability#TIMEOUT} (see {@link Settings} for lookup rules),
+ * {@code 1000} milliseconds by default.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public static class DatabaseAvailable extends ReachabilityCondition {
+ *     public DatabaseAvailable() {
+ *         super("localhost:5432", "localhost:6379");
+ *     }
+ * }
+ * }</pre>
+ */
+public class ReachabilityCondition implements IgnoreCondition {
+	private final List<String> endpoints;
+	private final long timeoutMillis;
+	private List<Reachability.Result> unreachable = Collections.emptyList();
+
+	protected ReachabilityCondition(String... endpoints) {
+		this(Settings.findLong(Reachability.TIMEOUT, 1000), endpoints);
+	}
+
+	protected ReachabilityCondition(long timeoutMillis, String... endpoints) {
+		if (endpoints.length == 0) {
+			throw new IllegalArgumentException("Reachability condition requires at least one endpoint");
+		}
+		Arrays.stream(endpoints).forEach(Reachability::parse);
+		this.endpoints = Arrays.asList(endpoints);
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	public boolean needSkip() {
+		unreachable = Reachability.probe(endpoints, timeoutMillis).stream()
+			.filter(result -> !result.isReachable())
+			.collect(Collectors.toList());
+		return !unreachable.isEmpty();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return unreachable.isEmpty()
+			? null
+			: unreachable.stream().map(Reachability.Result::toString).collect(Collectors.joining(", ", "Unreachable: ", ""));
+	}
+}
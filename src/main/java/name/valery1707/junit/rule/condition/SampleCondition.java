@@ -0,0 +1,42 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip tests which are not selected into reproducible random sample.
+ *
+ * @see Sampling
+ * @see SamplingListener
+ */
+public class SampleCondition implements IgnoreCondition, DescriptionAware {
+	private final Sampling sampling;
+	private Description description;
+
+	public SampleCondition() {
+		this(Sampling.current());
+	}
+
+	protected SampleCondition(Sampling sampling) {
+		this.sampling = sampling;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public boolean needRun() {
+		return sampling.accept(description);
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return "Test is not selected into " + sampling;
+	}
+}
@@ -0,0 +1,198 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reproducible random sampling of tests.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #PERCENT} - percent of tests to run, sampling is disabled if absent</li>
+ * <li>{@value #SEED} - seed of sampling, {@code 0} by default</li>
+ * <li>{@value #MIN_PER_CLASS} - minimal count of tests to run in each class, {@code 1} by default</li>
+ * </ul>
+ * <p>
+ * Each test gets score from {@link TestId#hash(Description) hash of identity} and seed, so selection is stable
+ * for the same seed and does not depend on order or count of executed tests.
+ * Minimal count per class is guaranteed among methods annotated with {@link SampleCondition},
+ * or among all test methods of class if none is annotated (condition is applied by rule for all tests).
+ * <p>
+ * Effective ratio of sampled tests is collected per JVM and can be reported by {@link SamplingListener}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Sampling {
+	public static final String PERCENT = "junit.sample.percent";
+	public static final String SEED = "junit.sample.seed";
+	public static final String MIN_PER_CLASS = "junit.sample.min.per.class";
+
+	private static final double UNIT = 0x1.0p-53;
+	private static final Map<String, Double> CLASS_THRESHOLDS = new ConcurrentHashMap<>();
+	private static final LongAdder EVALUATED = new LongAdder();
+	private static final LongAdder SELECTED = new LongAdder();
+
+	private final double percent;
+	private final long seed;
+	private final int minPerClass;
+
+	Sampling(double percent, long seed, int minPerClass) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException(String.format("Sample percent must be in [0, 100] but was %s", percent));
+		}
+		this.percent = percent;
+		this.seed = seed;
+		this.minPerClass = Math.max(0, minPerClass);
+	}
+
+	/**
+	 * Sampling configured by current environment.
+	 *
+	 * @return Configured sampling
+	 * @throws IllegalArgumentException on invalid configuration
+	 */
+	public static Sampling current() {
+		return new Sampling(
+			Settings.findDouble(PERCENT, 100),
+			Settings.findLong(SEED, 0),
+			(int) Settings.findLong(MIN_PER_CLASS, 1)
+		);
+	}
+
+	/**
+	 * Score of the test in {@code [0, 1)}.
+	 *
+	 * @param className  Test class name
+	 * @param methodName Test method name
+	 * @return Score of test
+	 */
+	double score(String className, String methodName) {
+		long mixed = TestId.mix(TestId.hash(TestId.of(className, methodName)) ^ TestId.mix(seed));
+		return (mixed >>> 11) * UNIT;
+	}
+
+	/**
+	 * Check that test is selected into sample and collect statistics.
+	 *
+	 * @param description Test description
+	 * @return Is test selected
+	 */
+	public boolean accept(Description description) {
+		boolean selected = percent >= 100 || isSelected(description);
+		EVALUATED.increment();
+		if (selected) {
+			SELECTED.increment();
+		}
+		return selected;
+	}
+
+	private boolean isSelected(Description description) {
+		double score = score(description.getClassName(), description.getMethodName());
+		return score < percent / 100 || score <= classThreshold(description);
+	}
+
+	/**
+	 * Maximal score which guarantee {@link #MIN_PER_CLASS} tests in class of test.
+	 */
+	private double classThreshold(Description description) {
+		Class<?> type = description.getTestClass();
+		if (minPerClass == 0 || type == null) {
+			return -1;
+		}
+		return CLASS_THRESHOLDS.computeIfAbsent(type.getName() + '|' + seed + '|' + minPerClass, __ -> {
+			List<FrameworkMethod> methods = candidates(type);
+			double[] scores = new double[methods.size()];
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] = score(type.getName(), methods.get(i).getName());
+			}
+			Arrays.sort(scores);
+			return scores.length == 0 ? -1 : scores[Math.min(minPerClass, scores.length) - 1];
+		});
+	}
+
+	/**
+	 * Test methods of class which are sampled.
+	 */
+	private static List<FrameworkMethod> candidates(Class<?> type) {
+		List<FrameworkMethod> methods = new TestClass(type).getAnnotatedMethods(Test.class);
+		List<FrameworkMethod> annotated = methods.stream()
+			.filter(method -> Arrays.stream(method.getMethod().getAnnotationsByType(ConditionalIgnore.class))
+				.anyMatch(annotation -> SampleCondition.class.isAssignableFrom(annotation.condition())))
+			.collect(Collectors.toList());
+		return annotated.isEmpty() ? methods : annotated;
+	}
+
+	/**
+	 * Requested percent of tests to run.
+	 *
+	 * @return Requested percent
+	 */
+	public double getPercent() {
+		return percent;
+	}
+
+	/**
+	 * Seed of sampling.
+	 *
+	 * @return Seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Reset collected statistics.
+	 */
+	public static void resetStatistics() {
+		EVALUATED.reset();
+		SELECTED.reset();
+	}
+
+	/**
+	 * Count of tests checked by sampling.
+	 *
+	 * @return Count of checked tests
+	 */
+	public static long getEvaluated() {
+		return EVALUATED.sum();
+	}
+
+	/**
+	 * Count of tests selected by sampling.
+	 *
+	 * @return Count of selected tests
+	 */
+	public static long getSelected() {
+		return SELECTED.sum();
+	}
+
+	/**
+	 * Human readable report about effective sampling ratio.
+	 *
+	 * @return Report
+	 */
+	public String report() {
+		long evaluated = getEvaluated();
+		long selected = getSelected();
+		return String.format(
+			Locale.ROOT,
+			"Sampled %d of %d tests (%.1f%%, requested %.1f%%, seed %d)",
+			selected, evaluated, evaluated == 0 ? 0.0 : selected * 100.0 / evaluated, percent, seed
+		);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "sample %.1f%% with seed %d", percent, seed);
+	}
+}
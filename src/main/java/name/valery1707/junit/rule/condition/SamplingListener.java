@@ -0,0 +1,45 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+import java.io.PrintStream;
+
+/**
+ * Report effective ratio of {@link Sampling} at the end of run.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.condition.SamplingListener</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class SamplingListener extends RunListener {
+	private final PrintStream out;
+
+	public SamplingListener() {
+		this(System.out);
+	}
+
+	public SamplingListener(PrintStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void testRunStarted(Description description) {
+		Sampling.resetStatistics();
+	}
+
+	@Override
+	public void testRunFinished(Result result) {
+		if (Sampling.getEvaluated() > 0) {
+			out.println(Sampling.current().report());
+		}
+	}
+}
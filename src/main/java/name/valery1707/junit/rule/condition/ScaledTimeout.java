@@ -0,0 +1,23 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Timeout of the test on reference machine, scaled by {@link MachineSpeed#factor() speed factor} of current machine.
+ *
+ * @see name.valery1707.junit.rule.ScaledTimeoutRule
+ * @see ScaledTimeoutCondition
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface ScaledTimeout {
+	/**
+	 * Timeout on reference machine.
+	 *
+	 * @return Timeout in milliseconds
+	 */
+	long value();
+}
@@ -0,0 +1,39 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import java.util.Locale;
+
+/**
+ * Skip tests which {@link ScaledTimeout scaled timeout} exceeds maximum {@value #MAX} in milliseconds
+ * (see {@link Settings} for lookup rules): on too slow machine such tests are not meaningful.
+ * <p>
+ * Does not skip anything if maximum is not configured or test does not declare {@link ScaledTimeout}.
+ */
+public class ScaledTimeoutCondition implements IgnoreCondition, DescriptionAware {
+	public static final String MAX = "junit.timeout.max";
+
+	private Description description;
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public Decision evaluate() {
+		ScaledTimeout timeout = description.getAnnotation(ScaledTimeout.class);
+		long max = Settings.findLong(MAX, Long.MAX_VALUE);
+		if (timeout == null || max == Long.MAX_VALUE) {
+			return Decision.run();
+		}
+		long scaled = MachineSpeed.scale(timeout.value());
+		return Decision.of(scaled > max, () -> String.format(
+			Locale.ROOT, "Scaled timeout %d ms (%d ms with speed factor %.2f) exceeds maximum %d ms",
+			scaled, timeout.value(), MachineSpeed.factor(), max
+		));
+	}
+}
@@ -0,0 +1,104 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition.StandardSource;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Lookup of configuration values for built-in conditions.
+ * <p>
+ * Value is searched at first in system properties by the name as is and then in environment
+ * by the name in upper case with dots replaced by underscores:
+ * {@code junit.shard.index} is looked up as system property {@code junit.shard.index}
+ * and as environment variable {@code JUNIT_SHARD_INDEX}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Settings {
+	private Settings() {
+	}
+
+	/**
+	 * Find value by property name.
+	 *
+	 * @param name Property name
+	 * @return Value if exists or Empty
+	 */
+	public static Optional<String> find(String name) {
+		Optional<String> value = StandardSource.Properties.find(name);
+		if (!value.isPresent()) {
+			value = StandardSource.Environment.find(name.toUpperCase(Locale.ROOT).replace('.', '_'));
+		}
+		return value
+			.map(String::trim)
+			.filter(s -> !s.isEmpty());
+	}
+
+	/**
+	 * Find value by property name and parse it as {@code long}.
+	 *
+	 * @param name         Property name
+	 * @param defaultValue Value for missing property
+	 * @return Parsed value or {@code defaultValue}
+	 * @throws IllegalArgumentException if value exists but is not a number
+	 */
+	public static long findLong(String name, long defaultValue) {
+		return find(name)
+			.map(value -> parseLong(name, value))
+			.orElse(defaultValue);
+	}
+
+	/**
+	 * Find value by property name and parse it as {@code double}.
+	 *
+	 * @param name         Property name
+	 * @param defaultValue Value for missing property
+	 * @return Parsed value or {@code defaultValue}
+	 * @throws IllegalArgumentException if value exists but is not a number
+	 */
+	public static double findDouble(String name, double defaultValue) {
+		return find(name)
+			.map(value -> parseDouble(name, value))
+			.orElse(defaultValue);
+	}
+
+	/**
+	 * Find value by property name and parse it as {@code boolean}.
+	 *
+	 * @param name Property name
+	 * @return {@code true} only if value exists and equals to {@code true} ignoring case
+	 */
+	public static boolean findBoolean(String name) {
+		return find(name)
+			.map(Boolean::parseBoolean)
+			.orElse(false);
+	}
+
+	/**
+	 * Find value by property name and convert it into path.
+	 *
+	 * @param name Property name
+	 * @return Path if exists or Empty
+	 */
+	public static Optional<Path> findPath(String name) {
+		return find(name).map(Paths::get);
+	}
+
+	private static long parseLong(String name, String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Property '%s' has non numeric value '%s'", name, value), e);
+		}
+	}
+
+	private static double parseDouble(String name, String value) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Property '%s' has non numeric value '%s'", name, value), e);
+		}
+	}
+}
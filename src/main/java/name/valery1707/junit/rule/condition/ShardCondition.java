@@ -0,0 +1,42 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip tests which belong to other shards.
+ *
+ * @see Sharding
+ * @see ShardFilter
+ */
+public class ShardCondition implements IgnoreCondition, DescriptionAware {
+	private final Sharding sharding;
+	private Description description;
+
+	public ShardCondition() {
+		this(Sharding.current());
+	}
+
+	protected ShardCondition(Sharding sharding) {
+		this.sharding = sharding;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public boolean needRun() {
+		return sharding.accept(description);
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return String.format("Test belongs to shard %d but current is %s", sharding.shardOf(description), sharding);
+	}
+}
@@ -0,0 +1,41 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+
+/**
+ * Filter out tests which belong to other shards.
+ * <p>
+ * Unlike {@link ShardCondition} it works for all tests and removes them from run instead of skipping.
+ *
+ * @see Sharding
+ */
+public class ShardFilter extends Filter {
+	private final Sharding sharding;
+
+	public ShardFilter() {
+		this(Sharding.current());
+	}
+
+	protected ShardFilter(Sharding sharding) {
+		this.sharding = sharding;
+	}
+
+	@Override
+	public boolean shouldRun(Description description) {
+		if (description.isTest()) {
+			return sharding.accept(description);
+		}
+		for (Description child : description.getChildren()) {
+			if (shouldRun(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String describe() {
+		return sharding.toString();
+	}
+}
@@ -0,0 +1,152 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.history.DurationHistories;
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.history.LongLongMap;
+import org.junit.runner.Description;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deterministic splitting of tests between several shards (CI nodes).
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #INDEX} - zero-based index of current shard</li>
+ * <li>{@value #TOTAL} - count of shards, sharding is disabled if absent</li>
+ * <li>{@value #TIMINGS} - optional path to file with historical durations,
+ * see {@link DurationHistories} for supported formats</li>
+ * </ul>
+ * <p>
+ * Without timings test is assigned to shard by {@link TestId#hash(Description) hash of identity}.
+ * With timings all known tests are bin-packed between shards (longest first into the least loaded shard)
+ * so shards finish in roughly the same time, unknown tests are still assigned by hash.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Sharding {
+	public static final String INDEX = "junit.shard.index";
+	public static final String TOTAL = "junit.shard.total";
+	public static final String TIMINGS = "junit.shard.timings";
+
+	private static final Map<String, LongLongMap> ASSIGNMENTS = new ConcurrentHashMap<>();
+
+	private final int index;
+	private final int total;
+	private final LongLongMap assignment;
+
+	/**
+	 * Create sharding.
+	 *
+	 * @param index      Zero-based index of current shard
+	 * @param total      Count of shards
+	 * @param assignment Explicit assignment of tests to shards, can be {@code null}
+	 */
+	Sharding(int index, int total, LongLongMap assignment) {
+		if (total < 1) {
+			throw new IllegalArgumentException(String.format("Shard count must be positive but was %d", total));
+		}
+		if (index < 0 || index >= total) {
+			throw new IllegalArgumentException(String.format("Shard index must be in [0, %d) but was %d", total, index));
+		}
+		this.index = index;
+		this.total = total;
+		this.assignment = assignment;
+	}
+
+	/**
+	 * Sharding configured by current environment.
+	 *
+	 * @return Configured sharding
+	 * @throws IllegalArgumentException on invalid configuration
+	 * @throws UncheckedIOException     on timings read errors
+	 */
+	public static Sharding current() {
+		int total = (int) Settings.findLong(TOTAL, 1);
+		int index = (int) Settings.findLong(INDEX, 0);
+		Optional<Path> timings = Settings.findPath(TIMINGS);
+		LongLongMap assignment = timings
+			.map(path -> ASSIGNMENTS.computeIfAbsent(path.toAbsolutePath() + "|" + total, __ -> binPack(DurationHistories.load(path), total)))
+			.orElse(null);
+		return new Sharding(index, total, assignment);
+	}
+
+	/**
+	 * Assign known tests to shards: longest first into the least loaded shard.
+	 *
+	 * @param history History of durations
+	 * @param total   Count of shards
+	 * @return Assignment of test identity hash to shard index
+	 */
+	static LongLongMap binPack(DurationHistory history, int total) {
+		long[] ids = history.ids();
+		//Pack duration and identity into sortable pairs: sort by duration descending, then by identity for determinism
+		long[][] pairs = new long[ids.length][];
+		for (int i = 0; i < ids.length; i++) {
+			pairs[i] = new long[]{Math.max(0, history.duration(ids[i])), ids[i]};
+		}
+		Arrays.sort(pairs, (a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(a[1], b[1]));
+		long[] loads = new long[total];
+		LongLongMap assignment = new LongLongMap(ids.length);
+		for (long[] pair : pairs) {
+			int shard = 0;
+			for (int i = 1; i < total; i++) {
+				if (loads[i] < loads[shard]) {
+					shard = i;
+				}
+			}
+			loads[shard] += pair[0];
+			assignment.put(pair[1], shard);
+		}
+		return assignment;
+	}
+
+	/**
+	 * Zero-based index of current shard.
+	 *
+	 * @return Index of current shard
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Count of shards.
+	 *
+	 * @return Count of shards
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Shard of the test.
+	 *
+	 * @param description Test description
+	 * @return Zero-based index of shard
+	 */
+	public int shardOf(Description description) {
+		long id = TestId.hash(description);
+		long assigned = assignment != null ? assignment.get(id, -1) : -1;
+		return assigned >= 0 ? (int) assigned : (int) Long.remainderUnsigned(id, total);
+	}
+
+	/**
+	 * Check that test belongs to current shard.
+	 *
+	 * @param description Test description
+	 * @return Is test belongs to current shard
+	 */
+	public boolean accept(Description description) {
+		return total == 1 || shardOf(description) == index;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("shard %d of %d", index, total);
+	}
+}
@@ -0,0 +1,19 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks condition which decision depends only on environment, not on the test.
+ * <p>
+ * Decisions of such conditions are evaluated once per JVM and can be shared between test JVMs through {@link OutcomeCache}.
+ * Decision is memoized for the whole JVM even if file of {@link OutcomeCache} is not configured,
+ * so condition marked with this annotation must not depend on state changed while tests run.
+ * Conditions implementing {@link name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware} can not be marked.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface SharedOutcome {
+}
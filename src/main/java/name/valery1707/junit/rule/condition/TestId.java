@@ -0,0 +1,80 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+
+/**
+ * Stable identity of the test: {@code className#methodName}.
+ * <p>
+ * Hash of identity does not depend on JVM, locale or run, so it can be used for splitting tests between machines
+ * and as key in files shared between runs.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TestId {
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private TestId() {
+	}
+
+	/**
+	 * Identity of the test.
+	 *
+	 * @param description Test description
+	 * @return {@code className#methodName} or only {@code className} for descriptions without method
+	 */
+	public static String of(Description description) {
+		String method = description.getMethodName();
+		return method == null
+			? description.getClassName()
+			: of(description.getClassName(), method);
+	}
+
+	/**
+	 * Identity of the test.
+	 *
+	 * @param className  Test class name
+	 * @param methodName Test method name
+	 * @return {@code className#methodName}
+	 */
+	public static String of(String className, String methodName) {
+		return className + '#' + methodName;
+	}
+
+	/**
+	 * Stable 64-bit hash of test identity.
+	 *
+	 * @param description Test description
+	 * @return Hash value
+	 */
+	public static long hash(Description description) {
+		return hash(of(description));
+	}
+
+	/**
+	 * Stable 64-bit hash of the text: FNV-1a over UTF-16 chars with final avalanche mixing.
+	 *
+	 * @param text Text for hashing
+	 * @return Hash value
+	 */
+	public static long hash(CharSequence text) {
+		long hash = FNV_OFFSET;
+		for (int i = 0; i < text.length(); i++) {
+			hash ^= text.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * Avalanche mixing of 64-bit value (finalizer of SplitMix64).
+	 *
+	 * @param value Value to mix
+	 * @return Mixed value
+	 */
+	public static long mix(long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
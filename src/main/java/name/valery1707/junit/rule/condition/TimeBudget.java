@@ -0,0 +1,161 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.history.DurationHistories;
+import name.valery1707.junit.rule.history.DurationHistory;
+import org.junit.runner.Description;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run-scoped wall-clock time budget.
+ * <p>
+ * Configuration (see {@link Settings} for lookup rules):
+ * <ul>
+ * <li>{@value #BUDGET} - budget of run in milliseconds, tests are never skipped if absent</li>
+ * <li>{@value #RESERVE} - part of budget in {@code [0, 1]} reserved for tests with positive {@link Priority},
+ * {@code 0.1} by default</li>
+ * <li>{@value #HISTORY} - optional path to historical durations of tests</li>
+ * </ul>
+ * <p>
+ * Run is started by {@link TimeBudgetListener} or by the first check of budget.
+ * <p>
+ * Test is allowed to run only if it is predicted to finish inside limit: elapsed time plus expected duration
+ * of test (from {@link ExpectedDuration} or from history) must not exceed the limit.
+ * Tests with positive priority can use whole budget,
+ * tests with priority {@code p <= 0} must leave {@code reserve * (1 - p)} part of budget unused.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TimeBudget {
+	public static final String BUDGET = "junit.time.budget";
+	public static final String RESERVE = "junit.time.reserve";
+	public static final String HISTORY = "junit.time.history";
+
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+	private static final AtomicLong STARTED = new AtomicLong(NOT_STARTED);
+
+	private final long budget;
+	private final double reserve;
+	private final DurationHistory history;
+
+	TimeBudget(long budget, double reserve, DurationHistory history) {
+		if (reserve < 0 || reserve > 1) {
+			throw new IllegalArgumentException(String.format("Time reserve must be in [0, 1] but was %s", reserve));
+		}
+		this.budget = budget;
+		this.reserve = reserve;
+		this.history = history;
+	}
+
+	/**
+	 * Time budget configured by current environment.
+	 *
+	 * @return Configured time budget
+	 * @throws IllegalArgumentException on invalid configuration
+	 */
+	public static TimeBudget current() {
+		return new TimeBudget(
+			Settings.findLong(BUDGET, Long.MAX_VALUE),
+			Settings.findDouble(RESERVE, 0.1),
+			Settings.findPath(HISTORY).map(DurationHistories::load).orElse(DurationHistory.EMPTY)
+		);
+	}
+
+	/**
+	 * Mark start of run.
+	 */
+	public static void start() {
+		STARTED.set(System.nanoTime());
+	}
+
+	/**
+	 * Elapsed time from start of run, starts run if it was not started yet.
+	 *
+	 * @return Elapsed time in milliseconds
+	 */
+	public static long elapsed() {
+		long now = System.nanoTime();
+		STARTED.compareAndSet(NOT_STARTED, now);
+		return (now - STARTED.get()) / 1_000_000;
+	}
+
+	/**
+	 * Expected duration of the test.
+	 *
+	 * @param description Test description
+	 * @return Expected duration in milliseconds or {@code 0} if unknown
+	 */
+	public long expected(Description description) {
+		ExpectedDuration annotation = description.getAnnotation(ExpectedDuration.class);
+		if (annotation != null) {
+			return annotation.value();
+		}
+		return Math.max(0, history.duration(description));
+	}
+
+	/**
+	 * Time limit for the test.
+	 *
+	 * @param description Test description
+	 * @return Limit in milliseconds from start of run
+	 */
+	public long limit(Description description) {
+		int priority = priority(description);
+		if (budget == Long.MAX_VALUE || priority > 0) {
+			return budget;
+		}
+		double reserved = Math.min(1, reserve * (1 - priority));
+		return (long) (budget * (1 - reserved));
+	}
+
+	private static int priority(Description description) {
+		Priority annotation = description.getAnnotation(Priority.class);
+		return annotation != null ? annotation.value() : 0;
+	}
+
+	/**
+	 * Check that test is predicted to finish inside its limit.
+	 *
+	 * @param description Test description
+	 * @return Is test allowed to run
+	 */
+	public boolean accept(Description description) {
+		return budget == Long.MAX_VALUE || accept(description, elapsed());
+	}
+
+	/**
+	 * Check that test is predicted to finish inside its limit.
+	 *
+	 * @param description Test description
+	 * @param elapsed     Elapsed time from start of run in milliseconds
+	 * @return Is test allowed to run
+	 */
+	public boolean accept(Description description, long elapsed) {
+		return budget == Long.MAX_VALUE || elapsed + expected(description) <= limit(description);
+	}
+
+	/**
+	 * Description of prediction for the test.
+	 *
+	 * @param description Test description
+	 * @return Description of prediction
+	 */
+	public String describe(Description description) {
+		return describe(description, elapsed());
+	}
+
+	/**
+	 * Description of prediction for the test.
+	 *
+	 * @param description Test description
+	 * @param elapsed     Elapsed time from start of run in milliseconds, used for prediction
+	 * @return Description of prediction
+	 */
+	public String describe(Description description, long elapsed) {
+		return String.format(
+			Locale.ROOT,
+			"Time budget %d ms: elapsed %d ms, expected %d ms, limit %d ms for priority %d",
+			budget, elapsed, expected(description), limit(description), priority(description)
+		);
+	}
+}
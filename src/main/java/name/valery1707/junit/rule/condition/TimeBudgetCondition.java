@@ -0,0 +1,52 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import org.junit.runner.Description;
+
+import javax.annotation.Nullable;
+
+/**
+ * Skip tests which are predicted to overrun time budget.
+ * <p>
+ * Can be used as annotation condition or for all tests at once:
+ * {@code new ConditionalIgnoreRule(TimeBudgetCondition.class)}.
+ *
+ * @see TimeBudget
+ * @see TimeBudgetListener
+ */
+public class TimeBudgetCondition implements IgnoreCondition, DescriptionAware {
+	private final TimeBudget budget;
+	private Description description;
+
+	public TimeBudgetCondition() {
+		this(TimeBudget.current());
+	}
+
+	protected TimeBudgetCondition(TimeBudget budget) {
+		this.budget = budget;
+	}
+
+	@Override
+	public void setDescription(Description description) {
+		this.description = description;
+	}
+
+	@Override
+	public Decision evaluate() {
+		long elapsed = TimeBudget.elapsed();
+		return Decision.of(!budget.accept(description, elapsed), () -> budget.describe(description, elapsed));
+	}
+
+	@Override
+	public boolean needRun() {
+		return !evaluate().isSkip();
+	}
+
+	@Nullable
+	@Override
+	public String reason() {
+		return budget.describe(description);
+	}
+}
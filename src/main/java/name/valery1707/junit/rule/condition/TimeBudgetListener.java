@@ -0,0 +1,25 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Mark start of run for {@link TimeBudget}.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.condition.TimeBudgetListener</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class TimeBudgetListener extends RunListener {
+	@Override
+	public void testRunStarted(Description description) {
+		TimeBudget.start();
+	}
+}
@@ -0,0 +1,24 @@
+package name.valery1707.junit.rule.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Value of the test for selection within cost budget.
+ * <p>
+ * Tests without annotation have value {@code 1}.
+ *
+ * @see CostPlanner
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Value {
+	/**
+	 * Value of the test.
+	 *
+	 * @return Non negative value of the test
+	 */
+	int value();
+}
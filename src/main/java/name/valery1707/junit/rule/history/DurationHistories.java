@@ -0,0 +1,45 @@
+package name.valery1707.junit.rule.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per JVM cache of loaded {@link DurationHistory}.
+ * <p>
+ * Both binary {@link DurationStore} and text files in format of {@link DurationHistory#loadText(Path)} are supported.
+ */
+public final class DurationHistories {
+	private static final Map<Path, DurationHistory> CACHE = new ConcurrentHashMap<>();
+
+	private DurationHistories() {
+	}
+
+	/**
+	 * Load history once per JVM.
+	 *
+	 * @param path Path to history file
+	 * @return Loaded history
+	 * @throws UncheckedIOException on read errors
+	 */
+	public static DurationHistory load(Path path) {
+		return CACHE.computeIfAbsent(path.toAbsolutePath().normalize(), DurationHistories::read);
+	}
+
+	/**
+	 * Forget all loaded histories.
+	 */
+	public static void clear() {
+		CACHE.clear();
+	}
+
+	private static DurationHistory read(Path path) {
+		try {
+			return DurationStore.isStore(path) ? DurationStore.open(path) : DurationHistory.loadText(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to read durations from " + path, e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package name.valery1707.junit.rule.history;
+
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Historical durations of tests keyed by {@link TestId#hash(CharSequence) hash of test identity}.
+ */
+public interface DurationHistory {
+	/**
+	 * Marker of unknown duration.
+	 */
+	long UNKNOWN = -1;
+
+	/**
+	 * History without any data.
+	 */
+	DurationHistory EMPTY = new DurationHistory() {
+		@Override
+		public long duration(long id) {
+			return UNKNOWN;
+		}
+
+		@Override
+		public long[] ids() {
+			return new long[0];
+		}
+	};
+
+	/**
+	 * Duration of the test.
+	 *
+	 * @param id Hash of test identity
+	 * @return Duration in milliseconds or {@link #UNKNOWN}
+	 */
+	long duration(long id);
+
+	/**
+	 * Duration of the test.
+	 *
+	 * @param description Test description
+	 * @return Duration in milliseconds or {@link #UNKNOWN}
+	 */
+	default long duration(Description description) {
+		return duration(TestId.hash(description));
+	}
+
+	/**
+	 * All known tests.
+	 *
+	 * @return Hashes of test identities
+	 */
+	long[] ids();
+
+	/**
+	 * Load history from text file in {@link Properties} format: {@code className#methodName=millis}.
+	 *
+	 * @param path Path to file
+	 * @return Loaded history
+	 * @throws IOException on read errors
+	 * @throws IllegalArgumentException on invalid values
+	 */
+	static DurationHistory loadText(Path path) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		LongLongMap durations = new LongLongMap(properties.size());
+		for (String name : properties.stringPropertyNames()) {
+			String value = properties.getProperty(name).trim();
+			try {
+				durations.put(TestId.hash(name), Long.parseLong(value));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(String.format("Invalid duration '%s' of test '%s' in %s", value, name, path), e);
+			}
+		}
+		return new DurationHistory() {
+			@Override
+			public long duration(long id) {
+				return durations.get(id, UNKNOWN);
+			}
+
+			@Override
+			public long[] ids() {
+				return durations.keys();
+			}
+		};
+	}
+}
@@ -0,0 +1,121 @@
+package name.valery1707.junit.rule.history;
+
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Record durations of finished tests into {@link DurationStore}.
+ * <p>
+ * Skipped tests are not recorded. Each record is appended under {@link DurationStore lock of store} into store opened by path,
+ * so several forked JVMs can share one store and records are not lost by concurrent compaction.
+ * At the end of run log is {@link DurationStore#compact(Path) compacted}
+ * if more than half of its records are outdated.
+ * <p>
+ * Register it as listener of runner, for example with Surefire:
+ * <pre>{@code
+ * <properties>
+ *     <property>
+ *         <name>listener</name>
+ *         <value>name.valery1707.junit.rule.history.DurationRecorder</value>
+ *     </property>
+ * </properties>
+ * }</pre>
+ */
+@RunListener.ThreadSafe
+public class DurationRecorder extends RunListener {
+	private final Path path;
+	private final Map<Description, Long> started = new ConcurrentHashMap<>();
+	private final Set<Description> failed = ConcurrentHashMap.newKeySet();
+	private final Set<Description> skipped = ConcurrentHashMap.newKeySet();
+	private boolean recorded;
+
+	public DurationRecorder() {
+		this(DurationStore.configured());
+	}
+
+	public DurationRecorder(Path path) {
+		this.path = path;
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		started.put(description, System.nanoTime());
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		failed.add(failure.getDescription());
+	}
+
+	@Override
+	public void testAssumptionFailure(Failure failure) {
+		skipped.add(failure.getDescription());
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		Long start = started.remove(description);
+		boolean isFailed = failed.remove(description);
+		if (skipped.remove(description) || start == null) {
+			return;
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		append(TestId.hash(description), (int) Math.min(Integer.MAX_VALUE, millis), isFailed ? DurationStore.FLAG_FAILED : 0);
+	}
+
+	@Override
+	public void testRunFinished(Result result) throws IOException {
+		synchronized (this) {
+			if (!recorded) {
+				return;
+			}
+			recorded = false;
+		}
+		DurationStore store = DurationStore.open(path);
+		if (store.getRecords() > 2 * store.getTests() * DurationStore.SAMPLES) {
+			DurationStore.compact(path);
+		}
+	}
+
+	/**
+	 * Append record into store.
+	 *
+	 * @param id       Hash of test identity
+	 * @param duration Duration in milliseconds
+	 * @param flags    Flags of record
+	 */
+	synchronized void append(long id, int duration, int flags) {
+		try {
+			DurationStore.locked(path, () -> {
+				try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+					ByteBuffer buffer = ByteBuffer.allocate(DurationStore.HEADER_SIZE + DurationStore.RECORD_SIZE).order(DurationStore.ORDER);
+					if (channel.size() == 0) {
+						buffer.putInt(DurationStore.MAGIC).putInt(DurationStore.VERSION);
+					}
+					buffer.putLong(id).putInt(duration).putInt(flags);
+					buffer.flip();
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+				}
+				return null;
+			});
+			recorded = true;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Fail to record duration into " + path, e);
+		}
+	}
+}
@@ -0,0 +1,371 @@
+package name.valery1707.junit.rule.history;
+
+import name.valery1707.junit.rule.condition.Settings;
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.runner.Description;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact on-disk store of test durations.
+ * <p>
+ * File is an append-only binary log: header ({@link #MAGIC}, {@link #VERSION})
+ * followed by fixed size records ({@link #RECORD_SIZE} bytes):
+ * <ul>
+ * <li>{@code long} - {@link TestId#hash(CharSequence) hash of test identity}</li>
+ * <li>{@code int} - duration in milliseconds</li>
+ * <li>{@code int} - flags, see {@link #FLAG_FAILED}</li>
+ * </ul>
+ * <p>
+ * Log is read through memory mapping into primitive-keyed indexes, so every lookup is {@code O(1)}.
+ * Only last {@link #SAMPLES} records of each test are used,
+ * {@link #compact(Path) compaction} rewrites log with only these records.
+ * <p>
+ * Writers are serialized by {@link #locked(Path, LockedAction) lock} of sibling file {@code <store>.lock},
+ * which is never replaced, so records appended concurrently with compaction are not lost.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @see DurationRecorder
+ */
+@SuppressWarnings("WeakerAccess")
+public final class DurationStore implements DurationHistory {
+	/**
+	 * Path to store file.
+	 */
+	public static final String FILE = "junit.durations";
+	public static final String DEFAULT_FILE = "target/junit-durations.bin";
+
+	public static final int MAGIC = 0x4A345244;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 8;
+	public static final int RECORD_SIZE = 16;
+	public static final int FLAG_FAILED = 1;
+
+	/**
+	 * Count of last records of each test used for statistics.
+	 */
+	public static final int SAMPLES = 16;
+
+	static final ByteOrder ORDER = ByteOrder.BIG_ENDIAN;
+
+	private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+	private final LongLongMap p90;
+	private final LongLongMap failures;
+	private final LongLongMap runs;
+	private final int records;
+
+	private DurationStore(LongLongMap p90, LongLongMap failures, LongLongMap runs, int records) {
+		this.p90 = p90;
+		this.failures = failures;
+		this.runs = runs;
+		this.records = records;
+	}
+
+	/**
+	 * Path to store configured by current environment.
+	 *
+	 * @return Path to store
+	 */
+	public static Path configured() {
+		return Settings.findPath(FILE).orElse(Paths.get(DEFAULT_FILE));
+	}
+
+	/**
+	 * Check that file is a binary store.
+	 *
+	 * @param path Path to file
+	 * @return Is file starts with {@link #MAGIC}
+	 * @throws IOException on read errors
+	 */
+	public static boolean isStore(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(4).order(ORDER);
+			return channel.read(header) == 4 && header.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Read store through memory mapping.
+	 *
+	 * @param path Path to store, missing file is treated as empty store
+	 * @return Loaded store
+	 * @throws IOException              on read errors
+	 * @throws IllegalArgumentException on unknown file format
+	 */
+	public static DurationStore open(Path path) throws IOException {
+		if (!Files.exists(path)) {
+			return load(ByteBuffer.allocate(0), path);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path);
+		}
+	}
+
+	private static DurationStore load(ByteBuffer buffer, Path path) {
+		buffer.order(ORDER);
+		if (buffer.remaining() > 0) {
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+				throw new IllegalArgumentException("Unknown format of duration store " + path);
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IllegalArgumentException(String.format("Unsupported version %d of duration store %s", version, path));
+			}
+		}
+		Samples samples = new Samples(buffer.remaining() / RECORD_SIZE);
+		while (buffer.remaining() >= RECORD_SIZE) {
+			samples.add(buffer.getLong(), buffer.getInt(), buffer.getInt());
+		}
+		return samples.toStore();
+	}
+
+	/**
+	 * Action on store performed under lock.
+	 *
+	 * @param <T> Type of result
+	 */
+	interface LockedAction<T> {
+		T run() throws IOException;
+	}
+
+	/**
+	 * Perform action under exclusive lock of store between threads and processes.
+	 * <p>
+	 * Lock is held on sibling file {@code <store>.lock}: store itself is replaced by compaction,
+	 * so writers must open it by path only after acquiring of lock.
+	 *
+	 * @param path   Path to store
+	 * @param action Action
+	 * @param <T>    Type of result
+	 * @return Result of action
+	 * @throws IOException on lock errors or errors of action
+	 */
+	static <T> T locked(Path path, LockedAction<T> action) throws IOException {
+		Path store = path.toAbsolutePath().normalize();
+		//File locks are held by the whole JVM and can not be acquired twice
+		synchronized (MONITORS.computeIfAbsent(store, __ -> new Object())) {
+			if (store.getParent() != null) {
+				Files.createDirectories(store.getParent());
+			}
+			Path lockFile = store.resolveSibling(store.getFileName() + ".lock");
+			try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				FileLock lock = channel.lock();
+				try {
+					return action.run();
+				} finally {
+					lock.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rewrite store with only last {@link #SAMPLES} records of each test.
+	 * <p>
+	 * Compacted log atomically replaces store under {@link #locked(Path, LockedAction) lock},
+	 * so records appended by {@link DurationRecorder} of other processes are not lost.
+	 *
+	 * @param path Path to store
+	 * @throws IOException on read or write errors
+	 */
+	public static void compact(Path path) throws IOException {
+		locked(path, () -> {
+			if (Files.exists(path)) {
+				rewrite(path);
+			}
+			return null;
+		});
+	}
+
+	private static void rewrite(Path path) throws IOException {
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+			while (content.hasRemaining() && channel.read(content) >= 0) {
+				//Read whole file
+			}
+			content.flip();
+			content.order(ORDER);
+			if (content.remaining() < HEADER_SIZE || content.getInt() != MAGIC || content.getInt() != VERSION) {
+				throw new IllegalArgumentException("Unknown format of duration store " + path);
+			}
+			Samples samples = new Samples(content.remaining() / RECORD_SIZE);
+			while (content.remaining() >= RECORD_SIZE) {
+				samples.add(content.getLong(), content.getInt(), content.getInt());
+			}
+			try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				samples.writeTo(target);
+			}
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Count of records in log.
+	 *
+	 * @return Count of records
+	 */
+	public int getRecords() {
+		return records;
+	}
+
+	/**
+	 * Count of tests in store.
+	 *
+	 * @return Count of tests
+	 */
+	public int getTests() {
+		return p90.size();
+	}
+
+	/**
+	 * 90th percentile of last durations of the test.
+	 *
+	 * @param id Hash of test identity
+	 * @return Duration in milliseconds or {@link #UNKNOWN}
+	 */
+	@Override
+	public long duration(long id) {
+		return p90.get(id, UNKNOWN);
+	}
+
+	@Override
+	public long[] ids() {
+		return p90.keys();
+	}
+
+	/**
+	 * Count of failures among last runs of the test.
+	 *
+	 * @param id Hash of test identity
+	 * @return Count of failures
+	 */
+	public int failures(long id) {
+		return (int) failures.get(id, 0);
+	}
+
+	/**
+	 * Count of failures among last runs of the test.
+	 *
+	 * @param description Test description
+	 * @return Count of failures
+	 */
+	public int failures(Description description) {
+		return failures(TestId.hash(description));
+	}
+
+	/**
+	 * Count of last runs of the test.
+	 *
+	 * @param id Hash of test identity
+	 * @return Count of runs
+	 */
+	public int runs(long id) {
+		return (int) runs.get(id, 0);
+	}
+
+	@Override
+	public String toString() {
+		return "DurationStore{tests=" + getTests() + ", records=" + records + '}';
+	}
+
+	/**
+	 * Last {@link #SAMPLES} records of each test in ring buffers.
+	 */
+	private static final class Samples {
+		private final LongLongMap slots;
+		private long[] ids;
+		private int[] durations;
+		private int[] flags;
+		private int[] counts;
+		private int tests;
+		private int records;
+
+		Samples(int expected) {
+			int capacity = Math.max(16, Math.min(expected, 1 << 16));
+			slots = new LongLongMap(capacity);
+			ids = new long[capacity];
+			durations = new int[capacity * SAMPLES];
+			flags = new int[capacity * SAMPLES];
+			counts = new int[capacity];
+		}
+
+		void add(long id, int duration, int flag) {
+			records++;
+			int slot = (int) slots.get(id, -1);
+			if (slot < 0) {
+				slot = tests++;
+				if (slot == ids.length) {
+					ids = Arrays.copyOf(ids, slot * 2);
+					counts = Arrays.copyOf(counts, slot * 2);
+					durations = Arrays.copyOf(durations, slot * 2 * SAMPLES);
+					flags = Arrays.copyOf(flags, slot * 2 * SAMPLES);
+				}
+				ids[slot] = id;
+				slots.put(id, slot);
+			}
+			int pos = slot * SAMPLES + counts[slot] % SAMPLES;
+			durations[pos] = duration;
+			flags[pos] = flag;
+			counts[slot]++;
+		}
+
+		DurationStore toStore() {
+			LongLongMap p90 = new LongLongMap(tests);
+			LongLongMap failures = new LongLongMap(tests);
+			LongLongMap runs = new LongLongMap(tests);
+			int[] sorted = new int[SAMPLES];
+			for (int slot = 0; slot < tests; slot++) {
+				int size = Math.min(counts[slot], SAMPLES);
+				int failed = 0;
+				for (int i = 0; i < size; i++) {
+					sorted[i] = durations[slot * SAMPLES + i];
+					if ((flags[slot * SAMPLES + i] & FLAG_FAILED) != 0) {
+						failed++;
+					}
+				}
+				Arrays.sort(sorted, 0, size);
+				//Nearest-rank percentile
+				p90.put(ids[slot], sorted[(int) Math.ceil(size * 0.9) - 1]);
+				failures.put(ids[slot], failed);
+				runs.put(ids[slot], size);
+			}
+			return new DurationStore(p90, failures, runs, records);
+		}
+
+		void writeTo(FileChannel target) throws IOException {
+			int size = 0;
+			for (int slot = 0; slot < tests; slot++) {
+				size += Math.min(counts[slot], SAMPLES);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * RECORD_SIZE).order(ORDER);
+			buffer.putInt(MAGIC).putInt(VERSION);
+			for (int slot = 0; slot < tests; slot++) {
+				int count = counts[slot];
+				//Keep records in chronological order: the oldest kept sample is next after the last written
+				for (int i = Math.max(0, count - SAMPLES); i < count; i++) {
+					int pos = slot * SAMPLES + i % SAMPLES;
+					buffer.putLong(ids[slot]).putInt(durations[pos]).putInt(flags[pos]);
+				}
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				target.write(buffer);
+			}
+		}
+	}
+}
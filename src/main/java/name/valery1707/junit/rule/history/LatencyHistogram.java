@@ -0,0 +1,108 @@
+package name.valery1707.junit.rule.history;
+
+/**
+ * Histogram of latencies with logarithmic buckets: every power of two is split into {@value #SUB_BUCKETS} linear buckets,
+ * so relative error of percentiles is below {@code 1/16} for any value while memory is fixed.
+ * <p>
+ * Not thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	private final long[] counts = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+	private long count;
+	private long min = Long.MAX_VALUE;
+	private long max;
+	private long sum;
+
+	/**
+	 * Record value.
+	 *
+	 * @param value Non negative value, for example nanoseconds
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value must not be negative: " + value);
+		}
+		counts[index(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Middle value of bucket.
+	 */
+	static long value(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+		int shift = exponent - SUB_BITS;
+		long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lower + ((1L << shift) >>> 1);
+	}
+
+	/**
+	 * Value at percentile.
+	 *
+	 * @param percentile Percentile in range {@code (0, 100]}
+	 * @return Approximate value, clamped by observed minimum and maximum; {@code 0} for empty histogram
+	 */
+	public long percentile(double percentile) {
+		if (!(percentile > 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Percentile must be in range (0, 100]: " + percentile);
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		if (rank >= count) {
+			return max;
+		}
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.max(min, Math.min(max, value(i)));
+			}
+		}
+		return max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"count=%d, min=%d, p50=%d, p90=%d, p99=%d, max=%d",
+			count, getMin(), percentile(50), percentile(90), percentile(99), max
+		);
+	}
+}
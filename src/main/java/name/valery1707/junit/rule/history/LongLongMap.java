@@ -0,0 +1,163 @@
+package name.valery1707.junit.rule.history;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive {@code long} keys and values.
+ * <p>
+ * Keys are expected to be already well mixed (like {@link name.valery1707.junit.rule.condition.TestId#hash(CharSequence)}),
+ * so they are used for addressing as is.
+ * <p>
+ * Not thread-safe: fill it once and publish safely, after that it can be read concurrently.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class LongLongMap {
+	private static final long FREE = 0;
+
+	private long[] keys;
+	private long[] values;
+	private boolean hasFreeKey;
+	private long freeKeyValue;
+	private int size;
+	private int mask;
+
+	/**
+	 * Create map for expected count of entries.
+	 *
+	 * @param expectedSize Expected count of entries
+	 */
+	public LongLongMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Value for key.
+	 *
+	 * @param key          Key
+	 * @param defaultValue Value for missing key
+	 * @return Value for key if exists or {@code defaultValue}
+	 */
+	public long get(long key, long defaultValue) {
+		if (key == FREE) {
+			return hasFreeKey ? freeKeyValue : defaultValue;
+		}
+		int index = (int) key & mask;
+		while (true) {
+			long current = keys[index];
+			if (current == key) {
+				return values[index];
+			}
+			if (current == FREE) {
+				return defaultValue;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	/**
+	 * Check key existence.
+	 *
+	 * @param key Key
+	 * @return Is map contains key
+	 */
+	public boolean containsKey(long key) {
+		if (key == FREE) {
+			return hasFreeKey;
+		}
+		int index = (int) key & mask;
+		while (true) {
+			long current = keys[index];
+			if (current == key) {
+				return true;
+			}
+			if (current == FREE) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	/**
+	 * Put value for key.
+	 *
+	 * @param key   Key
+	 * @param value Value
+	 */
+	public void put(long key, long value) {
+		if (key == FREE) {
+			if (!hasFreeKey) {
+				size++;
+			}
+			hasFreeKey = true;
+			freeKeyValue = value;
+			return;
+		}
+		int index = (int) key & mask;
+		while (true) {
+			long current = keys[index];
+			if (current == key) {
+				values[index] = value;
+				return;
+			}
+			if (current == FREE) {
+				keys[index] = key;
+				values[index] = value;
+				if (++size * 2 > keys.length) {
+					rehash();
+				}
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	/**
+	 * Count of entries.
+	 *
+	 * @return Count of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * All keys of the map in unspecified order.
+	 *
+	 * @return New array with keys
+	 */
+	public long[] keys() {
+		long[] result = new long[size];
+		int pos = 0;
+		if (hasFreeKey) {
+			result[pos++] = FREE;
+		}
+		for (long key : keys) {
+			if (key != FREE) {
+				result[pos++] = key;
+			}
+		}
+		return result;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new long[oldValues.length * 2];
+		mask = keys.length - 1;
+		size = hasFreeKey ? 1 : 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LongLongMap{size=" + size + ", keys=" + Arrays.toString(keys()) + '}';
+	}
+}
@@ -0,0 +1,69 @@
+package name.valery1707.junit.rule.jupiter;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.OutcomeCache;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.runners.model.FrameworkMethod;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Extension of JUnit Jupiter which skips test methods by {@link ConditionalIgnore} with semantics of {@link ConditionalIgnoreRule}:
+ * same {@link IgnoreCondition} classes, expressions, rules file, registries generated by annotation processor
+ * and same skip messages.
+ * <p>
+ * Decisions of {@link name.valery1707.junit.rule.condition.SharedOutcome} conditions are taken from {@link OutcomeCache}
+ * shared with {@link ConditionalIgnoreRule}, so in mixed suite (Jupiter and Vintage engines in one JVM)
+ * such conditions are evaluated only once.
+ * <p>
+ * Usage: {@code @ExtendWith(ConditionalIgnoreExtension.class)} on test class
+ * or automatic registration with {@code junit.jupiter.extensions.autodetection.enabled=true}.
+ * Conditions for every test are passed by subclass:
+ * <pre>{@code
+ * public class FailFastExtension extends ConditionalIgnoreExtension {
+ *     public FailFastExtension() {
+ *         super(new ConditionalIgnoreRule(FailFastCondition.class));
+ *     }
+ * }
+ * }</pre>
+ * Requires {@code org.junit.jupiter:junit-jupiter-api} which is optional dependency of library.
+ */
+public class ConditionalIgnoreExtension implements ExecutionCondition {
+	private static final ConditionEvaluationResult ENABLED = ConditionEvaluationResult.enabled("Not ignored by any condition");
+
+	private final ConditionalIgnoreRule rule;
+
+	/**
+	 * Extension which check only conditions declared by {@link ConditionalIgnore} on test methods.
+	 */
+	public ConditionalIgnoreExtension() {
+		this(new ConditionalIgnoreRule());
+	}
+
+	/**
+	 * Extension with custom {@link ConditionalIgnoreRule}.
+	 *
+	 * @param rule Rule which decide skipping of tests
+	 */
+	protected ConditionalIgnoreExtension(ConditionalIgnoreRule rule) {
+		this.rule = rule;
+	}
+
+	@Override
+	public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+		Optional<Method> method = context.getTestMethod();
+		Optional<Object> target = context.getTestInstance();
+		if (!method.isPresent() || !target.isPresent()) {
+			//Containers are not ignored
+			return ENABLED;
+		}
+		return rule.skipMessage(new FrameworkMethod(method.get()), target.get())
+			.map(ConditionEvaluationResult::disabled)
+			.orElse(ENABLED);
+	}
+}
@@ -0,0 +1,237 @@
+package name.valery1707.junit.rule.processor;
+
+import name.valery1707.junit.rule.ConditionRegistry;
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnoreList;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.Expression;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Compile time support of {@link ConditionalIgnore}.
+ * <ul>
+ * <li>Validates declarations with the same rules as {@link ConditionalIgnoreRule} at runtime:
+ * checks of {@link ConditionalIgnoreRule#INVALID_CLASS_DECLARATION},
+ * {@link ConditionalIgnoreRule#INVALID_CLASS_CTOR}, {@link ConditionalIgnoreRule#INVALID_ANNOTATION}
+ * and syntax of {@link Expression expressions} are reported as compilation errors</li>
+ * <li>Generates {@link ConditionRegistry} for every class with annotated methods,
+ * so {@link ConditionalIgnoreRule} can create conditions without reflection</li>
+ * </ul>
+ * Processor is registered as service and is enabled for test compilation by adding library into classpath.
+ */
+@SupportedAnnotationTypes({
+	"name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore",
+	"name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnoreList",
+})
+public class ConditionalIgnoreProcessor extends AbstractProcessor {
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		Map<TypeElement, List<ExecutableElement>> tests = new LinkedHashMap<>();
+		Stream.of(ConditionalIgnore.class, ConditionalIgnoreList.class)
+			.flatMap(type -> round.getElementsAnnotatedWith(type).stream())
+			.filter(element -> element.getKind() == ElementKind.METHOD)
+			.map(ExecutableElement.class::cast)
+			.distinct()
+			.forEach(method -> tests.computeIfAbsent((TypeElement) method.getEnclosingElement(), __ -> new ArrayList<>()).add(method));
+		tests.forEach(this::process);
+		return false;
+	}
+
+	private void process(TypeElement test, List<ExecutableElement> methods) {
+		StringBuilder fields = new StringBuilder();
+		StringBuilder cases = new StringBuilder();
+		boolean valid = true;
+		for (int i = 0; i < methods.size(); i++) {
+			ExecutableElement method = methods.get(i);
+			List<String> factories = new ArrayList<>();
+			for (ConditionalIgnore annotation : method.getAnnotationsByType(ConditionalIgnore.class)) {
+				String factory = factory(test, method, annotation);
+				if (factory == null) {
+					valid = false;
+				} else {
+					factories.add(factory);
+				}
+			}
+			fields
+				.append("\tprivate static final List<Factory> METHOD_").append(i).append(" = Collections.unmodifiableList(Arrays.asList(\n\t\t")
+				.append(String.join(",\n\t\t", factories))
+				.append("\n\t));\n");
+			cases
+				.append("\t\t\tcase ").append(literal(method.getSimpleName().toString())).append(":\n")
+				.append("\t\t\t\treturn METHOD_").append(i).append(";\n");
+		}
+		if (valid) {
+			write(test, fields, cases);
+		}
+	}
+
+	@Nullable
+	private String factory(TypeElement test, ExecutableElement method, ConditionalIgnore annotation) {
+		TypeElement condition = conditionType(annotation);
+		String expression = annotation.expression();
+		if ((condition != null) == !expression.isEmpty()) {
+			return error(method, ConditionalIgnoreRule.INVALID_ANNOTATION);
+		}
+		if (condition == null) {
+			try {
+				Expression.compile(expression);
+			} catch (IllegalArgumentException e) {
+				return error(method, e.getMessage());
+			}
+			return "Factory.expression(" + literal(expression) + ")";
+		}
+		String name = processingEnv.getElementUtils().getBinaryName(condition).toString();
+		boolean isStandalone = condition.getNestingKind() != NestingKind.MEMBER || condition.getModifiers().contains(Modifier.STATIC);
+		TypeElement outer = isStandalone ? null : (TypeElement) condition.getEnclosingElement();
+		if (outer != null && !isDeclaredInTarget(outer, test)) {
+			return error(method, String.format(ConditionalIgnoreRule.INVALID_CLASS_DECLARATION, name));
+		}
+		if (!isInstantiable(condition, test)) {
+			return error(method, String.format(ConditionalIgnoreRule.INVALID_CLASS_CTOR, name));
+		}
+		String type = condition.getQualifiedName().toString();
+		String creation = outer == null
+			? "new " + type + "()"
+			: "((" + outer.getQualifiedName() + ") target).new " + condition.getSimpleName() + "()";
+		return "Factory.condition(" + type + ".class, target -> " + creation + ")";
+	}
+
+	@Nullable
+	private TypeElement conditionType(ConditionalIgnore annotation) {
+		TypeMirror type;
+		try {
+			Class<? extends IgnoreCondition> condition = annotation.condition();
+			type = processingEnv.getElementUtils().getTypeElement(condition.getCanonicalName()).asType();
+		} catch (MirroredTypeException e) {
+			type = e.getTypeMirror();
+		}
+		TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+		return element.getQualifiedName().contentEquals(IgnoreCondition.class.getCanonicalName()) ? null : element;
+	}
+
+	/**
+	 * Same check as at runtime: member class must be declared in test class or in one of its superclasses.
+	 */
+	private boolean isDeclaredInTarget(TypeElement outer, TypeElement test) {
+		Types types = processingEnv.getTypeUtils();
+		return types.isSubtype(types.erasure(test.asType()), types.erasure(outer.asType()));
+	}
+
+	private boolean isInstantiable(TypeElement condition, TypeElement test) {
+		if (condition.getKind() != ElementKind.CLASS || condition.getModifiers().contains(Modifier.ABSTRACT)) {
+			return false;
+		}
+		boolean samePackage = processingEnv.getElementUtils().getPackageOf(condition)
+			.equals(processingEnv.getElementUtils().getPackageOf(test));
+		for (Element element = condition; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			if (!isAccessible(element.getModifiers(), samePackage)) {
+				return false;
+			}
+		}
+		return ElementFilter.constructorsIn(condition.getEnclosedElements()).stream()
+			.anyMatch(constructor -> constructor.getParameters().isEmpty() && isAccessible(constructor.getModifiers(), samePackage));
+	}
+
+	private static boolean isAccessible(Set<Modifier> modifiers, boolean samePackage) {
+		return modifiers.contains(Modifier.PUBLIC) || (samePackage && !modifiers.contains(Modifier.PRIVATE));
+	}
+
+	@Nullable
+	private String error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+		return null;
+	}
+
+	private void write(TypeElement test, CharSequence fields, CharSequence cases) {
+		String packageName = processingEnv.getElementUtils().getPackageOf(test).getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(test).toString();
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + ConditionRegistry.SUFFIX;
+		try (Writer writer = processingEnv.getFiler().createSourceFile(binaryName + ConditionRegistry.SUFFIX, test).openWriter()) {
+			if (!packageName.isEmpty()) {
+				writer.append("package ").append(packageName).append(";\n\n");
+			}
+			writer
+				.append("import ").append(ConditionRegistry.class.getName()).append(";\n\n")
+				.append("import java.util.Arrays;\n")
+				.append("import java.util.Collections;\n")
+				.append("import java.util.List;\n\n")
+				.append("/**\n * Generated by ").append(getClass().getName()).append(" for {@link ").append(test.getQualifiedName()).append("}.\n */\n")
+				.append("public final class ").append(simpleName).append(" implements ConditionRegistry {\n")
+				.append(fields)
+				.append("\n")
+				.append("\t@Override\n")
+				.append("\tpublic List<Factory> conditions(String method) {\n")
+				.append("\t\tswitch (method) {\n")
+				.append(cases)
+				.append("\t\t\tdefault:\n")
+				.append("\t\t\t\treturn Collections.emptyList();\n")
+				.append("\t\t}\n")
+				.append("\t}\n")
+				.append("}\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String literal(String text) {
+		StringBuilder literal = new StringBuilder(text.length() + 2).append('"');
+		for (char c : text.toCharArray()) {
+			switch (c) {
+				case '"':
+					literal.append("\\\"");
+					break;
+				case '\\':
+					literal.append("\\\\");
+					break;
+				case '\n':
+					literal.append("\\n");
+					break;
+				case '\r':
+					literal.append("\\r");
+					break;
+				case '\t':
+					literal.append("\\t");
+					break;
+				default:
+					if (c < ' ') {
+						literal.append(String.format("\\u%04x", (int) c));
+					} else {
+						literal.append(c);
+					}
+			}
+		}
+		return literal.append('"').toString();
+	}
+}
@@ -0,0 +1,225 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition;
+import name.valery1707.junit.rule.condition.Expression;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * High-contention harness for thread-safety of {@link ConditionalIgnoreRule}:
+ * shared rule instance, shared sources mutated concurrently, shared caches and registries.
+ */
+public class ConditionalIgnoreRuleConcurrencyTest {
+	private static final String FLAG = "junit.stress.flag";
+	private static final int THREADS = 16;
+	private static final int APPLICATIONS = 500;
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(FLAG);
+		System.clearProperty(IgnoreRules.FILE);
+	}
+
+	public static class FlagOn extends BaseEnvironmentCondition {
+		public FlagOn() {
+			super(StandardSource.Properties, FLAG, "on");
+		}
+	}
+
+	public static class StressTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		public class MemberCondition implements IgnoreCondition {
+			@Override
+			public boolean needSkip() {
+				return false;
+			}
+		}
+
+		@Test
+		@ConditionalIgnore(condition = FlagOn.class)
+		public void flag() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = MemberCondition.class)
+		@ConditionalIgnore(condition = AlwaysRunCondition.class)
+		public void member() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(expression = "prop['junit.stress.flag'] == 'off'")
+		public void expression() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void plain() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	/**
+	 * Flip flag until stopped.
+	 */
+	private static Thread mutator(AtomicBoolean stop) {
+		Thread thread = new Thread(() -> {
+			String[] values = {"on", "off", null};
+			for (int i = 0; !stop.get(); i++) {
+				String value = values[i % values.length];
+				if (value == null) {
+					System.clearProperty(FLAG);
+				} else {
+					System.setProperty(FLAG, value);
+				}
+			}
+		}, "stress-mutator");
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	private static <T> List<T> concurrently(Callable<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get(1, TimeUnit.MINUTES));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testApply() throws Exception {
+		Path rules = temp.newFile("rules.txt").toPath();
+		Files.write(rules, Collections.singletonList("*#plain = skipIf-expr:prop['junit.stress.flag'] == 'on'"), StandardCharsets.UTF_8);
+		System.setProperty(IgnoreRules.FILE, rules.toString());
+
+		ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+		StressTest target = new StressTest();
+		List<FrameworkMethod> methods = new ArrayList<>();
+		for (String name : Arrays.asList("flag", "member", "expression", "plain")) {
+			methods.add(new FrameworkMethod(StressTest.class.getMethod(name)));
+		}
+		LongAdder runs = new LongAdder();
+		LongAdder skips = new LongAdder();
+		Queue<String> errors = new ConcurrentLinkedQueue<>();
+		Statement base = new Statement() {
+			@Override
+			public void evaluate() {
+				runs.increment();
+			}
+		};
+
+		AtomicBoolean stop = new AtomicBoolean();
+		Thread mutator = mutator(stop);
+		mutator.start();
+		try {
+			concurrently(() -> {
+				for (int i = 0; i < APPLICATIONS; i++) {
+					FrameworkMethod method = methods.get(i % methods.size());
+					try {
+						rule.apply(base, method, target).evaluate();
+					} catch (AssumptionViolatedException e) {
+						skips.increment();
+						String message = e.getMessage();
+						boolean consistent = method.getName().equals("flag")
+							? message.contains("has value 'off'") || message.contains("don't have value")
+							: message.startsWith("Ignored by ExpressionCondition: Expression ");
+						if (!consistent) {
+							errors.add(method.getName() + ": " + message);
+						}
+					} catch (Throwable e) {
+						errors.add(method.getName() + ": " + e);
+					}
+				}
+				return null;
+			});
+		} finally {
+			stop.set(true);
+			mutator.join();
+		}
+		assertThat(errors).isEmpty();
+		assertThat(runs.sum() + skips.sum()).isEqualTo((long) THREADS * APPLICATIONS);
+		//Member conditions never skip
+		assertThat(runs.sum()).isGreaterThanOrEqualTo((long) THREADS * APPLICATIONS / methods.size());
+	}
+
+	@Test
+	public void testExpressionCache() throws Exception {
+		String text = "prop['junit.stress.cache." + System.nanoTime() + "'] == 'on'";
+		Set<Expression> compiled = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		concurrently(() -> compiled.add(Expression.compile(text)));
+		assertThat(compiled).hasSize(1);
+	}
+
+	@Test
+	public void testParallelComputer() throws Exception {
+		Class<?>[] classes = new Class<?>[THREADS];
+		Arrays.fill(classes, StressTest.class);
+		AtomicBoolean stop = new AtomicBoolean();
+		Thread mutator = mutator(stop);
+		mutator.start();
+		List<Result> results;
+		try {
+			results = concurrently(() -> new JUnitCore().run(Request.classes(new ParallelComputer(true, true), classes)));
+		} finally {
+			stop.set(true);
+			mutator.join();
+		}
+		for (Result result : results) {
+			assertThat(result.getFailures()).isEmpty();
+			assertThat(result.getRunCount()).isEqualTo(THREADS * 4);
+		}
+	}
+}
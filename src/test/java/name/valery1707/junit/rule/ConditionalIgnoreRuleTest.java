@@ -1,7 +1,9 @@
 package name.valery1707.junit.rule;
 
 import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
 import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.BaseEnvironmentCondition;
 import name.valery1707.junit.rule.utils.TestResult;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -10,7 +12,9 @@ import org.junit.Test;
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static name.valery1707.junit.rule.ConditionalIgnoreRule.INVALID_CLASS_CTOR;
@@ -532,4 +536,127 @@ public class ConditionalIgnoreRuleTest {
 		;
 	}
 	//endregion
+
+	//region RuleConditions
+	public static class RuleConditionsTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(AlwaysRunCondition.class, SkipWithReasonCondition.class);
+
+		@Test
+		public void withoutAnnotation() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = AlwaysSkipCondition.class)
+		public void withAnnotation() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testRuleConditions() {
+		TestResult result = runTest(RuleConditionsTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("withoutAnnotation", "withAnnotation")
+		;
+		assertThat(result.getIgnoredTotally())
+			.describedAs("ignoredTotally")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("withoutAnnotation", "withAnnotation")
+			.allSatisfy((name, failure) ->
+				assertThat(failure.getMessage()).endsWith(": " + SkipWithReasonCondition.MESSAGE)
+			)
+		;
+	}
+	//endregion
+
+	//region Decision
+	private static final AtomicInteger DECISION_READS = new AtomicInteger();
+
+	/**
+	 * Value changes on every read.
+	 */
+	public static class ChangingCondition extends BaseEnvironmentCondition {
+		public ChangingCondition() {
+			super(name -> Optional.of("value-" + DECISION_READS.incrementAndGet()), "changing", "value-0");
+		}
+	}
+
+	public static class ChangingTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void changing() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testDecision() {
+		DECISION_READS.set(0);
+		TestResult result = runTest(ChangingTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("changing")
+			.hasEntrySatisfying("changing", failure -> assertThat(failure.getMessage())
+				.isEqualTo("Ignored by ChangingCondition: Key 'changing' has value 'value-1' which don't match with pattern '^\\Qvalue-0\\E$'")
+			)
+		;
+		assertThat(DECISION_READS).hasValue(1);
+	}
+
+	@Test
+	public void testDecisionLazyReason() {
+		AtomicInteger reasons = new AtomicInteger();
+		IgnoreCondition condition = new IgnoreCondition() {
+			@Override
+			public boolean needSkip() {
+				return true;
+			}
+
+			@Override
+			public String reason() {
+				return "reason-" + reasons.incrementAndGet();
+			}
+		};
+		Decision decision = condition.evaluate();
+		assertThat(decision.isSkip()).isTrue();
+		assertThat(reasons).hasValue(0);
+		assertThat(decision.getReason()).isEqualTo("reason-1");
+		assertThat(decision.getReason()).isEqualTo("reason-1");
+		assertThat(decision.toString()).isEqualTo("skip: reason-1");
+		assertThat(Decision.run().getReason()).isNull();
+		assertThat(Decision.of(false, () -> "unused").isSkip()).isFalse();
+	}
+
+	@Test
+	public void testDecisionFactories() {
+		Decision absent = Decision.skip(null);
+		assertThat(absent.isSkip()).isTrue();
+		assertThat(absent.getReason()).isNull();
+		assertThat(absent.toString()).isEqualTo("skip");
+
+		AtomicInteger calls = new AtomicInteger();
+		Decision lazy = Decision.skipLazily(() -> "lazy-" + calls.incrementAndGet());
+		assertThat(calls).hasValue(0);
+		assertThat(lazy.getReason()).isEqualTo("lazy-1");
+		assertThat(lazy.getReason()).isEqualTo("lazy-1");
+		assertThat(calls).hasValue(1);
+	}
+	//endregion
 }
@@ -0,0 +1,329 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.MethodRule;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalIgnoreRunnerTest {
+	private static final AtomicInteger CURRENT = new AtomicInteger();
+	private static final AtomicInteger MAX = new AtomicInteger();
+	private static final AtomicInteger EVALUATIONS = new AtomicInteger();
+	private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		CURRENT.set(0);
+		MAX.set(0);
+		EVALUATIONS.set(0);
+		INSTANCES.set(0);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(ConditionalIgnoreRunner.PARALLELISM);
+	}
+
+	private static void work() throws InterruptedException {
+		int current = CURRENT.incrementAndGet();
+		MAX.accumulateAndGet(current, Math::max);
+		Thread.sleep(100);
+		CURRENT.decrementAndGet();
+	}
+
+	@RunWith(ConditionalIgnoreRunner.class)
+	public static class RunnerTest {
+		@Test
+		public void run1() throws InterruptedException {
+			work();
+		}
+
+		@Test
+		public void run2() throws InterruptedException {
+			work();
+		}
+
+		@Test
+		public void run3() throws InterruptedException {
+			work();
+		}
+
+		@Test
+		public void run4() throws InterruptedException {
+			work();
+		}
+
+		@Test
+		@ConditionalIgnore(expression = "true")
+		public void skip1() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = MemberCondition.class)
+		public void skip2() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@Ignore
+		public void ignored() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		public class MemberCondition implements ConditionalIgnoreRule.IgnoreCondition {
+			@Override
+			public boolean needSkip() {
+				return true;
+			}
+		}
+	}
+
+	private static class EventListener extends RunListener {
+		private final List<String> events = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void testStarted(Description description) {
+			events.add("started:" + description.getMethodName());
+		}
+
+		@Override
+		public void testAssumptionFailure(Failure failure) {
+			events.add("skipped:" + failure.getDescription().getMethodName());
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "4");
+		EventListener listener = new EventListener();
+		TestResult result = runTest(Request.aClass(RunnerTest.class), listener);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("run1", "run2", "run3", "run4", "skip1", "skip2")
+		;
+		assertThat(result.getIgnoredTotally())
+			.describedAs("ignoredTotally")
+			.containsOnlyKeys("ignored")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("skip1", "skip2")
+			.hasEntrySatisfying("skip2", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by MemberCondition")
+			)
+		;
+		//Skipped tests are reported before start of runnable tests
+		assertThat(listener.events.subList(0, 4))
+			.containsOnly("started:skip1", "skipped:skip1", "started:skip2", "skipped:skip2");
+		assertThat(MAX.get()).isGreaterThan(1);
+	}
+
+	@Test
+	public void testSequential() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "1");
+		TestResult result = runTest(RunnerTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(MAX).hasValue(1);
+	}
+
+	@Test
+	public void testFiltered() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "4");
+		TestResult result = runTest(Request.method(RunnerTest.class, "run1"));
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("run1")
+		;
+	}
+
+	@Test
+	public void testInvalidParallelism() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "0");
+		TestResult result = runTest(RunnerTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("RunnerTest")
+			.hasEntrySatisfying("RunnerTest", failure ->
+				assertThat(failure.getMessage()).contains("must be positive")
+			)
+		;
+	}
+
+	/**
+	 * Runs only for first 2 evaluations.
+	 */
+	public static class ChangingCondition implements ConditionalIgnoreRule.IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			return EVALUATIONS.incrementAndGet() > 2;
+		}
+	}
+
+	@RunWith(ConditionalIgnoreRunner.class)
+	public static class RuleTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		public RuleTest() {
+			INSTANCES.incrementAndGet();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run1() {
+			assertThat(rule).isNotNull();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run2() {
+			assertThat(rule).isNotNull();
+		}
+	}
+
+	@RunWith(ConditionalIgnoreRunner.class)
+	public static class RuleMethodTest {
+		public RuleMethodTest() {
+			INSTANCES.incrementAndGet();
+		}
+
+		@Rule
+		public MethodRule rule() {
+			return new ConditionalIgnoreRule();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run1() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run2() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	/**
+	 * Always skips.
+	 */
+	public static class CountingSkipCondition implements ConditionalIgnoreRule.IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			EVALUATIONS.incrementAndGet();
+			return true;
+		}
+	}
+
+	@RunWith(ConditionalIgnoreRunner.class)
+	public static class WrappedRuleTest {
+		@Rule
+		public ScaledTimeoutRule rule = new ScaledTimeoutRule(new ConditionalIgnoreRule());
+
+		public WrappedRuleTest() {
+			INSTANCES.incrementAndGet();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run1() {
+			assertThat(rule).isNotNull();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ChangingCondition.class)
+		public void run2() {
+			assertThat(rule).isNotNull();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = CountingSkipCondition.class)
+		public void skip() {
+			assertThat(rule).isNotNull();
+		}
+	}
+
+	@Test
+	public void testDecidedOnceByRuleMethod() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "2");
+		TestResult result = runTest(RuleMethodTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("run1", "run2")
+		;
+		assertThat(EVALUATIONS).describedAs("evaluations").hasValue(2);
+		assertThat(INSTANCES).describedAs("instances").hasValue(2);
+	}
+
+	@Test
+	public void testDecidedOnceByWrappedRule() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "2");
+		TestResult result = runTest(WrappedRuleTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("skip")
+			.hasEntrySatisfying("skip", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by CountingSkipCondition")
+			)
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("run1", "run2", "skip")
+		;
+		assertThat(EVALUATIONS).describedAs("evaluations").hasValue(3);
+		assertThat(INSTANCES).describedAs("instances").hasValue(3);
+	}
+
+	@Test
+	public void testDecidedOnce() {
+		System.setProperty(ConditionalIgnoreRunner.PARALLELISM, "2");
+		TestResult result = runTest(RuleTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("run1", "run2")
+		;
+		assertThat(EVALUATIONS).describedAs("evaluations").hasValue(2);
+		assertThat(INSTANCES).describedAs("instances").hasValue(2);
+	}
+}
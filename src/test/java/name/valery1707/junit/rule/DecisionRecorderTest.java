@@ -0,0 +1,144 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DecisionRecorderTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(DecisionRecorder.FILE);
+	}
+
+	private static Description test(int index) {
+		return Description.createTestDescription("com.example.SomeTest", "test" + index);
+	}
+
+	//region Recorder
+	@Test
+	public void testRing() {
+		DecisionRecorder recorder = new DecisionRecorder(3);
+		assertThat(recorder.getCapacity()).isEqualTo(4);
+		assertThat(recorder.getDecisions()).isEmpty();
+		for (int i = 0; i < 6; i++) {
+			recorder.record(test(i), new AlwaysSkipCondition(), i % 2 == 0 ? Decision.run() : Decision.skip("reason " + i));
+		}
+		assertThat(recorder.getRecorded()).isEqualTo(6);
+		List<String> decisions = recorder.getDecisions();
+		assertThat(decisions).hasSize(4);
+		assertThat(decisions.get(0))
+			.contains("[" + Thread.currentThread().getName() + "] com.example.SomeTest#test2 run by " + AlwaysSkipCondition.class.getName());
+		assertThat(decisions.get(3))
+			.endsWith("com.example.SomeTest#test5 skip: reason 5 by " + AlwaysSkipCondition.class.getName());
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> new DecisionRecorder(0))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining(DecisionRecorder.CAPACITY);
+	}
+
+	@Test
+	public void testNoAllocation() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+		DecisionRecorder recorder = new DecisionRecorder(1024);
+		Description test = test(0);
+		AlwaysSkipCondition condition = new AlwaysSkipCondition();
+		Decision decision = Decision.skip("reason");
+		for (int i = 0; i < 100_000; i++) {
+			recorder.record(test, condition, decision);
+		}
+		long thread = Thread.currentThread().getId();
+		long before = allocations.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 100_000; i++) {
+			recorder.record(test, condition, decision);
+		}
+		long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+		//Allow noise of measuring itself, but not a single object per event
+		assertThat(allocated).isLessThan(100_000);
+	}
+
+	@Test
+	public void testDump() throws IOException {
+		DecisionRecorder recorder = new DecisionRecorder(8);
+		recorder.record(test(1), new AlwaysRunCondition(), Decision.run());
+		Path file = temp.getRoot().toPath().resolve("dump/decisions.log");
+		assertThat(recorder.dump(file.toString())).isEqualTo(file.toAbsolutePath().toString());
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+			.hasSize(1)
+			.allSatisfy(line -> assertThat(line).endsWith("com.example.SomeTest#test1 run by " + AlwaysRunCondition.class.getName()));
+		assertThat(recorder.dumpIfConfigured()).isEmpty();
+	}
+	//endregion
+
+	//region Rule
+	public static class RecordedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = AlwaysSkipCondition.class)
+		public void skipped() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = AlwaysRunCondition.class)
+		public void failed() {
+			assertThat("Blank").isBlank();
+		}
+	}
+
+	@Test
+	public void testRule() throws Exception {
+		Path file = temp.getRoot().toPath().resolve("decisions.log");
+		System.setProperty(DecisionRecorder.FILE, file.toString());
+		TestResult result = runTest(Request.aClass(RecordedTest.class), new DecisionDumpListener());
+		assertThat(result.getFailures()).describedAs("failures").containsOnlyKeys("failed");
+
+		String prefix = RecordedTest.class.getName();
+		//Dumped on failure
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+			.anySatisfy(line -> assertThat(line).contains(prefix + "#failed run by " + AlwaysRunCondition.class.getName()));
+		assertThat(DecisionRecorder.shared().getDecisions())
+			.anySatisfy(line -> assertThat(line).contains(prefix + "#skipped skip by " + AlwaysSkipCondition.class.getName()));
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(DecisionRecorder.OBJECT_NAME);
+		assertThat(server.isRegistered(name)).isTrue();
+		assertThat((String[]) server.getAttribute(name, "Decisions"))
+			.anySatisfy(line -> assertThat(line).contains(prefix + "#skipped skip"));
+		Path dump = temp.getRoot().toPath().resolve("jmx.log");
+		server.invoke(name, "dump", new Object[]{dump.toString()}, new String[]{String.class.getName()});
+		assertThat(dump).exists();
+	}
+	//endregion
+}
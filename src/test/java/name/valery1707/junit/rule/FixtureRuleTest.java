@@ -0,0 +1,384 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.FixtureRule.Fixture;
+import name.valery1707.junit.rule.FixtureRule.UsesFixture;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.rules.TestRule;
+import org.junit.runner.Request;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FixtureRuleTest {
+	private static final AtomicInteger STARTS = new AtomicInteger();
+	private static final AtomicInteger STOPS = new AtomicInteger();
+	private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		STARTS.set(0);
+		STOPS.set(0);
+		ACTIVE.set(0);
+	}
+
+	public static class CountingFixture implements Fixture {
+		private volatile boolean started;
+
+		@Override
+		public void start() throws InterruptedException {
+			Thread.sleep(20);
+			STARTS.incrementAndGet();
+			ACTIVE.incrementAndGet();
+			started = true;
+		}
+
+		@Override
+		public void stop() {
+			STOPS.incrementAndGet();
+			ACTIVE.decrementAndGet();
+			started = false;
+		}
+
+		public boolean isStarted() {
+			return started;
+		}
+	}
+
+	public static class FailingFixture implements Fixture {
+		@Override
+		public void start() {
+			throw new IllegalStateException("Fail to start");
+		}
+
+		@Override
+		public void stop() {
+		}
+	}
+
+	public static class FailingStopFixture implements Fixture {
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void stop() {
+			throw new IllegalStateException("Fail to stop");
+		}
+	}
+
+	//region Lazy
+	public static class LazyTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		@UsesFixture(CountingFixture.class)
+		public void uses() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+
+		@Test
+		@UsesFixture(CountingFixture.class)
+		@ConditionalIgnore(expression = "true")
+		public void skipped() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void without() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testLazy() {
+		TestResult result = runTest(LazyTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("skipped")
+		;
+		assertThat(STARTS).hasValue(1);
+		assertThat(STOPS).hasValue(1);
+
+		runTest(LazyTest.class);
+		assertThat(STARTS).hasValue(2);
+		assertThat(STOPS).hasValue(2);
+	}
+
+	public static class AllSkippedTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		@UsesFixture(CountingFixture.class)
+		@ConditionalIgnore(expression = "true")
+		public void skipped1() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@UsesFixture(CountingFixture.class)
+		@ConditionalIgnore(expression = "cores > 0")
+		public void skipped2() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testAllSkipped() {
+		TestResult result = runTest(AllSkippedTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("skipped1", "skipped2")
+		;
+		assertThat(STARTS).hasValue(0);
+		assertThat(STOPS).hasValue(0);
+	}
+
+	public static class NotDeclaredTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void test() {
+			FixtureRule.fixture(CountingFixture.class);
+		}
+	}
+
+	@Test
+	public void testNotDeclared() {
+		TestResult result = runTest(NotDeclaredTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("test")
+			.hasEntrySatisfying("test", failure ->
+				assertThat(failure.getMessage()).contains("is not started, declare it in @UsesFixture")
+			)
+		;
+	}
+
+	@UsesFixture(FailingFixture.class)
+	public static class FailingTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void test() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testFailing() {
+		TestResult result = runTest(FailingTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("test")
+			.hasEntrySatisfying("test", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Fail to start")
+			)
+		;
+	}
+
+	@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+	@UsesFixture(FailingStopFixture.class)
+	public static class SkippedStopTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void a_runs() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(expression = "true")
+		public void b_skipped() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testSkippedStopFailure() {
+		TestResult result = runTest(SkippedStopTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("b_skipped")
+			.hasEntrySatisfying("b_skipped", failure ->
+				assertThat(failure.getException())
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessage("Fail to stop")
+			)
+		;
+	}
+	//endregion
+
+	//region Filtered
+	@UsesFixture(CountingFixture.class)
+	public static class FilteredRuleTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void first() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+
+		@Test
+		public void second() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+	}
+
+	@Test
+	public void testFilteredWithoutClassScope() throws Exception {
+		TestResult result = runTest(Request.method(FilteredRuleTest.class, "first"));
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("first")
+		;
+		assertThat(STARTS).hasValue(1);
+		assertThat(STOPS).describedAs("stopped only at JVM shutdown").hasValue(0);
+		assertThat(ACTIVE).hasValue(1);
+		FixtureRule.finished(FilteredRuleTest.class);
+		assertThat(STOPS).hasValue(1);
+	}
+
+	@UsesFixture(CountingFixture.class)
+	public static class FilteredClassScopeTest {
+		@ClassRule
+		public static TestRule fixtures = FixtureRule.classScope();
+
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void first() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+
+		@Test
+		public void second() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+	}
+
+	@Test
+	public void testFilteredClassScope() {
+		TestResult result = runTest(Request.method(FilteredClassScopeTest.class, "second"));
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("second")
+		;
+		assertThat(STARTS).hasValue(1);
+		assertThat(STOPS).hasValue(1);
+		assertThat(ACTIVE).hasValue(0);
+
+		runTest(FilteredClassScopeTest.class);
+		assertThat(STARTS).hasValue(2);
+		assertThat(STOPS).hasValue(2);
+	}
+
+	@RunWith(ConditionalIgnoreRunner.class)
+	@UsesFixture(CountingFixture.class)
+	public static class FilteredRunnerTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		@Test
+		public void first() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+
+		@Test
+		public void second() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+		}
+	}
+
+	@Test
+	public void testFilteredRunner() {
+		TestResult result = runTest(Request.method(FilteredRunnerTest.class, "first"));
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("first")
+		;
+		assertThat(STARTS).hasValue(1);
+		assertThat(STOPS).hasValue(1);
+		assertThat(ACTIVE).hasValue(0);
+	}
+	//endregion
+
+	//region Parallel
+	@UsesFixture(CountingFixture.class)
+	public static class ParallelTest {
+		@Rule
+		public FixtureRule rule = new FixtureRule();
+
+		private void check() {
+			assertThat(FixtureRule.fixture(CountingFixture.class).isStarted()).isTrue();
+			assertThat(ACTIVE).hasValue(1);
+		}
+
+		@Test
+		public void test1() {
+			check();
+		}
+
+		@Test
+		public void test2() {
+			check();
+		}
+
+		@Test
+		public void test3() {
+			check();
+		}
+
+		@Test
+		public void test4() {
+			check();
+		}
+
+		@Test
+		public void test5() {
+			check();
+		}
+
+		@Test
+		public void test6() {
+			check();
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		TestResult result = runTest(Request.classes(ParallelComputer.methods(), ParallelTest.class));
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.hasSize(6)
+		;
+		assertThat(STARTS).hasValue(1);
+		assertThat(STOPS).hasValue(1);
+	}
+	//endregion
+}
@@ -0,0 +1,109 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.history.DurationRecorder;
+import name.valery1707.junit.rule.history.DurationStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistorySorterTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	public static class SortedTest {
+		static boolean fail;
+
+		@Test
+		public void alpha() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void bravo() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void charlie() {
+			assertThat(fail).isFalse();
+		}
+
+		@Test
+		public void delta() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	private static List<String> order(Class<?> type, HistorySorter sorter) {
+		return Request.aClass(type).sortWith(sorter).getRunner().getDescription().getChildren()
+			.stream()
+			.map(Description::getMethodName)
+			.collect(Collectors.toList());
+	}
+
+	private Path durations() throws IOException {
+		String name = SortedTest.class.getName();
+		Path path = temp.newFile("durations.properties").toPath();
+		Files.write(path, Arrays.asList(
+			name + "#alpha=3000",
+			name + "#bravo=10",
+			name + "#charlie=5000",
+			name + "#delta=200"
+		), StandardCharsets.UTF_8);
+		return path;
+	}
+
+	@Test
+	public void testEmpty() {
+		assertThat(order(SortedTest.class, new HistorySorter(DurationHistory.EMPTY)))
+			.containsExactly("alpha", "bravo", "charlie", "delta")
+		;
+	}
+
+	@Test
+	public void testDurations() throws IOException {
+		//Order of durations differs from order of names
+		assertThat(order(SortedTest.class, new HistorySorter(DurationHistory.loadText(durations()))))
+			.containsExactly("bravo", "delta", "alpha", "charlie")
+		;
+	}
+
+	@Test
+	public void testFailures() throws IOException {
+		Path path = temp.getRoot().toPath().resolve("durations.bin");
+		SortedTest.fail = true;
+		try {
+			runTest(Request.aClass(SortedTest.class), new DurationRecorder(path));
+		} finally {
+			SortedTest.fail = false;
+		}
+		assertThat(order(SortedTest.class, new HistorySorter(DurationStore.open(path))).get(0))
+			.isEqualTo("charlie")
+		;
+	}
+
+	@Test
+	public void testSuite() throws IOException {
+		HistorySorter sorter = new HistorySorter(DurationHistory.loadText(durations()));
+		List<String> classes = Request.classes(SortedTest.class, ConditionalIgnoreRuleTest.OnlyRunTest.class).sortWith(sorter)
+			.getRunner().getDescription().getChildren()
+			.stream()
+			.map(Description::getClassName)
+			.collect(Collectors.toList());
+		assertThat(classes).containsExactly(ConditionalIgnoreRuleTest.OnlyRunTest.class.getName(), SortedTest.class.getName());
+	}
+}
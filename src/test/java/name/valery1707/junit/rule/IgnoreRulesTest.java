@@ -0,0 +1,175 @@
+package name.valery1707.junit.rule;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IgnoreRulesTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(IgnoreRules.FILE);
+		System.clearProperty("IgnoreRulesProperty");
+	}
+
+	private Path rules(String... lines) throws IOException {
+		Path path = temp.newFile().toPath();
+		Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+		System.setProperty(IgnoreRules.FILE, path.toString());
+		return path;
+	}
+
+	public static class RulesTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		public void byClass() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void byProperty() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = AlwaysRunCondition.class)
+		public void byAnnotation() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void notMatched() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testWithoutRules() {
+		TestResult result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testRules() throws IOException {
+		rules(
+			"# Comment",
+			"*RulesTest#byClass = " + AlwaysSkipCondition.class.getName(),
+			"*RulesTest#by*     = runIf-prop:IgnoreRulesProperty=^\\d+$",
+			"*.UnknownTest      = " + AlwaysSkipCondition.class.getName()
+		);
+		System.setProperty("IgnoreRulesProperty", "text");
+		TestResult result = runTest(RulesTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("byClass", "byProperty", "byAnnotation", "notMatched")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("byClass", "byProperty", "byAnnotation")
+			.hasEntrySatisfying("byClass", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by " + AlwaysSkipCondition.class.getSimpleName())
+			)
+			.hasEntrySatisfying("byProperty", failure ->
+				assertThat(failure.getMessage()).contains("IgnoreRulesProperty").contains("text")
+			)
+		;
+
+		System.setProperty("IgnoreRulesProperty", "17");
+		result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("byClass")
+		;
+	}
+
+	@Test
+	public void testWholeClass() throws IOException {
+		rules(RulesTest.class.getName() + " = runIf-prop:IgnoreRulesProperty");
+		TestResult result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("byClass", "byProperty", "byAnnotation", "notMatched")
+		;
+		System.setProperty("IgnoreRulesProperty", "");
+		result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testExpression() throws IOException {
+		rules(RulesTest.class.getName() + "#byClass = skipIf-expr:prop.IgnoreRulesProperty == 'expr' || cores < 1");
+		TestResult result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+		System.setProperty("IgnoreRulesProperty", "expr");
+		result = runTest(RulesTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("byClass")
+		;
+	}
+
+	@Test
+	public void testInvalid() throws IOException {
+		Path unknown = rules("* = com.example.Unknown");
+		assertThatThrownBy(() -> IgnoreRules.load(unknown))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Unknown condition class 'com.example.Unknown'")
+			.hasMessageEndingWith(":1")
+		;
+		Path notCondition = rules("", "* = java.lang.String");
+		assertThatThrownBy(() -> IgnoreRules.load(notCondition))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining(":2 does not implement")
+		;
+		Path noTarget = rules("*");
+		assertThatThrownBy(() -> IgnoreRules.load(noTarget))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("expected 'pattern = target'")
+		;
+		Path invalidExpression = rules("* = skipIf-expr:cores <");
+		assertThatThrownBy(() -> IgnoreRules.load(invalidExpression))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Invalid expression 'cores <'")
+			.hasMessageEndingWith(":1")
+		;
+		Path ambiguous = rules("* = env:CI=true");
+		assertThatThrownBy(() -> IgnoreRules.load(ambiguous))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("does not declare polarity: use 'runIf-env:CI=true'")
+		;
+		assertThat(runTest(RulesTest.class).getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("RulesTest")
+		;
+	}
+}
@@ -0,0 +1,231 @@
+package name.valery1707.junit.rule.change;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.condition.ChangeCondition;
+import name.valery1707.junit.rule.condition.TestId;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChangeIndexTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(ChangeCondition.ENABLED);
+		System.clearProperty(ChangeIndex.FILE);
+	}
+
+	private static final String DEPENDENCY = "com.example.Dependency";
+	private static final String OTHER = "com.example.Other";
+
+	private Path classes;
+
+	private ClassLoader classes(String dependency, String other) throws IOException {
+		if (classes == null) {
+			classes = temp.newFolder("classes").toPath();
+			Files.createDirectories(classes.resolve("com/example"));
+		}
+		Files.write(classes.resolve("com/example/Dependency.class"), dependency.getBytes(StandardCharsets.UTF_8));
+		Files.write(classes.resolve("com/example/Other.class"), other.getBytes(StandardCharsets.UTF_8));
+		return new URLClassLoader(new URL[]{classes.toUri().toURL()}, null);
+	}
+
+	private static ChangeIndex.Run run(boolean passed, int... classes) {
+		BitSet set = new BitSet();
+		Arrays.stream(classes).forEach(set::set);
+		return new ChangeIndex.Run(set, passed);
+	}
+
+	private static Map<Long, ChangeIndex.Run> runs(Object... idAndRun) {
+		Map<Long, ChangeIndex.Run> runs = new HashMap<>();
+		for (int i = 0; i < idAndRun.length; i += 2) {
+			runs.put(((Number) idAndRun[i]).longValue(), (ChangeIndex.Run) idAndRun[i + 1]);
+		}
+		return runs;
+	}
+
+	//region Index
+	@Test
+	public void testIndex() throws IOException {
+		Path path = temp.getRoot().toPath().resolve("index.bin");
+		ClassLoader loader = classes("v1", "v1");
+		ChangeIndex
+			.merge(null, Arrays.asList(DEPENDENCY, OTHER), runs(
+				1, run(true, 0),
+				2, run(true, 0, 1),
+				3, run(false, 0, 1)
+			), loader)
+			.write(path);
+
+		ChangeIndex index = ChangeIndex.read(path);
+		assertThat(index).isNotNull();
+		assertThat(index.getTests()).isEqualTo(3);
+		assertThat(index.dependencies(1)).isEqualTo(1);
+		assertThat(index.dependencies(2)).isEqualTo(2);
+		assertThat(index.dependencies(42)).isEqualTo(-1);
+
+		BitSet changed = index.changed(loader);
+		assertThat(changed.isEmpty()).isTrue();
+		assertThat(index.isUnchanged(1, changed)).isTrue();
+		assertThat(index.isUnchanged(2, changed)).isTrue();
+		assertThat(index.isUnchanged(3, changed)).describedAs("failed test").isFalse();
+		assertThat(index.isUnchanged(42, changed)).describedAs("unknown test").isFalse();
+
+		loader = classes("v1", "v2");
+		changed = index.changed(loader);
+		assertThat(index.isUnchanged(1, changed)).isTrue();
+		assertThat(index.isUnchanged(2, changed)).isFalse();
+
+		ChangeIndex merged = ChangeIndex.merge(index, Collections.singletonList(OTHER), runs(4, run(true, 0)), loader);
+		assertThat(merged.getTests()).describedAs("outdated and failed tests are dropped").isEqualTo(2);
+		changed = merged.changed(loader);
+		assertThat(merged.isUnchanged(1, changed)).isTrue();
+		assertThat(merged.isUnchanged(2, changed)).isFalse();
+		assertThat(merged.isUnchanged(4, changed)).isTrue();
+		assertThat(merged.dependencies(1)).isEqualTo(1);
+		assertThat(merged.dependencies(4)).isEqualTo(1);
+	}
+
+	@Test
+	public void testRecorder() throws IOException {
+		Path path = temp.getRoot().toPath().resolve("recorder.bin");
+		String prefix = "com.example.Recorded" + System.nanoTime();
+		Description first = Description.createTestDescription(prefix + "Test", "first");
+		Description second = Description.createTestDescription(prefix + "Test", "second");
+		ClassTracker.activate();
+		ClassTracker.loaded(prefix + "Test");
+		ChangeRecorder recorder = new ChangeRecorder(path);
+		recorder.testStarted(first);
+		ClassTracker.loaded(prefix + "First1");
+		ClassTracker.loaded(prefix + "First2");
+		recorder.testFinished(first);
+		recorder.testStarted(second);
+		ClassTracker.loaded(prefix + "Second");
+		recorder.testFinished(second);
+		recorder.testRunFinished(null);
+
+		//All classes loaded up to finish of test
+		ChangeIndex index = ChangeIndex.read(path);
+		assertThat(index).isNotNull();
+		assertThat(index.dependencies(TestId.hash(first))).isEqualTo(ClassTracker.index(prefix + "First2") + 1);
+		assertThat(index.dependencies(TestId.hash(second))).isEqualTo(ClassTracker.index(prefix + "Second") + 1);
+	}
+
+	@Test
+	public void testSharedDependency() throws IOException {
+		Path path = temp.getRoot().toPath().resolve("shared.bin");
+		String name = "Shared" + System.nanoTime();
+		Path file = temp.newFolder("shared").toPath().resolve(name + ".class");
+		Files.write(file, "v1".getBytes(StandardCharsets.UTF_8));
+		ClassLoader loader = new URLClassLoader(new URL[]{file.getParent().toUri().toURL()}, null);
+		Description first = Description.createTestDescription(name + "Test", "first");
+		Description second = Description.createTestDescription(name + "Test", "second");
+
+		ClassTracker.activate();
+		ChangeRecorder recorder = new ChangeRecorder(path);
+		recorder.testStarted(first);
+		//Helper is loaded by first test and only used by second one
+		ClassTracker.loaded(name);
+		recorder.testFinished(first);
+		recorder.testStarted(second);
+		recorder.testFinished(second);
+		Thread thread = Thread.currentThread();
+		ClassLoader context = thread.getContextClassLoader();
+		thread.setContextClassLoader(loader);
+		try {
+			recorder.testRunFinished(null);
+		} finally {
+			thread.setContextClassLoader(context);
+		}
+
+		ChangeIndex index = ChangeIndex.read(path);
+		assertThat(index).isNotNull();
+		BitSet changed = index.changed(loader);
+		assertThat(index.isUnchanged(TestId.hash(first), changed)).isTrue();
+		assertThat(index.isUnchanged(TestId.hash(second), changed)).isTrue();
+
+		Files.write(file, "v2".getBytes(StandardCharsets.UTF_8));
+		changed = index.changed(loader);
+		assertThat(index.isUnchanged(TestId.hash(first), changed)).describedAs("first").isFalse();
+		assertThat(index.isUnchanged(TestId.hash(second), changed)).describedAs("second").isFalse();
+	}
+
+	@Test
+	public void testMissing() {
+		assertThat(ChangeIndex.read(temp.getRoot().toPath().resolve("index.bin"))).isNull();
+	}
+	//endregion
+
+	//region Condition
+	public static class TrackedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(ChangeCondition.class);
+
+		@Test
+		public void passed() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void failed() {
+			assertThat("Blank").isBlank();
+		}
+	}
+
+	@Test
+	public void testCondition() {
+		Path path = temp.getRoot().toPath().resolve("recorded.bin");
+		ClassTracker.activate();
+		ClassTracker.loaded(TrackedTest.class.getName());
+		runTest(Request.aClass(TrackedTest.class), new ChangeRecorder(path));
+
+		ChangeIndex index = ChangeIndex.read(path);
+		assertThat(index).isNotNull();
+		long passed = TestId.hash(TestId.of(TrackedTest.class.getName(), "passed"));
+		assertThat(index.dependencies(passed)).isGreaterThanOrEqualTo(1);
+
+		System.setProperty(ChangeIndex.FILE, path.toString());
+		TestResult result = runTest(TrackedTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+
+		System.setProperty(ChangeCondition.ENABLED, "true");
+		result = runTest(TrackedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("failed")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("passed")
+			.hasEntrySatisfying("passed", failure ->
+				assertThat(failure.getMessage()).contains("none of its").contains("dependencies changed")
+			)
+		;
+	}
+	//endregion
+}
@@ -191,4 +191,64 @@ public class BaseEnvironmentConditionTest {
 		;
 	}
 	//endregion
+
+	//region Override
+	public static class OverrideTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		/**
+		 * Condition from times before {@code evaluate()}: runs without value too.
+		 */
+		public static class OptionalCondition extends BaseEnvironmentCondition {
+			public OptionalCondition() {
+				super(StandardSource.Properties, "PreciselyUnknownValue", "Known");
+			}
+
+			@Override
+			public boolean needRun() {
+				return System.getProperty("PreciselyUnknownValue") == null || super.needRun();
+			}
+		}
+
+		public static class ReasonCondition extends BaseEnvironmentCondition {
+			public ReasonCondition() {
+				super(StandardSource.Properties, "PreciselyUnknownValue", "Known");
+			}
+
+			@Override
+			public String reason() {
+				return "Custom reason";
+			}
+		}
+
+		@Test
+		@ConditionalIgnoreRule.ConditionalIgnore(condition = OptionalCondition.class)
+		public void optional() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnoreRule.ConditionalIgnore(condition = ReasonCondition.class)
+		public void reason() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testOverride() {
+		TestResult result = runTest(OverrideTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("reason")
+			.hasEntrySatisfying("reason", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by ReasonCondition: Custom reason")
+			)
+		;
+	}
+	//endregion
 }
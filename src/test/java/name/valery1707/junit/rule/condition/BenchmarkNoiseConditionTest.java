@@ -0,0 +1,154 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.BenchmarkRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BenchmarkNoiseConditionTest {
+	private static final AtomicInteger RUNS = new AtomicInteger();
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Before
+	@After
+	public void tearDown() {
+		System.clearProperty(BenchmarkRule.BASELINE);
+		System.clearProperty(BenchmarkRule.UPDATE);
+		RUNS.set(0);
+	}
+
+	//region Noise
+	@Test
+	public void testJvm() {
+		assertThat(BenchmarkNoiseCondition.jvm(
+			Arrays.asList("-Xmx1g", "-javaagent:/repo/agent.jar=destfile=jacoco.exec", "-XX:TieredStopAtLevel=4"),
+			"HotSpot 64-Bit Tiered Compilers", "OpenJDK 64-Bit Server VM"
+		)).isEmpty();
+		assertThat(BenchmarkNoiseCondition.jvm(
+			Arrays.asList(
+				"-Xdebug", "-agentlib:jdwp=transport=dt_socket,server=y",
+				"-javaagent:/repo/org.jacoco.agent-0.8.2-runtime.jar=destfile=jacoco.exec",
+				"-XX:TieredStopAtLevel=1"
+			),
+			"HotSpot 64-Bit Tiered Compilers", "OpenJDK 64-Bit Server VM"
+		)).containsExactly("debugger attached", "coverage agent jacoco", "JIT stops at level 1");
+		assertThat(BenchmarkNoiseCondition.jvm(Collections.singletonList("-Xint"), null, "OpenJDK 64-Bit Server VM"))
+			.containsExactly("interpreted mode");
+		assertThat(BenchmarkNoiseCondition.jvm(Collections.emptyList(), null, "Java HotSpot(TM) Client VM"))
+			.containsExactly("no JIT compiler", "client VM without C2");
+	}
+
+	@Test
+	public void testLoad() {
+		assertThat(BenchmarkNoiseCondition.load(-1, 4, 1.0)).isEmpty();
+		assertThat(BenchmarkNoiseCondition.load(3.9, 4, 1.0)).isEmpty();
+		assertThat(BenchmarkNoiseCondition.load(10, 4, 1.0)).containsExactly("load 2.50 per processor over 1.00");
+	}
+	//endregion
+
+	//region Rule
+	public static class BenchmarkTest {
+		@Rule
+		public BenchmarkRule rule = new BenchmarkRule(new ConditionalIgnoreRule());
+
+		@Test
+		@Benchmark(warmup = 2, iterations = 5)
+		public void benchmark() throws InterruptedException {
+			RUNS.incrementAndGet();
+			Thread.sleep(1);
+		}
+
+		@Test
+		public void plain() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testMeasureOnly() {
+		TestResult result = runTest(BenchmarkTest.class);
+		assertThat(result.getFailures()).describedAs("failures").isEmpty();
+		assertThat(RUNS).hasValue(7);
+	}
+
+	@Test
+	public void testBaseline() throws IOException {
+		Path directory = temp.getRoot().toPath().resolve("baselines");
+		Path baseline = directory.resolve(TestId.of(BenchmarkTest.class.getName(), "benchmark") + ".properties");
+		System.setProperty(BenchmarkRule.BASELINE, directory.toString());
+
+		//Record
+		assertThat(runTest(BenchmarkTest.class).getFailures()).describedAs("failures").isEmpty();
+		assertThat(baseline).exists();
+		assertThat(new String(Files.readAllBytes(baseline), StandardCharsets.UTF_8)).contains("count=5", "p50=", "p99=");
+
+		//Regression
+		Files.write(baseline, "p50=1\n".getBytes(StandardCharsets.UTF_8));
+		TestResult result = runTest(BenchmarkTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("benchmark")
+			.hasEntrySatisfying("benchmark", failure -> assertThat(failure.getMessage())
+				.startsWith("Benchmark regression: p50 latency ")
+				.contains("exceeds baseline 1 ns by more than 20% (count=5")
+			)
+		;
+
+		//Update
+		System.setProperty(BenchmarkRule.UPDATE, "true");
+		assertThat(runTest(BenchmarkTest.class).getFailures()).describedAs("failures").isEmpty();
+		System.clearProperty(BenchmarkRule.UPDATE);
+		assertThat(runTest(BenchmarkTest.class).getFailures()).describedAs("failures").isEmpty();
+	}
+
+	public static class NoisyTest {
+		@Rule
+		public BenchmarkRule rule = new BenchmarkRule();
+
+		@Test
+		@Benchmark
+		public void benchmark() {
+			RUNS.incrementAndGet();
+		}
+	}
+
+	@Test
+	public void testNoisy() {
+		//Load average is not available on Windows
+		Assume.assumeTrue(ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage() >= 0);
+		System.setProperty(BenchmarkNoiseCondition.LOAD, "-1");
+		try {
+			TestResult result = runTest(NoisyTest.class);
+			assertThat(result.getIgnoredByAssumption())
+				.describedAs("ignoredByAssumption")
+				.containsOnlyKeys("benchmark")
+				.hasEntrySatisfying("benchmark", failure -> assertThat(failure.getMessage())
+					.startsWith("Ignored by BenchmarkNoiseCondition: Noisy environment: ")
+				)
+			;
+			assertThat(RUNS).hasValue(0);
+		} finally {
+			System.clearProperty(BenchmarkNoiseCondition.LOAD);
+		}
+	}
+	//endregion
+}
@@ -0,0 +1,153 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ClasspathConditionTest {
+	private static volatile boolean initialized;
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		ClasspathIndex.reset();
+	}
+
+	private static void jar(Path path, String classPath, String... entries) throws IOException {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		if (classPath != null) {
+			manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+		}
+		try (OutputStream stream = Files.newOutputStream(path); JarOutputStream jar = new JarOutputStream(stream, manifest)) {
+			for (String entry : entries) {
+				jar.putNextEntry(new JarEntry(entry));
+				jar.closeEntry();
+			}
+		}
+	}
+
+	//region Index
+	@Test
+	public void testIndex() throws IOException {
+		Path classes = temp.newFolder("classes").toPath();
+		Files.createDirectories(classes.resolve("com/example"));
+		Files.createFile(classes.resolve("com/example/Outer$Inner.class"));
+		Path library = temp.getRoot().toPath().resolve("lib with space.jar");
+		jar(library, null, "org/driver/", "org/driver/Driver.class", "META-INF/services/java.sql.Driver");
+		Path manifestOnly = temp.getRoot().toPath().resolve("manifest.jar");
+		jar(manifestOnly, "classes/ lib%20with%20space.jar absent.jar");
+
+		ClasspathIndex index = ClasspathIndex.build(
+			Arrays.asList(manifestOnly, temp.getRoot().toPath().resolve("absent")),
+			null
+		);
+		assertThat(index.containsClass("com.example.Outer$Inner")).isTrue();
+		assertThat(index.containsClass("org.driver.Driver")).isTrue();
+		assertThat(index.containsResource("META-INF/services/java.sql.Driver")).isTrue();
+		assertThat(index.containsResource("/META-INF/services/java.sql.Driver")).isTrue();
+		assertThat(index.containsResource("org/driver/")).isFalse();
+		assertThat(index.containsClass("org.driver.Absent")).isFalse();
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	public void testFallback() {
+		ClasspathIndex index = ClasspathIndex.build(Collections.emptyList(), getClass().getClassLoader());
+		assertThat(index.size()).isZero();
+		assertThat(index.containsClass(String.class.getName())).isTrue();
+		assertThat(index.containsClass("org.driver.Absent")).isFalse();
+	}
+
+	@Test
+	public void testInvalidJar() throws IOException {
+		Path invalid = temp.newFile("invalid.jar").toPath();
+		Files.write(invalid, new byte[]{1, 2, 3});
+		assertThatThrownBy(() -> ClasspathIndex.build(Collections.singletonList(invalid), null))
+			.hasMessageContaining("Fail to read classpath jar");
+	}
+
+	public static class Sentinel {
+		static {
+			initialized = true;
+		}
+	}
+
+	@Test
+	public void testShared() {
+		ClasspathIndex index = ClasspathIndex.shared();
+		assertThat(ClasspathIndex.shared()).isSameAs(index);
+		assertThat(index.containsClass(ClasspathConditionTest.class.getName() + "$Sentinel")).isTrue();
+		assertThat(index.containsClass(Test.class.getName())).isTrue();
+		assertThat(initialized).isFalse();
+	}
+	//endregion
+
+	//region Condition
+	public static class PresentCondition extends ClasspathCondition {
+		public PresentCondition() {
+			super(Test.class.getName(), "org/junit/Rule.class");
+		}
+	}
+
+	public static class AbsentCondition extends ClasspathCondition {
+		public AbsentCondition() {
+			super(Test.class.getName(), "org.driver.Absent", "META-INF/absent.properties");
+		}
+	}
+
+	public static class PresenceTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = PresentCondition.class)
+		public void present() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = AbsentCondition.class)
+		public void absent() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testCondition() {
+		TestResult result = runTest(PresenceTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("absent")
+			.hasEntrySatisfying("absent", failure -> assertThat(failure.getMessage())
+				.isEqualTo("Ignored by AbsentCondition: Absent in classpath: org.driver.Absent, META-INF/absent.properties")
+			)
+		;
+	}
+	//endregion
+}
@@ -0,0 +1,216 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompositeConditionTest {
+	private static final AtomicInteger SLOW = new AtomicInteger();
+	private static final AtomicInteger FAST = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		ConditionCost.reset();
+		SLOW.set(0);
+		FAST.set(0);
+	}
+
+	private static void spin(long millis) {
+		long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		while (System.nanoTime() < end) {
+			Thread.yield();
+		}
+	}
+
+	public static class SlowSkip implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			SLOW.incrementAndGet();
+			spin(2);
+			return true;
+		}
+	}
+
+	public static class FastSkip implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			FAST.incrementAndGet();
+			return true;
+		}
+
+		@Override
+		public String reason() {
+			return "fast";
+		}
+	}
+
+	public static class SlowRun implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			SLOW.incrementAndGet();
+			spin(2);
+			return false;
+		}
+	}
+
+	public static class FastRun implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			FAST.incrementAndGet();
+			return false;
+		}
+	}
+
+	//region Semantics
+	@Test
+	public void testAnyOf() {
+		assertThat(new AnyOf(FastRun.class, FastRun.class).needSkip()).isFalse();
+		AnyOf anyOf = new AnyOf(FastRun.class, FastSkip.class);
+		assertThat(anyOf.needSkip()).isTrue();
+		assertThat(anyOf.reason()).isEqualTo("FastSkip: fast");
+	}
+
+	@Test
+	public void testAllOf() {
+		assertThat(new AllOf(FastRun.class, FastSkip.class).needSkip()).isFalse();
+		AllOf allOf = new AllOf(new FastSkip(), new Not(FastRun.class));
+		assertThat(allOf.needSkip()).isTrue();
+		assertThat(allOf.reason()).isEqualTo("All of: FastSkip: fast and Not: Not FastRun");
+	}
+
+	@Test
+	public void testNot() {
+		assertThat(new Not(FastRun.class).needSkip()).isTrue();
+		assertThat(new Not(new FastSkip()).needSkip()).isFalse();
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> new AnyOf(new IgnoreCondition[0]))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("at least one condition");
+		assertThatThrownBy(() -> new AnyOf(IgnoreCondition.class))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Fail to instantiate class");
+	}
+	//endregion
+
+	//region Ordering
+	@Test
+	public void testAnyOfOrdering() {
+		for (int i = 0; i < 5; i++) {
+			assertThat(new AnyOf(SlowSkip.class, FastSkip.class).needSkip()).isTrue();
+		}
+		assertThat(SLOW).hasValue(1);
+		assertThat(FAST).hasValue(4);
+		assertThat(ConditionCost.of(SlowSkip.class).rank(true))
+			.isGreaterThan(ConditionCost.of(FastSkip.class).rank(true));
+	}
+
+	@Test
+	public void testAllOfOrdering() {
+		for (int i = 0; i < 5; i++) {
+			assertThat(new AllOf(SlowRun.class, FastRun.class).needSkip()).isFalse();
+		}
+		assertThat(SLOW).hasValue(1);
+		assertThat(FAST).hasValue(4);
+	}
+
+	@Test
+	public void testSelectivity() {
+		for (int i = 0; i < 5; i++) {
+			assertThat(new AnyOf(FastRun.class, SlowSkip.class).needSkip()).isTrue();
+		}
+		assertThat(ConditionCost.of(FastRun.class).getEvaluations()).isEqualTo(5);
+		assertThat(ConditionCost.of(FastRun.class).getSkips()).isEqualTo(0);
+		assertThat(ConditionCost.of(SlowSkip.class).getSkips()).isEqualTo(5);
+
+		ConditionCost.reset();
+		assertThat(ConditionCost.of(FastRun.class).getEvaluations()).isEqualTo(0);
+		assertThat(ConditionCost.of(FastRun.class)).isSameAs(ConditionCost.of(FastRun.class));
+	}
+
+	@Test
+	public void testStateless() {
+		AnyOf condition = new AnyOf(FastRun.class, FastSkip.class);
+		ConditionalIgnoreRule.Decision first = condition.evaluate();
+		ConditionalIgnoreRule.Decision second = condition.evaluate();
+		assertThat(first).isNotSameAs(second);
+		assertThat(first.getReason()).isEqualTo("FastSkip: fast");
+		assertThat(condition.reason()).isEqualTo("FastSkip: fast");
+	}
+
+	public static class RepeatedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = FastSkip.class)
+		@ConditionalIgnore(condition = SlowSkip.class)
+		public void test() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testRuleOrdering() {
+		for (int i = 0; i < 5; i++) {
+			TestResult result = runTest(RepeatedTest.class);
+			assertThat(result.getFailures())
+				.describedAs("failures")
+				.isEmpty()
+			;
+			assertThat(result.getIgnoredByAssumption())
+				.describedAs("ignoredByAssumption")
+				.containsOnlyKeys("test")
+				.hasEntrySatisfying("test", failure ->
+					assertThat(failure.getMessage()).isEqualTo("Ignored by FastSkip: fast")
+				)
+			;
+		}
+		//Slow condition is evaluated only once for measuring
+		assertThat(SLOW).hasValue(1);
+		assertThat(FAST).hasValue(5);
+	}
+
+	public static class DeclaredSlowFirstTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = SlowSkip.class)
+		@ConditionalIgnore(condition = FastSkip.class)
+		public void test() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testRuleReasonInDeclaredOrder() {
+		for (int i = 0; i < 5; i++) {
+			TestResult result = runTest(DeclaredSlowFirstTest.class);
+			assertThat(result.getIgnoredByAssumption())
+				.describedAs("ignoredByAssumption")
+				.containsOnlyKeys("test")
+				.hasEntrySatisfying("test", failure ->
+					assertThat(failure.getMessage()).isEqualTo("Ignored by SlowSkip")
+				)
+			;
+		}
+		//Cheaper condition is evaluated first, but reason is reported by the first declared skipping condition
+		assertThat(SLOW).hasValue(5);
+		assertThat(FAST).hasValue(4);
+	}
+	//endregion
+}
@@ -0,0 +1,207 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CostBudgetConditionTest {
+	@Before
+	@After
+	public void tearDown() {
+		System.clearProperty(CostPlanner.BUDGET);
+		CostPlanner.finishRun();
+	}
+
+	public static class SelectionTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@Cost(5)
+		@Value(10)
+		@ConditionalIgnore(condition = CostBudgetCondition.class)
+		public void first() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@Cost(5)
+		@Value(10)
+		@ConditionalIgnore(condition = CostBudgetCondition.class)
+		public void second() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@Cost(6)
+		@Value(13)
+		@ConditionalIgnore(condition = CostBudgetCondition.class)
+		public void dense() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = CostBudgetCondition.class)
+		public void free() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@Cost(100)
+		@ConditionalIgnore(condition = CostBudgetCondition.class)
+		public void expensive() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	private static List<Description> tests() {
+		return Request.aClass(SelectionTest.class).getRunner().getDescription().getChildren();
+	}
+
+	private static String id(String method) {
+		return TestId.of(SelectionTest.class.getName(), method);
+	}
+
+	//region Planner
+	@Test
+	public void testExact() {
+		CostPlanner.Plan plan = CostPlanner.plan(tests(), 10);
+		assertThat(plan.isExact()).isTrue();
+		assertThat(plan.getSelected()).containsOnly(id("first"), id("second"));
+		assertThat(plan.getCost()).isEqualTo(10);
+		assertThat(plan.getValue()).isEqualTo(20);
+		assertThat(plan.toString()).isEqualTo("2 tests with cost 10 of budget 10 and value 20 (optimal)");
+	}
+
+	@Test
+	public void testGreedy() {
+		CostPlanner.Plan plan = CostPlanner.plan(tests(), 10, 0);
+		assertThat(plan.isExact()).isFalse();
+		assertThat(plan.getSelected()).containsOnly(id("dense"));
+		assertThat(plan.getValue()).isEqualTo(13);
+	}
+
+	private static Description costly(String method, long cost) {
+		return Description.createTestDescription(SelectionTest.class, method, new Cost() {
+			@Override
+			public long value() {
+				return cost;
+			}
+
+			@Override
+			public Class<? extends Annotation> annotationType() {
+				return Cost.class;
+			}
+		});
+	}
+
+	@Test
+	public void testHugeBudget() {
+		//Nothing to plan
+		CostPlanner.Plan empty = CostPlanner.plan(Collections.singletonList(costly("free", 0)), Long.MAX_VALUE);
+		assertThat(empty.isExact()).isTrue();
+		assertThat(empty.getCost()).isEqualTo(0);
+
+		//All tests fit into budget
+		CostPlanner.Plan all = CostPlanner.plan(tests(), Integer.MAX_VALUE + 1L);
+		assertThat(all.isExact()).isTrue();
+		assertThat(all.getSelected()).hasSize(4);
+
+		//Budget is too large for exact solution
+		CostPlanner.Plan large = CostPlanner.plan(Arrays.asList(
+			costly("first", 3_000_000_000L), costly("second", 3_000_000_000L), costly("third", Long.MAX_VALUE / 2)
+		), 5_000_000_000L);
+		assertThat(large.isExact()).isFalse();
+		assertThat(large.getSelected()).hasSize(1);
+		assertThat(large.getCost()).isEqualTo(3_000_000_000L);
+
+		//Budget limits exact solution even for few tests
+		List<Description> pair = Arrays.asList(costly("first", 600_000), costly("second", 600_000));
+		CostPlanner.Plan few = CostPlanner.plan(pair, CostPlanner.EXACT_CAPACITY);
+		assertThat(few.isExact()).isFalse();
+
+		//Table of budget + 1 cells fits into capacity
+		CostPlanner.Plan largest = CostPlanner.plan(pair, CostPlanner.EXACT_CAPACITY - 1);
+		assertThat(largest.isExact()).isTrue();
+		assertThat(largest.getSelected()).hasSize(1);
+	}
+
+	@Test
+	public void testUnknownTests() {
+		CostPlanner.Plan plan = CostPlanner.plan(Collections.emptyList(), 1);
+		assertThat(plan.isSelected(costly("unknown", 100))).isTrue();
+
+		CostPlanner.Plan known = CostPlanner.plan(Collections.singletonList(costly("known", 100)), 1);
+		assertThat(known.isSelected(costly("known", 100))).isFalse();
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> CostPlanner.plan(tests(), -1))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining(CostPlanner.BUDGET);
+	}
+	//endregion
+
+	//region Condition
+	@Test
+	public void testDisabled() {
+		TestResult result = runTest(Request.aClass(SelectionTest.class), new CostPlanListener());
+		assertThat(result.getFailures()).describedAs("failures").isEmpty();
+		assertThat(result.getIgnoredByAssumption()).describedAs("ignoredByAssumption").isEmpty();
+		assertThat(result.getCompleted()).describedAs("completed").hasSize(5);
+	}
+
+	@Test
+	public void testRunPlan() {
+		System.setProperty(CostPlanner.BUDGET, "10");
+		TestResult result = runTest(Request.aClass(SelectionTest.class), new CostPlanListener());
+		assertThat(result.getFailures()).describedAs("failures").isEmpty();
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("dense", "expensive")
+			.hasEntrySatisfying("dense", failure -> assertThat(failure.getMessage()).isEqualTo(
+				"Ignored by CostBudgetCondition: Not selected with cost 6 and value 13, selected 2 tests with cost 10 of budget 10 and value 20 (optimal)"
+			))
+		;
+	}
+
+	@Test
+	public void testEmptyRun() {
+		System.setProperty(CostPlanner.BUDGET, "10");
+		//Runner reports tests lazily: description of the run does not contain them
+		new CostPlanListener().testRunStarted(Description.EMPTY);
+		TestResult result = runTest(Request.aClass(SelectionTest.class));
+		assertThat(result.getFailures()).describedAs("failures").isEmpty();
+		assertThat(result.getIgnoredByAssumption()).describedAs("ignoredByAssumption").isEmpty();
+		assertThat(result.getCompleted()).describedAs("completed").hasSize(5);
+	}
+
+	@Test
+	public void testClassPlan() {
+		System.setProperty(CostPlanner.BUDGET, "6");
+		TestResult result = runTest(Request.aClass(SelectionTest.class));
+		assertThat(result.getFailures()).describedAs("failures").isEmpty();
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("first", "second", "expensive")
+		;
+		assertThat(result.getCompleted()).describedAs("completed").containsKeys("dense", "free");
+	}
+	//endregion
+}
@@ -0,0 +1,178 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExpressionConditionTest {
+	private static final String PROPERTY = "expression.condition.test";
+
+	@After
+	public void tearDown() {
+		System.clearProperty(PROPERTY);
+		System.clearProperty(PROPERTY + ".number");
+	}
+
+	private static boolean evaluate(String expression) {
+		return Expression.compile(expression).evaluate();
+	}
+
+	//region Syntax
+	@Test
+	public void testLiterals() {
+		assertThat(evaluate("true")).isTrue();
+		assertThat(evaluate("false")).isFalse();
+		assertThat(evaluate("'a' == \"a\"")).isTrue();
+		assertThat(evaluate("'it\\'s' == \"it's\"")).isTrue();
+		assertThat(evaluate("1 == 1.0")).isTrue();
+		assertThat(evaluate("-1.5 < 2")).isTrue();
+		assertThat(evaluate("'10' > '9'")).isTrue();
+		assertThat(evaluate("'a' < 'b'")).isFalse();
+	}
+
+	@Test
+	public void testLogic() {
+		assertThat(evaluate("true && !false")).isTrue();
+		assertThat(evaluate("false || true && false")).isFalse();
+		assertThat(evaluate("(false || true) && !(false)")).isTrue();
+		assertThat(evaluate("!!true")).isTrue();
+	}
+
+	@Test
+	public void testReferences() {
+		assertThat(evaluate("prop." + PROPERTY + " == null")).isTrue();
+		assertThat(evaluate("prop['" + PROPERTY + "'] != 'x'")).isTrue();
+		assertThat(evaluate("prop." + PROPERTY)).isFalse();
+		assertThat(evaluate("prop." + PROPERTY + " =~ '.*'")).isFalse();
+
+		System.setProperty(PROPERTY, "True");
+		System.setProperty(PROPERTY + ".number", "42");
+		assertThat(evaluate("prop." + PROPERTY)).isTrue();
+		assertThat(evaluate("prop." + PROPERTY + " =~ '^[Tt]'")).isTrue();
+		assertThat(evaluate("prop." + PROPERTY + " !~ 'ue$'")).isFalse();
+		assertThat(evaluate("prop['" + PROPERTY + ".number'] >= 42 && prop['" + PROPERTY + ".number'] == 42.0")).isTrue();
+		assertThat(evaluate("cores >= 1")).isTrue();
+		assertThat(evaluate("env.PATH != null || env['PATH'] == null")).isTrue();
+	}
+
+	@Test
+	public void testCompileOnce() {
+		assertThat(Expression.compile("cores > 0")).isSameAs(Expression.compile("cores > 0"));
+	}
+
+	@Test
+	public void testNumber() {
+		assertThat(Expression.number("42")).isEqualTo(42);
+		assertThat(Expression.number("-0.25")).isEqualTo(-0.25);
+		assertThat(Expression.number("+.5")).isEqualTo(0.5);
+		assertThat(Expression.number("1.2.3")).isNaN();
+		assertThat(Expression.number("-")).isNaN();
+		assertThat(Expression.number("")).isNaN();
+		assertThat(Expression.number(null)).isNaN();
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> Expression.compile("cores >"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Unexpected end");
+		assertThatThrownBy(() -> Expression.compile("unknown == 1"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Unknown reference 'unknown' at position 0");
+		assertThatThrownBy(() -> Expression.compile("(true"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Expected ')'");
+		assertThatThrownBy(() -> Expression.compile("env.X =~ '['"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Invalid pattern");
+		assertThatThrownBy(() -> Expression.compile("'open"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Unterminated");
+		assertThatThrownBy(() -> Expression.compile("true true"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Unexpected 't' at position 5");
+	}
+	//endregion
+
+	//region Rule
+	public static class AnnotatedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(expression = "prop['" + PROPERTY + "'] == 'skip'")
+		public void byExpression() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(expression = "cores < 1")
+		public void never() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testRule() {
+		TestResult result = runTest(AnnotatedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+
+		System.setProperty(PROPERTY, "skip");
+		result = runTest(AnnotatedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("byExpression", "never")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("byExpression")
+			.hasEntrySatisfying("byExpression", failure ->
+				assertThat(failure.getMessage()).isEqualTo(
+					"Ignored by ExpressionCondition: Expression 'prop['" + PROPERTY + "'] == 'skip'' is true"
+				)
+			)
+		;
+	}
+
+	public static class InvalidAnnotationTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore
+		public void test() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testInvalidAnnotation() {
+		TestResult result = runTest(InvalidAnnotationTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("InvalidAnnotationTest")
+			.hasEntrySatisfying("InvalidAnnotationTest", failure ->
+				assertThat(failure.getMessage()).contains("exactly one of 'condition' or 'expression'")
+			)
+		;
+	}
+	//endregion
+}
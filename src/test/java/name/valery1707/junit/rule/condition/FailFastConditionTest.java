@@ -0,0 +1,137 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Request;
+import org.junit.runners.MethodSorters;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FailFastConditionTest {
+	@After
+	public void tearDown() {
+		System.clearProperty(FailFast.BUDGET);
+		FailFast.reset();
+	}
+
+	//region Annotated
+	@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+	public static class AnnotatedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = FailFastCondition.class)
+		public void test1() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = FailFastCondition.class)
+		public void test2() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = FailFastCondition.class)
+		public void test3() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		public void test4() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testWithoutBudget() {
+		TestResult result = runTest(Request.aClass(AnnotatedTest.class), new FailFastListener());
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("test1", "test2", "test3")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testAnnotated() {
+		System.setProperty(FailFast.BUDGET, "0");
+		TestResult result = runTest(Request.aClass(AnnotatedTest.class), new FailFastListener());
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("test1")
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("test1", "test2", "test3", "test4")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("test2", "test3")
+			.hasEntrySatisfying("test2", failure ->
+				assertThat(failure.getMessage())
+					.contains("budget 0")
+					.endsWith(AnnotatedTest.class.getName() + "#test1")
+			)
+		;
+	}
+	//endregion
+
+	//region AllTests
+	@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+	public static class AllTestsTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(FailFastCondition.class);
+
+		@Test
+		public void test1() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		public void test2() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		public void test3() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		public void test4() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testAllTests() {
+		System.setProperty(FailFast.BUDGET, "1");
+		TestResult result = runTest(Request.aClass(AllTestsTest.class), new FailFastListener());
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("test1", "test2")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("test3", "test4")
+			.hasEntrySatisfying("test4", failure ->
+				assertThat(failure.getMessage())
+					.contains("budget 1 is exhausted by 2 failures")
+					.contains("#test1")
+					.contains("#test2")
+			)
+		;
+	}
+	//endregion
+}
@@ -0,0 +1,90 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.history.DurationRecorder;
+import name.valery1707.junit.rule.history.DurationStore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FastModeConditionTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Before
+	public void setUp() throws IOException {
+		Path store = temp.getRoot().toPath().resolve("durations.bin");
+		System.setProperty(DurationStore.FILE, store.toString());
+		System.setProperty(FastModeCondition.THRESHOLD, "100");
+		runTest(Request.aClass(MeasuredTest.class), new DurationRecorder(store));
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(DurationStore.FILE);
+		System.clearProperty(FastModeCondition.ENABLED);
+		System.clearProperty(FastModeCondition.THRESHOLD);
+	}
+
+	public static class MeasuredTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = FastModeCondition.class)
+		public void slow() throws InterruptedException {
+			Thread.sleep(150);
+		}
+
+		@Test
+		@ConditionalIgnore(condition = FastModeCondition.class)
+		public void fast() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		TestResult result = runTest(MeasuredTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testEnabled() {
+		System.setProperty(FastModeCondition.ENABLED, "true");
+		TestResult result = runTest(MeasuredTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("slow", "fast")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("slow")
+			.hasEntrySatisfying("slow", failure ->
+				assertThat(failure.getMessage()).endsWith("exceeds threshold 100 ms")
+			)
+		;
+	}
+}
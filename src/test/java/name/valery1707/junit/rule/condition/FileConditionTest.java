@@ -0,0 +1,190 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileConditionTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private static File root;
+
+	@Before
+	public void setUp() {
+		FileStat.reset();
+		root = temp.getRoot();
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(FileStat.TTL);
+		FileStat.reset();
+	}
+
+	private static String path(String name) {
+		return new File(root, name).getPath();
+	}
+
+	//region FileStat
+	@Test
+	public void testStat() throws IOException {
+		Path file = temp.newFile("file.txt").toPath();
+		FileStat.Stat stat = FileStat.stat(file);
+		assertThat(stat.isExists()).isTrue();
+		assertThat(stat.isDirectory()).isFalse();
+		assertThat(stat.getUsableSpace()).isGreaterThan(0);
+		assertThat(stat.getTotalSpace()).isGreaterThanOrEqualTo(stat.getUsableSpace());
+		assertThat(stat.toString()).startsWith(file + " (file, usable ");
+
+		FileStat.Stat absent = FileStat.stat(path("absent/deep"));
+		assertThat(absent.isExists()).isFalse();
+		assertThat(absent.getUsableSpace()).describedAs("Space of existing parent").isGreaterThan(0);
+		assertThat(absent.toString()).contains("(absent, usable ");
+	}
+
+	@Test
+	public void testTtl() throws IOException {
+		System.setProperty(FileStat.TTL, "600000");
+		assertThat(FileStat.stat(path("late.txt")).isExists()).isFalse();
+		temp.newFile("late.txt");
+		assertThat(FileStat.stat(path("late.txt")).isExists()).describedAs("Cached").isFalse();
+		assertThat(FileStat.stat(path("./late.txt")).isExists()).describedAs("Cached by normalized path").isFalse();
+
+		System.setProperty(FileStat.TTL, "0");
+		assertThat(FileStat.stat(path("late.txt")).isExists()).describedAs("Expired").isTrue();
+	}
+
+	@Test
+	public void testBytes() {
+		assertThat(FileStat.parseBytes("512")).isEqualTo(512);
+		assertThat(FileStat.parseBytes("512B")).isEqualTo(512);
+		assertThat(FileStat.parseBytes("64kb")).isEqualTo(64 * 1024);
+		assertThat(FileStat.parseBytes("10 MB")).isEqualTo(10L << 20);
+		assertThat(FileStat.parseBytes("2GB")).isEqualTo(2L << 30);
+		assertThat(FileStat.parseBytes("1TB")).isEqualTo(1L << 40);
+		assertThatThrownBy(() -> FileStat.parseBytes("ten GB"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Invalid size: ten GB");
+		assertThatThrownBy(() -> FileStat.parseBytes("-1"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Invalid size: -1");
+		assertThatThrownBy(() -> FileStat.parseBytes("16777216TB"))
+			.isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(FileStat.formatBytes(-1)).isEqualTo("unknown");
+		assertThat(FileStat.formatBytes(1023)).isEqualTo("1023 B");
+		assertThat(FileStat.formatBytes(1536)).isEqualTo("1.5 KB");
+		assertThat(FileStat.formatBytes(10L << 30)).isEqualTo("10.0 GB");
+		assertThat(FileStat.formatBytes(Long.MAX_VALUE)).isEqualTo("8.0 EB");
+	}
+	//endregion
+
+	//region Condition
+	public static class PresentCondition extends FilePresenceCondition {
+		public PresentCondition() {
+			super(path("data.csv"), path("images") + "/");
+		}
+	}
+
+	public static class MissingCondition extends FilePresenceCondition {
+		public MissingCondition() {
+			super(path("data.csv") + "/", path("absent.csv"));
+		}
+	}
+
+	public static class EnoughSpaceCondition extends DiskSpaceCondition {
+		public EnoughSpaceCondition() {
+			super("1KB", path("data.csv"), path("absent.csv"));
+		}
+	}
+
+	public static class HugeSpaceCondition extends DiskSpaceCondition {
+		public HugeSpaceCondition() {
+			super(Long.MAX_VALUE, path("images"));
+		}
+	}
+
+	public static class FilesTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = PresentCondition.class)
+		public void present() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = MissingCondition.class)
+		public void missing() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = EnoughSpaceCondition.class)
+		public void enough() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = HugeSpaceCondition.class)
+		public void huge() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testCondition() throws IOException {
+		temp.newFile("data.csv");
+		temp.newFolder("images");
+		TestResult result = runTest(FilesTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("missing", "huge")
+			.hasEntrySatisfying("missing", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by MissingCondition: Absent in file system: "
+					+ path("data.csv") + "/ (file, directory expected), " + path("absent.csv") + " (absent)")
+			)
+			.hasEntrySatisfying("huge", failure ->
+				assertThat(failure.getMessage())
+					.startsWith("Ignored by HugeSpaceCondition: Less than 8.0 EB of usable space: " + new File(root, "images").toPath() + " (usable ")
+			)
+		;
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> new FilePresenceCondition() {
+		})
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("File presence condition requires at least one path");
+		assertThatThrownBy(() -> new DiskSpaceCondition(1) {
+		})
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Disk space condition requires at least one path");
+		assertThatThrownBy(() -> new DiskSpaceCondition("-1", "target") {
+		})
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Invalid size: -1");
+	}
+	//endregion
+}
@@ -0,0 +1,71 @@
+package name.valery1707.junit.rule.condition;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GlobTrieTest {
+	private static GlobTrie<String> trie(String... patterns) {
+		GlobTrie<String> trie = new GlobTrie<>();
+		for (String pattern : patterns) {
+			trie.add(pattern, pattern);
+		}
+		return trie;
+	}
+
+	@Test
+	public void testExact() {
+		GlobTrie<String> trie = trie("a.B#test", "a.B#test2");
+		assertThat(trie.match("a.B#test")).containsExactly("a.B#test");
+		assertThat(trie.match("a.B#test2")).containsExactly("a.B#test2");
+		assertThat(trie.match("a.B#tes")).isEmpty();
+		assertThat(trie.match("a.B#test3")).isEmpty();
+		assertThat(trie.match("")).isEmpty();
+	}
+
+	@Test
+	public void testStar() {
+		GlobTrie<String> trie = trie("a.*", "*Test#slow*", "a.**.C#*", "*");
+		assertThat(trie.match("a.B#test")).containsExactly("a.*", "*");
+		assertThat(trie.match("b.SomeTest#slowOne")).containsExactly("*Test#slow*", "*");
+		assertThat(trie.match("a.SomeTest#slow")).containsExactly("a.*", "*Test#slow*", "*");
+		assertThat(trie.match("a.b.c.C#x")).containsExactly("a.*", "a.**.C#*", "*");
+		assertThat(trie.match("")).containsExactly("*");
+	}
+
+	@Test
+	public void testQuestion() {
+		GlobTrie<String> trie = trie("a.B#test?", "?.*");
+		assertThat(trie.match("a.B#test1")).containsExactly("a.B#test?", "?.*");
+		assertThat(trie.match("a.B#test")).containsExactly("?.*");
+		assertThat(trie.match("ab.B#test1")).isEmpty();
+	}
+
+	@Test
+	public void testInfix() {
+		GlobTrie<String> trie = trie("*.slow.*Test#*", "*IT#*", "a.*.b.*");
+		assertThat(trie.match("com.slow.FooTest#run")).containsExactly("*.slow.*Test#*");
+		assertThat(trie.match("x.slow.y.slow.BarTest#run")).containsExactly("*.slow.*Test#*");
+		assertThat(trie.match("a.x.b.slow.SomeIT#run")).containsExactly("*IT#*", "a.*.b.*");
+		assertThat(trie.match("a.x.c.FooTest#run")).isEmpty();
+		//States are cached: repeated match returns same result without building new states
+		assertThat(trie.match("a.x.b.slow.SomeIT#run")).isSameAs(trie.match("a.x.b.slow.SomeIT#run"));
+		assertThat(trie.match("b.slow.Test#Ω")).containsExactly("*.slow.*Test#*");
+	}
+
+	@Test
+	public void testAddAfterMatch() {
+		GlobTrie<String> trie = trie("a.*");
+		assertThat(trie.match("a.B#test")).containsExactly("a.*");
+		trie.add("*#test", "*#test");
+		assertThat(trie.match("a.B#test")).containsExactly("a.*", "*#test");
+		assertThat(trie.match("b.B#test")).containsExactly("*#test");
+	}
+
+	@Test
+	public void testIsGlob() {
+		assertThat(GlobTrie.isGlob("a.B#test")).isFalse();
+		assertThat(GlobTrie.isGlob("a.*")).isTrue();
+		assertThat(GlobTrie.isGlob("a.B#test?")).isTrue();
+	}
+}
@@ -0,0 +1,229 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.DescriptionAware;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeTrue;
+
+public class OutcomeCacheTest {
+	private static final AtomicInteger PROBES = new AtomicInteger();
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private Path file;
+
+	@Before
+	public void setUp() {
+		file = temp.getRoot().toPath().resolve("outcomes.bin");
+		System.setProperty(OutcomeCache.FILE, file.toString());
+		PROBES.set(0);
+	}
+
+	@After
+	public void tearDown() {
+		OutcomeCache.reset();
+		System.clearProperty(OutcomeCache.FILE);
+		System.clearProperty(OutcomeCache.TTL);
+		System.clearProperty(OutcomeCache.FINGERPRINT);
+	}
+
+	@SharedOutcome
+	public static class ProbeCondition implements IgnoreCondition {
+		private String reason;
+
+		@Override
+		public boolean needSkip() {
+			reason = "probe #" + PROBES.incrementAndGet() + " with ünïcödé";
+			return true;
+		}
+
+		@Override
+		public String reason() {
+			return reason;
+		}
+	}
+
+	public static class NotSharedCondition implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			PROBES.incrementAndGet();
+			return false;
+		}
+	}
+
+	@SharedOutcome
+	public static class InvalidCondition implements IgnoreCondition, DescriptionAware {
+		@Override
+		public void setDescription(Description description) {
+		}
+	}
+
+	private static final CountDownLatch BOTH = new CountDownLatch(2);
+
+	/**
+	 * Waits for evaluation of other condition: completes only if both are evaluated concurrently.
+	 */
+	@SharedOutcome
+	public static class FirstWaitingCondition implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			BOTH.countDown();
+			try {
+				return !BOTH.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return true;
+			}
+		}
+	}
+
+	@SharedOutcome
+	public static class SecondWaitingCondition extends FirstWaitingCondition {
+	}
+
+		public static class SharedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = ProbeCondition.class)
+		public void test1() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = ProbeCondition.class)
+		public void test2() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	private void assertSkipped(String reason) {
+		TestResult result = runTest(SharedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("test1", "test2")
+			.allSatisfy((name, failure) ->
+				assertThat(failure.getMessage()).isEqualTo("Ignored by ProbeCondition: " + reason)
+			)
+		;
+	}
+
+	@Test
+	public void testSharedBetweenJvm() {
+		assertSkipped("probe #1 with ünïcödé");
+		assertThat(PROBES).hasValue(1);
+		assertThat(file).exists();
+
+		//Same as new JVM: only file is shared
+		OutcomeCache.reset();
+		assertSkipped("probe #1 with ünïcödé");
+		assertThat(PROBES).hasValue(1);
+	}
+
+	@Test
+	public void testUnrelatedNotBlocked() throws Exception {
+		long mask = OutcomeCache.SLOTS - 1;
+		assumeTrue(
+			"Conditions share lock region",
+			(OutcomeCache.key(FirstWaitingCondition.class) & mask) != (OutcomeCache.key(SecondWaitingCondition.class) & mask)
+		);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Decision> first = executor.submit(() -> OutcomeCache.evaluate(new FirstWaitingCondition()));
+			Future<Decision> second = executor.submit(() -> OutcomeCache.evaluate(new SecondWaitingCondition()));
+			assertThat(first.get().isSkip()).describedAs("first timed out").isFalse();
+			assertThat(second.get().isSkip()).describedAs("second timed out").isFalse();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testExpired() {
+		assertSkipped("probe #1 with ünïcödé");
+		OutcomeCache.reset();
+		System.setProperty(OutcomeCache.TTL, "-1");
+		assertSkipped("probe #2 with ünïcödé");
+		assertThat(PROBES).hasValue(2);
+	}
+
+	@Test
+	public void testFingerprint() {
+		assertSkipped("probe #1 with ünïcödé");
+		OutcomeCache.reset();
+		System.setProperty(OutcomeCache.FINGERPRINT, "other");
+		assertSkipped("probe #2 with ünïcödé");
+		OutcomeCache.reset();
+		System.clearProperty(OutcomeCache.FINGERPRINT);
+		assertSkipped("probe #1 with ünïcödé");
+		assertThat(PROBES).hasValue(2);
+
+		//Calculated once per JVM
+		long fingerprint = OutcomeCache.fingerprint();
+		System.setProperty(OutcomeCache.FINGERPRINT, "other");
+		assertThat(OutcomeCache.fingerprint()).isEqualTo(fingerprint);
+	}
+
+	@Test
+	public void testDisabled() {
+		System.clearProperty(OutcomeCache.FILE);
+		TestResult result = runTest(SharedTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("test1", "test2")
+		;
+		//Memoized inside JVM
+		assertThat(PROBES).hasValue(1);
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	public void testNotShared() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(OutcomeCache.evaluate(new NotSharedCondition()).isSkip()).isFalse();
+		}
+		assertThat(PROBES).hasValue(3);
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThatThrownBy(() -> OutcomeCache.evaluate(new InvalidCondition()))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("can not be marked with @SharedOutcome");
+	}
+
+	@Test
+	public void testCorruptedFile() throws Exception {
+		Files.write(file, new byte[]{1, 2, 3});
+		assertSkipped("probe #1 with ünïcödé");
+		assertThat(Files.size(file)).isGreaterThan((long) OutcomeCache.SLOTS * OutcomeCache.SLOT_SIZE);
+	}
+}
@@ -0,0 +1,128 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QuarantineConditionTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(Quarantine.FILE);
+	}
+
+	public static class FlakyTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(QuarantineCondition.class);
+
+		@Test
+		public void stable() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void flaky() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void flaky1() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void flaky2() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	public static class OtherTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(QuarantineCondition.class);
+
+		@Test
+		public void other() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	private Path quarantine(String... lines) throws IOException {
+		Path path = temp.getRoot().toPath().resolve("quarantine.txt");
+		Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+		System.setProperty(Quarantine.FILE, path.toString());
+		return path;
+	}
+
+	@Test
+	public void testWithoutQuarantine() {
+		TestResult result = runTest(FlakyTest.class, OtherTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testQuarantine() throws IOException {
+		quarantine(
+			"# Comment",
+			"",
+			FlakyTest.class.getName() + "#flaky",
+			"*$FlakyTest#flaky?",
+			OtherTest.class.getName()
+		);
+		TestResult result = runTest(FlakyTest.class, OtherTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("flaky", "flaky1", "flaky2", "other")
+			.hasEntrySatisfying("flaky", failure ->
+				assertThat(failure.getMessage()).contains("quarantined by '" + FlakyTest.class.getName() + "#flaky'")
+			)
+			.hasEntrySatisfying("flaky1", failure ->
+				assertThat(failure.getMessage()).contains("quarantined by '*$FlakyTest#flaky?'")
+			)
+			.hasEntrySatisfying("other", failure ->
+				assertThat(failure.getMessage()).contains("quarantined by '" + OtherTest.class.getName() + "'")
+			)
+		;
+	}
+
+	@Test
+	public void testReload() throws IOException {
+		Path path = quarantine(FlakyTest.class.getName() + "#flaky");
+		Quarantine first = Quarantine.load(path);
+		assertThat(Quarantine.load(path)).isSameAs(first);
+
+		quarantine(FlakyTest.class.getName() + "#flaky", FlakyTest.class.getName() + "#stable");
+		FileTime modified = Files.getLastModifiedTime(path);
+		Files.setLastModifiedTime(path, FileTime.fromMillis(modified.toMillis() + 10_000));
+		Quarantine second = Quarantine.load(path);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.size()).isEqualTo(2);
+
+		TestResult result = runTest(FlakyTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("flaky", "stable")
+		;
+	}
+}
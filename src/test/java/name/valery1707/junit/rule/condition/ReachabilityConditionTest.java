@@ -0,0 +1,141 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReachabilityConditionTest {
+	private static ServerSocket server;
+	private static int closedPort;
+
+	@Before
+	public void setUp() throws IOException {
+		Reachability.reset();
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		try (ServerSocket closed = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			closedPort = closed.getLocalPort();
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.close();
+		Reachability.reset();
+	}
+
+	private static String open() {
+		return "127.0.0.1:" + server.getLocalPort();
+	}
+
+	private static String closed() {
+		return "127.0.0.1:" + closedPort;
+	}
+
+	//region Probe
+	@Test
+	public void testProbe() throws IOException {
+		List<Reachability.Result> results = Reachability.probe(Arrays.asList(open(), closed(), "unknown.host.invalid:80"), 1000);
+		assertThat(results).extracting(Reachability.Result::getEndpoint).containsExactly(open(), closed(), "unknown.host.invalid:80");
+		assertThat(results).extracting(Reachability.Result::isReachable).containsExactly(true, false, false);
+		assertThat(results.get(0).getDetail()).isEqualTo("connected");
+		assertThat(results.get(2).getDetail()).isEqualTo("unknown host");
+
+		//Cached for the whole JVM
+		server.close();
+		assertThat(Reachability.probe(Arrays.asList(open(), closed()), 1000))
+			.extracting(Reachability.Result::isReachable)
+			.containsExactly(true, false);
+		Reachability.reset();
+		assertThat(Reachability.probe(Arrays.asList(open(), closed()), 1000))
+			.extracting(Reachability.Result::isReachable)
+			.containsExactly(false, false);
+	}
+
+	@Test
+	public void testDeadline() {
+		//Connect to remote address can not finish immediately
+		long start = System.nanoTime();
+		List<Reachability.Result> results = Reachability.probe(Arrays.asList("10.255.255.1:81", "10.255.255.2:81"), 0);
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+		assertThat(results).extracting(Reachability.Result::isReachable).containsExactly(false, false);
+		assertThat(results).extracting(Reachability.Result::getDetail).containsOnly("timeout 0 ms");
+		assertThat(elapsed).isLessThan(1000);
+	}
+
+	@Test
+	public void testParse() {
+		assertThat(Reachability.parse("[::1]:8080").getHostString()).isEqualTo("::1");
+		assertThat(Reachability.parse("localhost:80").getPort()).isEqualTo(80);
+		assertThatThrownBy(() -> Reachability.parse("localhost"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("expected 'host:port'");
+		assertThatThrownBy(() -> Reachability.parse("localhost:http"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Invalid port");
+		assertThatThrownBy(() -> Reachability.parse("localhost:70000"))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Invalid port");
+	}
+	//endregion
+
+	//region Condition
+	public static class OpenCondition extends ReachabilityCondition {
+		public OpenCondition() {
+			super(open());
+		}
+	}
+
+	public static class MixedCondition extends ReachabilityCondition {
+		public MixedCondition() {
+			super(500, open(), closed());
+		}
+	}
+
+	public static class ReachableTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@ConditionalIgnore(condition = OpenCondition.class)
+		public void open() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = MixedCondition.class)
+		public void mixed() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testCondition() {
+		TestResult result = runTest(ReachableTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("mixed")
+			.hasEntrySatisfying("mixed", failure ->
+				assertThat(failure.getMessage()).startsWith("Ignored by MixedCondition: Unreachable: " + closed() + " (")
+			)
+		;
+	}
+	//endregion
+}
@@ -0,0 +1,168 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SampleConditionTest {
+	@After
+	public void tearDown() {
+		System.clearProperty(Sampling.PERCENT);
+		System.clearProperty(Sampling.SEED);
+		System.clearProperty(Sampling.MIN_PER_CLASS);
+		Sampling.resetStatistics();
+	}
+
+	private static void sample(int percent, long seed, int minPerClass) {
+		System.setProperty(Sampling.PERCENT, Integer.toString(percent));
+		System.setProperty(Sampling.SEED, Long.toString(seed));
+		System.setProperty(Sampling.MIN_PER_CLASS, Integer.toString(minPerClass));
+	}
+
+	private static Set<String> executed(TestResult result) {
+		Set<String> executed = new HashSet<>(result.getCompleted().keySet());
+		executed.removeAll(result.getIgnoredByAssumption().keySet());
+		return executed;
+	}
+
+	public static class SampledTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		//@formatter:off
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test0() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test1() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test2() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test3() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test4() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test5() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test6() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test7() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test8() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void test9() {}
+		//@formatter:on
+	}
+
+	@Test
+	public void testWithoutSampling() {
+		TestResult result = runTest(SampledTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(executed(result))
+			.describedAs("executed")
+			.hasSize(10)
+		;
+	}
+
+	@Test
+	public void testReproducible() {
+		sample(50, 42, 0);
+		Set<String> first = executed(runTest(SampledTest.class));
+		Set<String> second = executed(runTest(SampledTest.class));
+		assertThat(first)
+			.describedAs("executed")
+			.isEqualTo(second)
+		;
+		sample(100, 42, 0);
+		assertThat(executed(runTest(SampledTest.class)))
+			.describedAs("executed")
+			.hasSize(10)
+		;
+	}
+
+	@Test
+	public void testMinPerClass() {
+		sample(0, 7, 0);
+		TestResult result = runTest(SampledTest.class);
+		assertThat(executed(result))
+			.describedAs("executed")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption().values())
+			.describedAs("ignoredByAssumption")
+			.allSatisfy(failure -> assertThat(failure.getMessage()).contains("seed 7"))
+		;
+
+		sample(0, 7, 1);
+		assertThat(executed(runTest(SampledTest.class)))
+			.describedAs("executed")
+			.hasSize(1)
+		;
+
+		sample(0, 7, 3);
+		assertThat(executed(runTest(SampledTest.class)))
+			.describedAs("executed")
+			.hasSize(3)
+		;
+	}
+
+	public static class MixedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		//@formatter:off
+		@Test public void plain0() {}
+		@Test public void plain1() {}
+		@Test public void plain2() {}
+		@Test public void plain3() {}
+		@Test public void plain4() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void sampled0() {}
+		@Test @ConditionalIgnore(condition = SampleCondition.class) public void sampled1() {}
+		//@formatter:on
+	}
+
+	@Test
+	public void testMinPerClassAmongSampled() {
+		//Seed with minimal score of class at method without sampling
+		String name = MixedTest.class.getName();
+		long seed = 0;
+		while (true) {
+			Sampling sampling = new Sampling(0, seed, 1);
+			double plain = Stream.of("plain0", "plain1", "plain2", "plain3", "plain4").mapToDouble(method -> sampling.score(name, method)).min().orElse(1);
+			double sampled = Stream.of("sampled0", "sampled1").mapToDouble(method -> sampling.score(name, method)).min().orElse(1);
+			if (plain < sampled) {
+				break;
+			}
+			seed++;
+		}
+		sample(0, seed, 1);
+		Set<String> executed = executed(runTest(MixedTest.class));
+		assertThat(executed)
+			.describedAs("executed")
+			.contains("plain0", "plain1", "plain2", "plain3", "plain4")
+			.hasSize(6)
+			.containsAnyElementsOf(Arrays.asList("sampled0", "sampled1"))
+		;
+	}
+
+	@Test
+	public void testReport() {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		SamplingListener listener = new SamplingListener(new PrintStream(buffer, true));
+		sample(0, 3, 2);
+		listener.testRunStarted(Description.EMPTY);
+		runTest(SampledTest.class);
+		listener.testRunFinished(new Result());
+		assertThat(new String(buffer.toByteArray(), StandardCharsets.UTF_8))
+			.startsWith("Sampled 2 of 10 tests (20.0%, requested 0.0%, seed 3)")
+		;
+	}
+}
@@ -0,0 +1,117 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ScaledTimeoutRule;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.model.TestTimedOutException;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScaledTimeoutConditionTest {
+	@Before
+	@After
+	public void tearDown() {
+		System.clearProperty(MachineSpeed.FACTOR);
+		System.clearProperty(ScaledTimeoutCondition.MAX);
+		MachineSpeed.reset();
+	}
+
+	//region MachineSpeed
+	@Test
+	public void testCalibrate() {
+		long start = System.nanoTime();
+		double factor = MachineSpeed.factor();
+		assertThat(factor).isGreaterThanOrEqualTo(1);
+		assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+		//Calibrated only once
+		assertThat(MachineSpeed.factor()).isEqualTo(factor);
+	}
+
+	@Test
+	public void testConfigured() {
+		System.setProperty(MachineSpeed.FACTOR, "2.5");
+		assertThat(MachineSpeed.factor()).isEqualTo(2.5);
+		assertThat(MachineSpeed.scale(100)).isEqualTo(250);
+	}
+
+	@Test
+	public void testInvalid() {
+		System.setProperty(MachineSpeed.FACTOR, "-1");
+		assertThatThrownBy(MachineSpeed::factor)
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining(MachineSpeed.FACTOR);
+	}
+	//endregion
+
+	//region Rule
+	public static class TimeoutTest {
+		@Rule
+		public ScaledTimeoutRule rule = new ScaledTimeoutRule();
+
+		@Test
+		@ScaledTimeout(150)
+		public void scaled() throws InterruptedException {
+			//Fails without scaling
+			Thread.sleep(200);
+		}
+
+		@Test
+		@ScaledTimeout(100)
+		public void hanging() throws InterruptedException {
+			Thread.sleep(10_000);
+		}
+
+		@Test
+		@ScaledTimeout(10_000)
+		public void slow() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void plain() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testRule() {
+		System.setProperty(MachineSpeed.FACTOR, "3");
+		TestResult result = runTest(TimeoutTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("hanging")
+			.hasEntrySatisfying("hanging", failure -> {
+				assertThat(failure.getException()).isInstanceOf(TestTimedOutException.class);
+				assertThat(failure.getMessage()).isEqualTo("test timed out after 300 milliseconds");
+			})
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testMax() {
+		System.setProperty(MachineSpeed.FACTOR, "3");
+		System.setProperty(ScaledTimeoutCondition.MAX, "1000");
+		TestResult result = runTest(TimeoutTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("slow")
+			.hasEntrySatisfying("slow", failure -> assertThat(failure.getMessage()).isEqualTo(
+				"Ignored by ScaledTimeoutCondition: Scaled timeout 30000 ms (10000 ms with speed factor 3.00) exceeds maximum 1000 ms"
+			))
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsKeys("scaled", "plain")
+		;
+	}
+	//endregion
+}
@@ -0,0 +1,219 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.history.LongLongMap;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardConditionTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(Sharding.INDEX);
+		System.clearProperty(Sharding.TOTAL);
+		System.clearProperty(Sharding.TIMINGS);
+	}
+
+	private static void shard(int index, int total) {
+		System.setProperty(Sharding.INDEX, Integer.toString(index));
+		System.setProperty(Sharding.TOTAL, Integer.toString(total));
+	}
+
+	private static Set<String> executed(TestResult result) {
+		Set<String> executed = new HashSet<>(result.getCompleted().keySet());
+		executed.removeAll(result.getIgnoredByAssumption().keySet());
+		return executed;
+	}
+
+	//region Condition
+	public static class ShardedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		//@formatter:off
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test0() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test1() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test2() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test3() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test4() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test5() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test6() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test7() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test8() {}
+		@Test @ConditionalIgnore(condition = ShardCondition.class) public void test9() {}
+		//@formatter:on
+	}
+
+	@Test
+	public void testWithoutSharding() {
+		TestResult result = runTest(ShardedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.hasSize(10)
+		;
+	}
+
+	@Test
+	public void testCondition() {
+		Set<String> all = new HashSet<>();
+		int total = 3;
+		for (int index = 0; index < total; index++) {
+			shard(index, total);
+			TestResult result = runTest(ShardedTest.class);
+			assertThat(result.getFailures())
+				.describedAs("failures")
+				.isEmpty()
+			;
+			assertThat(result.getCompleted())
+				.describedAs("completed")
+				.hasSize(10)
+			;
+			assertThat(result.getIgnoredByAssumption().values())
+				.describedAs("ignoredByAssumption")
+				.allSatisfy(failure -> assertThat(failure.getMessage()).contains("of " + total))
+			;
+			Set<String> executed = executed(result);
+			assertThat(all)
+				.describedAs("shards must not intersect")
+				.doesNotContainAnyElementsOf(executed)
+			;
+			all.addAll(executed);
+		}
+		assertThat(all)
+			.describedAs("all tests must be executed by some shard")
+			.hasSize(10)
+		;
+	}
+
+	@Test
+	public void testInvalidIndex() {
+		shard(3, 3);
+		TestResult result = runTest(ShardedTest.class);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("ShardedTest")
+			.hasEntrySatisfying("ShardedTest", failure ->
+				assertThat(failure.getMessage()).isEqualTo("Shard index must be in [0, 3) but was 3")
+			)
+		;
+	}
+	//endregion
+
+	//region Filter
+	public static class PlainTest {
+		//@formatter:off
+		@Test public void test0() {}
+		@Test public void test1() {}
+		@Test public void test2() {}
+		@Test public void test3() {}
+		@Test public void test4() {}
+		@Test public void test5() {}
+		@Test public void test6() {}
+		@Test public void test7() {}
+		//@formatter:on
+	}
+
+	@Test
+	public void testFilter() {
+		Set<String> all = new HashSet<>();
+		int total = 2;
+		for (int index = 0; index < total; index++) {
+			shard(index, total);
+			TestResult result = runTest(Request.aClass(PlainTest.class).filterWith(new ShardFilter()));
+			assertThat(result.getIgnoredByAssumption())
+				.describedAs("ignoredByAssumption")
+				.isEmpty()
+			;
+			assertThat(all)
+				.describedAs("shards must not intersect")
+				.doesNotContainAnyElementsOf(result.getCompleted().keySet())
+			;
+			all.addAll(result.getCompleted().keySet());
+		}
+		assertThat(all)
+			.describedAs("all tests must be executed by some shard")
+			.hasSize(8)
+		;
+	}
+	//endregion
+
+	//region Timings
+	private Path timings(String... lines) throws IOException {
+		Path path = temp.newFile("timings.properties").toPath();
+		Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+		return path;
+	}
+
+	@Test
+	public void testBinPack() throws IOException {
+		String name = PlainTest.class.getName();
+		DurationHistory history = DurationHistory.loadText(timings(
+			name + "#test0=100",
+			name + "#test1=60",
+			name + "#test2=50",
+			name + "#test3=30",
+			name + "#test4=20"
+		));
+		LongLongMap assignment = Sharding.binPack(history, 2);
+		long[] loads = new long[2];
+		for (long id : history.ids()) {
+			loads[(int) assignment.get(id, -1)] += history.duration(id);
+		}
+		assertThat(loads).containsExactlyInAnyOrder(130, 130);
+	}
+
+	@Test
+	public void testTimings() throws IOException {
+		String name = PlainTest.class.getName();
+		System.setProperty(Sharding.TIMINGS, timings(
+			name + "#test0=1000",
+			name + "#test1=10",
+			name + "#test2=10",
+			name + "#test3=10"
+		).toString());
+		shard(0, 2);
+		Set<String> first = runTest(Request.aClass(PlainTest.class).filterWith(new ShardFilter())).getCompleted().keySet();
+		shard(1, 2);
+		Set<String> second = runTest(Request.aClass(PlainTest.class).filterWith(new ShardFilter())).getCompleted().keySet();
+		Set<String> heavy = first.contains("test0") ? first : second;
+		assertThat(heavy).contains("test0").doesNotContain("test1", "test2", "test3");
+		assertThat(first.size() + second.size()).isEqualTo(8);
+	}
+
+	@Test
+	public void testInvalidTimings() throws IOException {
+		assertThatThrownBy(() -> DurationHistory.loadText(timings("some#test=fast")))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("some#test")
+		;
+	}
+	//endregion
+}
@@ -0,0 +1,147 @@
+package name.valery1707.junit.rule.condition;
+
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.Decision;
+import name.valery1707.junit.rule.history.DurationHistory;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimeBudgetConditionTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(TimeBudget.BUDGET);
+		System.clearProperty(TimeBudget.RESERVE);
+		System.clearProperty(TimeBudget.HISTORY);
+	}
+
+	public static class BudgetTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule(TimeBudgetCondition.class);
+
+		@Test
+		public void unknown() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ExpectedDuration(10)
+		public void fast() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ExpectedDuration(50_000)
+		public void slow() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ExpectedDuration(9_500)
+		public void reserved() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ExpectedDuration(9_500)
+		@Priority(1)
+		public void important() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@ExpectedDuration(8_500)
+		@Priority(-1)
+		public void optional() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void historical() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testWithoutBudget() {
+		TestResult result = runTest(Request.aClass(BudgetTest.class), new TimeBudgetListener());
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.isEmpty()
+		;
+	}
+
+	@Test
+	public void testBudget() throws IOException {
+		Path history = temp.newFile("history.properties").toPath();
+		Files.write(history, Collections.singletonList(BudgetTest.class.getName() + "#historical=20000"), StandardCharsets.UTF_8);
+		System.setProperty(TimeBudget.BUDGET, "10000");
+		System.setProperty(TimeBudget.HISTORY, history.toString());
+		TestResult result = runTest(Request.aClass(BudgetTest.class), new TimeBudgetListener());
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.hasSize(7)
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("slow", "reserved", "optional", "historical")
+			.hasEntrySatisfying("slow", failure ->
+				assertThat(failure.getMessage())
+					.contains("Time budget 10000 ms")
+					.contains("expected 50000 ms")
+					.endsWith("limit 9000 ms for priority 0")
+			)
+			.hasEntrySatisfying("optional", failure ->
+				assertThat(failure.getMessage()).endsWith("limit 8000 ms for priority -1")
+			)
+			.hasEntrySatisfying("historical", failure ->
+				assertThat(failure.getMessage()).contains("expected 20000 ms")
+			)
+		;
+	}
+
+	@Test
+	public void testReasonOfDecision() throws InterruptedException {
+		TimeBudget.start();
+		TimeBudgetCondition condition = new TimeBudgetCondition(new TimeBudget(1, 0, DurationHistory.EMPTY));
+		condition.setDescription(Description.createTestDescription(getClass(), "test"));
+		Thread.sleep(10);
+		long before = TimeBudget.elapsed();
+		Decision decision = condition.evaluate();
+		long after = TimeBudget.elapsed();
+		assertThat(decision.isSkip()).isTrue();
+
+		//Reason describes elapsed time used for decision even if computed later
+		Thread.sleep(100);
+		Matcher matcher = Pattern.compile("elapsed (\\d+) ms").matcher(decision.getReason());
+		assertThat(matcher.find()).isTrue();
+		assertThat(Long.parseLong(matcher.group(1))).isBetween(before, after);
+	}
+}
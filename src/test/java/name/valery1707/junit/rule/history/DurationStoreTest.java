@@ -0,0 +1,168 @@
+package name.valery1707.junit.rule.history;
+
+import name.valery1707.junit.rule.AlwaysSkipCondition;
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.condition.TestId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DurationStoreTest {
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private Path store() {
+		return temp.getRoot().toPath().resolve("durations.bin");
+	}
+
+	//region Recorder
+	public static class RecordedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		public void slow() throws InterruptedException {
+			Thread.sleep(50);
+		}
+
+		@Test
+		public void fast() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		public void failure() {
+			assertThat("Blank").isBlank();
+		}
+
+		@Test
+		@ConditionalIgnore(condition = AlwaysSkipCondition.class)
+		public void skipped() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	private static long id(String method) {
+		return TestId.hash(TestId.of(RecordedTest.class.getName(), method));
+	}
+
+	@Test
+	public void testRecorder() throws IOException {
+		Path path = store();
+		runTest(Request.aClass(RecordedTest.class), new DurationRecorder(path));
+		runTest(Request.aClass(RecordedTest.class), new DurationRecorder(path));
+
+		assertThat(DurationStore.isStore(path)).isTrue();
+		DurationStore store = DurationStore.open(path);
+		assertThat(store.getTests()).isEqualTo(3);
+		assertThat(store.getRecords()).isEqualTo(6);
+		assertThat(store.duration(id("slow"))).isGreaterThanOrEqualTo(50);
+		assertThat(store.duration(id("fast"))).isBetween(0L, 49L);
+		assertThat(store.duration(id("skipped"))).isEqualTo(DurationHistory.UNKNOWN);
+		assertThat(store.failures(id("failure"))).isEqualTo(2);
+		assertThat(store.failures(id("fast"))).isEqualTo(0);
+		assertThat(store.runs(id("fast"))).isEqualTo(2);
+	}
+	//endregion
+
+	//region Store
+	@Test
+	public void testMissing() throws IOException {
+		DurationStore store = DurationStore.open(store());
+		assertThat(store.getTests()).isEqualTo(0);
+		assertThat(store.duration(1)).isEqualTo(DurationHistory.UNKNOWN);
+	}
+
+	@Test
+	public void testPercentile() throws IOException {
+		Path path = store();
+		DurationRecorder recorder = new DurationRecorder(path);
+		for (int i = 1; i <= 10; i++) {
+			recorder.append(42, i * 10, 0);
+		}
+		recorder.testRunFinished(null);
+		assertThat(DurationStore.open(path).duration(42)).isEqualTo(90);
+	}
+
+	@Test
+	public void testCompact() throws IOException {
+		Path path = store();
+		DurationRecorder recorder = new DurationRecorder(path);
+		for (int i = 1; i <= 40; i++) {
+			recorder.append(42, i, i % 4 == 0 ? DurationStore.FLAG_FAILED : 0);
+			recorder.append(-42, 1000, 0);
+		}
+		DurationStore before = DurationStore.open(path);
+		assertThat(before.getRecords()).isEqualTo(80);
+
+		recorder.testRunFinished(null);
+		DurationStore.compact(path);
+		DurationStore after = DurationStore.open(path);
+		assertThat(after.getRecords()).isEqualTo(2 * DurationStore.SAMPLES);
+		assertThat(after.getTests()).isEqualTo(2);
+		assertThat(after.duration(42)).isEqualTo(before.duration(42)).isEqualTo(39);
+		assertThat(after.duration(-42)).isEqualTo(1000);
+		assertThat(after.failures(42)).isEqualTo(before.failures(42)).isEqualTo(4);
+		assertThat(Files.size(path)).isEqualTo(DurationStore.HEADER_SIZE + 2L * DurationStore.SAMPLES * DurationStore.RECORD_SIZE);
+
+		recorder.append(42, 5000, 0);
+		recorder.testRunFinished(null);
+		assertThat(DurationStore.open(path).getRecords()).isEqualTo(2 * DurationStore.SAMPLES + 1);
+	}
+
+	@Test
+	public void testCompactWhileRecording() throws IOException {
+		Path path = store();
+		DurationRecorder recorder = new DurationRecorder(path);
+		recorder.append(42, 10, 0);
+		//Compaction by another process replaces file of store
+		DurationStore.compact(path);
+		recorder.append(42, 20, 0);
+		recorder.append(-42, 30, 0);
+		DurationStore store = DurationStore.open(path);
+		assertThat(store.getRecords()).isEqualTo(3);
+		assertThat(store.duration(-42)).isEqualTo(30);
+	}
+
+	@Test
+	public void testCompactOnRunFinished() throws IOException {
+		Path path = store();
+		DurationRecorder recorder = new DurationRecorder(path);
+		for (int i = 0; i < 2 * DurationStore.SAMPLES; i++) {
+			recorder.append(42, i, 0);
+		}
+		recorder.testRunFinished(null);
+		assertThat(DurationStore.open(path).getRecords()).isEqualTo(2 * DurationStore.SAMPLES);
+
+		for (int i = 0; i < DurationStore.SAMPLES; i++) {
+			recorder.append(42, i, 0);
+		}
+		recorder.testRunFinished(null);
+		assertThat(DurationStore.open(path).getRecords()).isEqualTo(DurationStore.SAMPLES);
+	}
+
+	@Test
+	public void testUnknownFormat() throws IOException {
+		Path path = store();
+		Files.write(path, Collections.singletonList("some#test=10"), StandardCharsets.UTF_8);
+		assertThat(DurationStore.isStore(path)).isFalse();
+		assertThatThrownBy(() -> DurationStore.open(path))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageStartingWith("Unknown format")
+		;
+		assertThat(DurationHistories.load(path).duration(TestId.hash("some#test"))).isEqualTo(10);
+	}
+	//endregion
+}
@@ -0,0 +1,45 @@
+package name.valery1707.junit.rule.history;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+	@Test
+	public void testBuckets() {
+		for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE}) {
+			int index = LatencyHistogram.index(value);
+			assertThat(LatencyHistogram.value(index))
+				.describedAs("value of bucket %d for %d", index, value)
+				.isCloseTo(value, within(Math.max(1, value / 16)));
+		}
+		assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isLessThan(60 * 16);
+	}
+
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.percentile(50)).isZero();
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getMin()).isEqualTo(1000);
+		assertThat(histogram.getMax()).isEqualTo(1_000_000);
+		assertThat(histogram.getMean()).isEqualTo(500_500);
+		assertThat(histogram.percentile(50)).isCloseTo(500_000, within(500_000L / 16));
+		assertThat(histogram.percentile(99)).isCloseTo(990_000, within(990_000L / 16));
+		assertThat(histogram.percentile(100)).isEqualTo(1_000_000);
+		assertThat(histogram.toString()).startsWith("count=1000, min=1000, p50=");
+	}
+
+	@Test
+	public void testInvalid() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThatThrownBy(() -> histogram.record(-1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> histogram.percentile(0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> histogram.percentile(101)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,141 @@
+package name.valery1707.junit.rule.jupiter;
+
+import name.valery1707.junit.rule.AlwaysRunCondition;
+import name.valery1707.junit.rule.AlwaysSkipCondition;
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;
+import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;
+import name.valery1707.junit.rule.condition.OutcomeCache;
+import name.valery1707.junit.rule.condition.SharedOutcome;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalIgnoreExtensionTest {
+	private static final AtomicInteger PROBES = new AtomicInteger();
+
+	@After
+	public void tearDown() {
+		OutcomeCache.reset();
+		PROBES.set(0);
+	}
+
+	/**
+	 * Context of test method with test instance, other methods are not used by extension.
+	 */
+	private static ExtensionContext context(Object target, @Nullable String methodName) throws NoSuchMethodException {
+		Method method = methodName != null ? target.getClass().getMethod(methodName) : null;
+		return (ExtensionContext) Proxy.newProxyInstance(
+			ExtensionContext.class.getClassLoader(),
+			new Class<?>[]{ExtensionContext.class},
+			(proxy, invoked, args) -> {
+				switch (invoked.getName()) {
+					case "getTestMethod":
+						return Optional.ofNullable(method);
+					case "getTestInstance":
+						return Optional.of(target);
+					default:
+						throw new UnsupportedOperationException(invoked.getName());
+				}
+			}
+		);
+	}
+
+	@SharedOutcome
+	public static class ProbeCondition implements IgnoreCondition {
+		@Override
+		public boolean needSkip() {
+			PROBES.incrementAndGet();
+			return true;
+		}
+
+		@Override
+		public String reason() {
+			return "expensive probe";
+		}
+	}
+
+	public static class MixedTest {
+		@Rule
+		public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();
+
+		@Test
+		@org.junit.jupiter.api.Test
+		@ConditionalIgnore(condition = AlwaysRunCondition.class)
+		public void run() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@org.junit.jupiter.api.Test
+		@ConditionalIgnore(condition = AlwaysSkipCondition.class)
+		public void skip() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@org.junit.jupiter.api.Test
+		@ConditionalIgnore(expression = "cores > 0")
+		public void expression() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@org.junit.jupiter.api.Test
+		@ConditionalIgnore(condition = ProbeCondition.class)
+		public void probe() {
+			assertThat("Blank").isNotBlank();
+		}
+
+		@Test
+		@org.junit.jupiter.api.Test
+		public void plain() {
+			assertThat("Blank").isNotBlank();
+		}
+	}
+
+	@Test
+	public void testExtension() throws NoSuchMethodException {
+		ConditionalIgnoreExtension extension = new ConditionalIgnoreExtension();
+		MixedTest target = new MixedTest();
+
+		assertThat(extension.evaluateExecutionCondition(context(target, null)).isDisabled()).isFalse();
+		assertThat(extension.evaluateExecutionCondition(context(target, "run")).isDisabled()).isFalse();
+		assertThat(extension.evaluateExecutionCondition(context(target, "plain")).isDisabled()).isFalse();
+
+		ConditionEvaluationResult skip = extension.evaluateExecutionCondition(context(target, "skip"));
+		assertThat(skip.isDisabled()).isTrue();
+		assertThat(skip.getReason()).contains("Ignored by AlwaysSkipCondition");
+
+		ConditionEvaluationResult expression = extension.evaluateExecutionCondition(context(target, "expression"));
+		assertThat(expression.isDisabled()).isTrue();
+		assertThat(expression.getReason()).contains("Ignored by ExpressionCondition: Expression 'cores > 0' is true");
+	}
+
+	@Test
+	public void testSharedCache() throws NoSuchMethodException {
+		ConditionEvaluationResult probe = new ConditionalIgnoreExtension().evaluateExecutionCondition(context(new MixedTest(), "probe"));
+		assertThat(probe.isDisabled()).isTrue();
+		assertThat(probe.getReason()).contains("Ignored by ProbeCondition: expensive probe");
+
+		TestResult result = runTest(MixedTest.class);
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("skip", "expression", "probe")
+			.hasEntrySatisfying("probe", failure -> assertThat(failure.getMessage()).isEqualTo(probe.getReason().orElse(null)))
+		;
+		assertThat(PROBES).hasValue(1);
+	}
+}
@@ -0,0 +1,252 @@
+package name.valery1707.junit.rule.processor;
+
+import name.valery1707.junit.rule.ConditionRegistry;
+import name.valery1707.junit.rule.ConditionalIgnoreRule;
+import name.valery1707.junit.rule.utils.TestResult;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nullable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static name.valery1707.junit.rule.utils.TestResult.runTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalIgnoreProcessorTest {
+	private static final String HEADER = ""
+		+ "package sample;\n"
+		+ "import name.valery1707.junit.rule.ConditionalIgnoreRule;\n"
+		+ "import name.valery1707.junit.rule.ConditionalIgnoreRule.ConditionalIgnore;\n"
+		+ "import name.valery1707.junit.rule.ConditionalIgnoreRule.IgnoreCondition;\n"
+		+ "import org.junit.Rule;\n"
+		+ "import org.junit.Test;\n";
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private Path sources;
+	private Path classes;
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+	private ClassLoader loader;
+
+	@Before
+	public void setUp() throws IOException {
+		sources = temp.newFolder("src").toPath();
+		classes = temp.newFolder("classes").toPath();
+		diagnostics = new DiagnosticCollector<>();
+	}
+
+	private static String location(Class<?> type) {
+		try {
+			return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private boolean compile(String name, String source, String... extra) throws IOException {
+		Path file = sources.resolve(name + ".java");
+		Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+			String classpath = Stream.of(ConditionalIgnoreRule.class, Test.class, Matcher.class, Nullable.class)
+				.map(ConditionalIgnoreProcessorTest::location)
+				.distinct()
+				.collect(Collectors.joining(File.pathSeparator));
+			List<String> options = new ArrayList<>(Arrays.asList("-d", classes.toString(), "-s", sources.toString(), "-classpath", classpath));
+			options.addAll(Arrays.asList(extra));
+			return compiler.getTask(null, files, diagnostics, options, null, files.getJavaFileObjects(file.toFile())).call();
+		}
+	}
+
+	private List<String> errors() {
+		return diagnostics.getDiagnostics().stream()
+			.filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+			.map(diagnostic -> firstLine(diagnostic.getMessage(null)))
+			.collect(Collectors.toList());
+	}
+
+	//Compiler indents continuation lines of multiline messages
+	private static String firstLine(String message) {
+		return message.split("\n", 2)[0];
+	}
+
+	private Class<?> load(String name) throws IOException, ClassNotFoundException {
+		if (loader == null) {
+			loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+		}
+		return Class.forName(name, true, loader);
+	}
+
+	//region Registry
+	private static final String VALID = HEADER
+		+ "public class ValidTest {\n"
+		+ "	@Rule public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();\n"
+		+ "	public static class Skip implements IgnoreCondition { public boolean needSkip() { return true; } }\n"
+		+ "	public class Member implements IgnoreCondition { public boolean needSkip() { return true; } }\n"
+		+ "	static class Hidden implements IgnoreCondition { Hidden() {} public boolean needSkip() { return true; } }\n"
+		+ "	@Test @ConditionalIgnore(condition = Skip.class) public void standalone() {}\n"
+		+ "	@Test @ConditionalIgnore(condition = Member.class) public void member() {}\n"
+		+ "	@Test @ConditionalIgnore(condition = Hidden.class) public void hidden() {}\n"
+		+ "	@Test @ConditionalIgnore(expression = \"cores < 1 || prop[\\\"x\\\"] == null\") @ConditionalIgnore(condition = Skip.class) public void repeated() {}\n"
+		+ "	@Test public void plain() {}\n"
+		+ "}\n";
+
+	@Test
+	public void testRegistry() throws Exception {
+		assertThat(compile("ValidTest", VALID)).describedAs(errors().toString()).isTrue();
+		assertThat(sources.resolve("sample/ValidTest_ConditionRegistry.java")).exists();
+
+		Class<?> test = load("sample.ValidTest");
+		ConditionRegistry registry = (ConditionRegistry) load("sample.ValidTest" + ConditionRegistry.SUFFIX).newInstance();
+		assertThat(registry.conditions("repeated"))
+			.extracting(ConditionRegistry.Factory::getKey)
+			.containsExactly("cores < 1 || prop[\"x\"] == null", test.getClassLoader().loadClass("sample.ValidTest$Skip"));
+		assertThat(registry.conditions("plain")).isEmpty();
+
+		TestResult result = runTest(test);
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getCompleted())
+			.describedAs("completed")
+			.containsOnlyKeys("standalone", "member", "hidden", "repeated", "plain")
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("standalone", "member", "hidden", "repeated")
+		;
+	}
+
+	@Test
+	public void testFallbackToReflection() throws Exception {
+		assertThat(compile("ValidTest", VALID)).describedAs(errors().toString()).isTrue();
+		Files.delete(classes.resolve("sample/ValidTest" + ConditionRegistry.SUFFIX + ".class"));
+
+		TestResult result = runTest(load("sample.ValidTest"));
+		//Condition with package-private constructor can be created only by generated registry
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.containsOnlyKeys("ValidTest")
+			.hasEntrySatisfying("ValidTest", failure ->
+				assertThat(failure.getMessage()).isEqualTo(String.format(ConditionalIgnoreRule.INVALID_CLASS_CTOR, "sample.ValidTest$Hidden"))
+			)
+		;
+	}
+
+	private static final String INHERITED = HEADER
+		+ "class BaseTest {\n"
+		+ "	public class Member implements IgnoreCondition { public boolean needSkip() { return true; } }\n"
+		+ "}\n"
+		+ "public class InheritedTest extends BaseTest {\n"
+		+ "	@Rule public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();\n"
+		+ "	@Test @ConditionalIgnore(condition = Member.class) public void inherited() {}\n"
+		+ "}\n";
+
+	private void assertInherited() throws Exception {
+		TestResult result = runTest(load("sample.InheritedTest"));
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("inherited")
+		;
+	}
+
+	@Test
+	public void testMemberOfSuperclass() throws Exception {
+		assertThat(compile("InheritedTest", INHERITED)).describedAs(errors().toString()).isTrue();
+		assertThat(sources.resolve("sample/InheritedTest_ConditionRegistry.java")).exists();
+		assertInherited();
+	}
+
+	@Test
+	public void testMemberOfSuperclassWithReflection() throws Exception {
+		assertThat(compile("InheritedTest", INHERITED, "-proc:none")).describedAs(errors().toString()).isTrue();
+		assertThat(classes.resolve("sample/InheritedTest" + ConditionRegistry.SUFFIX + ".class")).doesNotExist();
+		assertInherited();
+	}
+
+	@Test
+	public void testStaleRegistry() throws Exception {
+		String source = HEADER
+			+ "public class StaleTest {\n"
+			+ "	@Rule public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();\n"
+			+ "	public static class Skip implements IgnoreCondition { public boolean needSkip() { return true; } }\n"
+			+ "	@Test @ConditionalIgnore(condition = Skip.class) public void first() {}\n"
+			+ "	@Test public void second() {}\n"
+			+ "}\n";
+		assertThat(compile("StaleTest", source)).describedAs(errors().toString()).isTrue();
+		//Annotation is moved and class is recompiled without processor, so old registry stays in output
+		String moved = source
+			.replace("@ConditionalIgnore(condition = Skip.class) public void first", "public void first")
+			.replace("@Test public void second", "@Test @ConditionalIgnore(condition = Skip.class) public void second");
+		assertThat(compile("StaleTest", moved, "-proc:none")).describedAs(errors().toString()).isTrue();
+		assertThat(classes.resolve("sample/StaleTest" + ConditionRegistry.SUFFIX + ".class")).exists();
+
+		TestResult result = runTest(load("sample.StaleTest"));
+		assertThat(result.getFailures())
+			.describedAs("failures")
+			.isEmpty()
+		;
+		assertThat(result.getIgnoredByAssumption())
+			.describedAs("ignoredByAssumption")
+			.containsOnlyKeys("second")
+		;
+	}
+	//endregion
+
+	//region Validation
+	@Test
+	public void testInvalid() throws IOException {
+		String source = HEADER
+			+ "public class InvalidTest {\n"
+			+ "	@Rule public ConditionalIgnoreRule rule = new ConditionalIgnoreRule();\n"
+			+ "	public static class WithArgument implements IgnoreCondition { public WithArgument(int value) {} }\n"
+			+ "	public static abstract class Abstract implements IgnoreCondition { }\n"
+			+ "	public static class Other { public class Member implements IgnoreCondition { } }\n"
+			+ "	@Test @ConditionalIgnore(condition = WithArgument.class) public void argument() {}\n"
+			+ "	@Test @ConditionalIgnore(condition = Abstract.class) public void notInstantiable() {}\n"
+			+ "	@Test @ConditionalIgnore(condition = Other.Member.class) public void foreignMember() {}\n"
+			+ "	@Test @ConditionalIgnore public void empty() {}\n"
+			+ "	@Test @ConditionalIgnore(condition = WithArgument.class, expression = \"true\") public void both() {}\n"
+			+ "	@Test @ConditionalIgnore(expression = \"cores >\") public void expression() {}\n"
+			+ "}\n";
+		assertThat(compile("InvalidTest", source)).isFalse();
+		assertThat(errors()).containsExactlyInAnyOrder(
+			String.format(ConditionalIgnoreRule.INVALID_CLASS_CTOR, "sample.InvalidTest$WithArgument"),
+			String.format(ConditionalIgnoreRule.INVALID_CLASS_CTOR, "sample.InvalidTest$Abstract"),
+			firstLine(String.format(ConditionalIgnoreRule.INVALID_CLASS_DECLARATION, "sample.InvalidTest$Other$Member")),
+			ConditionalIgnoreRule.INVALID_ANNOTATION,
+			ConditionalIgnoreRule.INVALID_ANNOTATION,
+			"Invalid expression 'cores >': Unexpected end at position 7"
+		);
+		assertThat(sources.resolve("sample/InvalidTest_ConditionRegistry.java")).doesNotExist();
+	}
+	//endregion
+}
@@ -33,18 +33,24 @@ public class TestResult {
 		this.failures = failures;
 	}
 
-	public static TestResult runTest(Request request) {
+	public static TestResult runTest(Request request, RunListener... listeners) {
 		MyRunListener listener = new MyRunListener();
 
 		Runner runner = request.getRunner();
 		RunNotifier notifier = new RunNotifier();
 		notifier.addFirstListener(listener);
+		for (RunListener additional : listeners) {
+			notifier.addListener(additional);
+		}
 		try {
 			notifier.fireTestRunStarted(runner.getDescription());
 			runner.run(notifier);
 			notifier.fireTestRunFinished(null);
 		} finally {
 			notifier.removeListener(listener);
+			for (RunListener additional : listeners) {
+				notifier.removeListener(additional);
+			}
 		}
 
 		return new TestResult(